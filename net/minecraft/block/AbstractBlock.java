@@ -458,6 +458,27 @@ public abstract class AbstractBlock {
          return this.getBlock().getCullingShape(this.asBlockState(), world, pos);
       }
 
+      /**
+       * Returns whether the culling faces of this state are cached, in which
+       * case {@link #isCullingFaceEmpty}, {@link #isCullingFaceFull} and
+       * {@link #isCullingFaceInsideCube} describe them.
+       */
+      public boolean hasCachedCullingFaces() {
+         return this.shapeCache != null && this.shapeCache.extrudedFaces != null;
+      }
+
+      public boolean isCullingFaceEmpty(Direction direction) {
+         return this.hasCachedCullingFaces() && (this.shapeCache.emptyFaces & 1 << direction.ordinal()) != 0;
+      }
+
+      public boolean isCullingFaceFull(Direction direction) {
+         return this.hasCachedCullingFaces() && (this.shapeCache.fullFaces & 1 << direction.ordinal()) != 0;
+      }
+
+      public boolean isCullingFaceInsideCube(Direction direction) {
+         return this.hasCachedCullingFaces() && (this.shapeCache.insideCubeFaces & 1 << direction.ordinal()) != 0;
+      }
+
       public boolean exceedsCube() {
          return this.shapeCache == null || this.shapeCache.exceedsCube;
       }
@@ -772,6 +793,9 @@ public abstract class AbstractBlock {
          private final int lightSubtracted;
          @Nullable
          private final VoxelShape[] extrudedFaces;
+         private final byte emptyFaces;
+         private final byte fullFaces;
+         private final byte insideCubeFaces;
          protected final VoxelShape collisionShape;
          protected final boolean exceedsCube;
          private final boolean[] solidSides;
@@ -785,16 +809,36 @@ public abstract class AbstractBlock {
             int var5;
             if (!state.isOpaque()) {
                this.extrudedFaces = null;
+               this.emptyFaces = 0;
+               this.fullFaces = 0;
+               this.insideCubeFaces = 0;
             } else {
                this.extrudedFaces = new VoxelShape[DIRECTIONS.length];
                VoxelShape voxelShape = block.getCullingShape(state, EmptyBlockView.INSTANCE, BlockPos.ORIGIN);
+               int i = 0;
+               int j = 0;
+               int k = 0;
                Direction[] var4 = DIRECTIONS;
                var5 = var4.length;
 
                for(int var6 = 0; var6 < var5; ++var6) {
                   Direction direction = var4[var6];
-                  this.extrudedFaces[direction.ordinal()] = VoxelShapes.extrudeFace(voxelShape, direction);
+                  VoxelShape voxelShape2 = VoxelShapes.extrudeFace(voxelShape, direction);
+                  this.extrudedFaces[direction.ordinal()] = voxelShape2;
+                  if (voxelShape2.isEmpty()) {
+                     i |= 1 << direction.ordinal();
+                  } else if (Block.isShapeFullCube(voxelShape2)) {
+                     j |= 1 << direction.ordinal();
+                  }
+
+                  if (isInsideCube(voxelShape2)) {
+                     k |= 1 << direction.ordinal();
+                  }
                }
+
+               this.emptyFaces = (byte)i;
+               this.fullFaces = (byte)j;
+               this.insideCubeFaces = (byte)k;
             }
 
             this.collisionShape = block.getCollisionShape(state, EmptyBlockView.INSTANCE, BlockPos.ORIGIN, ShapeContext.absent());
@@ -826,6 +870,24 @@ public abstract class AbstractBlock {
          private static int indexSolidSide(Direction direction, SideShapeType shapeType) {
             return direction.ordinal() * SHAPE_TYPE_LENGTH + shapeType.ordinal();
          }
+
+         private static boolean isInsideCube(VoxelShape shape) {
+            if (shape.isEmpty()) {
+               return true;
+            } else {
+               Direction.Axis[] var1 = Direction.Axis.values();
+               int var2 = var1.length;
+
+               for(int var3 = 0; var3 < var2; ++var3) {
+                  Direction.Axis axis = var1[var3];
+                  if (shape.getMin(axis) < 0.0D || shape.getMax(axis) > 1.0D) {
+                     return false;
+                  }
+               }
+
+               return true;
+            }
+         }
       }
    }
 
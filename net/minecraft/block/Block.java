@@ -42,6 +42,7 @@ import net.minecraft.util.function.BooleanBiFunction;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.RawIdHolder;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.util.shape.VoxelShapes;
@@ -55,7 +56,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
-public class Block extends AbstractBlock implements ItemConvertible {
+public class Block extends AbstractBlock implements ItemConvertible, RawIdHolder {
    protected static final Logger LOGGER = LogManager.getLogger();
    public static final IdList<BlockState> STATE_IDS = new IdList();
    private static final LoadingCache<VoxelShape, Boolean> FULL_CUBE_SHAPE_CACHE = CacheBuilder.newBuilder().maximumSize(512L).weakKeys().build(new CacheLoader<VoxelShape, Boolean>() {
@@ -65,6 +66,7 @@ public class Block extends AbstractBlock implements ItemConvertible {
    });
    protected final StateManager<Block, BlockState> stateManager;
    private BlockState defaultState;
+   private int cachedRawId = -1;
    @Nullable
    private String translationKey;
    @Nullable
@@ -206,6 +208,21 @@ public class Block extends AbstractBlock implements ItemConvertible {
       if (state.isSideInvisible(blockState, facing)) {
          return false;
       } else if (blockState.isOpaque()) {
+         if (state.hasCachedCullingFaces() && blockState.hasCachedCullingFaces()) {
+            Direction direction = facing.getOpposite();
+            if (state.isCullingFaceEmpty(facing)) {
+               return false;
+            }
+
+            if (blockState.isCullingFaceFull(direction) && state.isCullingFaceInsideCube(facing)) {
+               return false;
+            }
+
+            if (blockState.isCullingFaceEmpty(direction)) {
+               return true;
+            }
+         }
+
          Block.NeighborGroup neighborGroup = new Block.NeighborGroup(state, blockState, facing);
          Object2ByteLinkedOpenHashMap<Block.NeighborGroup> object2ByteLinkedOpenHashMap = (Object2ByteLinkedOpenHashMap)FACE_CULL_MAP.get();
          byte b = object2ByteLinkedOpenHashMap.getAndMoveToFirst(neighborGroup);
@@ -214,7 +231,7 @@ public class Block extends AbstractBlock implements ItemConvertible {
          } else {
             VoxelShape voxelShape = state.getCullingFace(world, pos, facing);
             VoxelShape voxelShape2 = blockState.getCullingFace(world, blockPos, facing.getOpposite());
-            boolean bl = VoxelShapes.matchesAnywhere(voxelShape, voxelShape2, BooleanBiFunction.ONLY_FIRST);
+            boolean bl = VoxelShapes.matchesAnywhereCached(voxelShape, voxelShape2, BooleanBiFunction.ONLY_FIRST);
             if (object2ByteLinkedOpenHashMap.size() == 2048) {
                object2ByteLinkedOpenHashMap.removeLastByte();
             }
@@ -417,6 +434,14 @@ public class Block extends AbstractBlock implements ItemConvertible {
       return this.stateManager;
    }
 
+   public int getCachedRawId() {
+      return this.cachedRawId;
+   }
+
+   public void setCachedRawId(int rawId) {
+      this.cachedRawId = rawId;
+   }
+
    protected final void setDefaultState(BlockState state) {
       this.defaultState = state;
    }
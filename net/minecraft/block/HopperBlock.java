@@ -127,6 +127,11 @@ public class HopperBlock extends BlockWithEntity {
    }
 
    public void neighborUpdate(BlockState state, World world, BlockPos pos, Block block, BlockPos fromPos, boolean notify) {
+      BlockEntity blockEntity = world.getBlockEntity(pos);
+      if (blockEntity instanceof HopperBlockEntity) {
+         ((HopperBlockEntity)blockEntity).invalidateCachedInventories();
+      }
+
       this.updateEnabled(world, pos, state);
    }
 
@@ -18,7 +18,7 @@ public enum SideShapeType {
       private final VoxelShape squareCuboid = Block.createCuboidShape(7.0D, 0.0D, 7.0D, 9.0D, 10.0D, 9.0D);
 
       public boolean matches(BlockState state, BlockView world, BlockPos pos, Direction direction) {
-         return !VoxelShapes.matchesAnywhere(state.getSidesShape(world, pos).getFace(direction), this.squareCuboid, BooleanBiFunction.ONLY_SECOND);
+         return !VoxelShapes.matchesAnywhereCached(state.getSidesShape(world, pos).getFace(direction), this.squareCuboid, BooleanBiFunction.ONLY_SECOND);
       }
    },
    RIGID {
@@ -30,7 +30,7 @@ public enum SideShapeType {
       }
 
       public boolean matches(BlockState state, BlockView world, BlockPos pos, Direction direction) {
-         return !VoxelShapes.matchesAnywhere(state.getSidesShape(world, pos).getFace(direction), this.hollowSquareCuboid, BooleanBiFunction.ONLY_SECOND);
+         return !VoxelShapes.matchesAnywhereCached(state.getSidesShape(world, pos).getFace(direction), this.hollowSquareCuboid, BooleanBiFunction.ONLY_SECOND);
       }
    };
 
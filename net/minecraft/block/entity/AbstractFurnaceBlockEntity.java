@@ -2,6 +2,7 @@ package net.minecraft.block.entity;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.Object2IntMap.Entry;
@@ -9,6 +10,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import net.minecraft.SharedConstants;
 import net.minecraft.block.AbstractFurnaceBlock;
 import net.minecraft.block.BlockState;
@@ -53,6 +55,8 @@ public abstract class AbstractFurnaceBlockEntity extends LockableContainerBlockE
    protected final PropertyDelegate propertyDelegate;
    private final Object2IntOpenHashMap<Identifier> recipesUsed;
    protected final RecipeType<? extends AbstractCookingRecipe> recipeType;
+   @Nullable
+   private Identifier lastRecipeId;
 
    protected AbstractFurnaceBlockEntity(BlockEntityType<?> blockEntityType, RecipeType<? extends AbstractCookingRecipe> recipeType) {
       super(blockEntityType);
@@ -244,7 +248,7 @@ public abstract class AbstractFurnaceBlockEntity extends LockableContainerBlockE
                this.cookTime = MathHelper.clamp(this.cookTime - 2, 0, this.cookTimeTotal);
             }
          } else {
-            Recipe<?> recipe = (Recipe)this.world.getRecipeManager().getFirstMatch(this.recipeType, this, this.world).orElse((Object)null);
+            Recipe<?> recipe = (Recipe)this.getMatchingRecipe().orElse((Object)null);
             if (!this.isBurning() && this.canAcceptRecipeOutput(recipe)) {
                this.burnTime = this.getFuelTime(itemStack);
                this.fuelTime = this.burnTime;
@@ -278,6 +282,10 @@ public abstract class AbstractFurnaceBlockEntity extends LockableContainerBlockE
             bl2 = true;
             this.world.setBlockState(this.pos, (BlockState)this.world.getBlockState(this.pos).with(AbstractFurnaceBlock.LIT, this.isBurning()), 3);
          }
+
+         if (!this.isBurning() && this.cookTime == 0) {
+            this.sleep();
+         }
       }
 
       if (bl2) {
@@ -341,7 +349,16 @@ public abstract class AbstractFurnaceBlockEntity extends LockableContainerBlockE
    }
 
    protected int getCookTime() {
-      return (Integer)this.world.getRecipeManager().getFirstMatch(this.recipeType, this, this.world).map(AbstractCookingRecipe::getCookTime).orElse(200);
+      return (Integer)this.getMatchingRecipe().map(AbstractCookingRecipe::getCookTime).orElse(200);
+   }
+
+   private Optional<AbstractCookingRecipe> getMatchingRecipe() {
+      Optional<Pair<Identifier, AbstractCookingRecipe>> optional = this.world.getRecipeManager().getFirstMatch((RecipeType)this.recipeType, this, this.world, this.lastRecipeId);
+      if (optional.isPresent()) {
+         this.lastRecipeId = (Identifier)((Pair)optional.get()).getFirst();
+      }
+
+      return optional.map(Pair::getSecond);
    }
 
    public static boolean canUseAsFuel(ItemStack stack) {
@@ -406,6 +423,7 @@ public abstract class AbstractFurnaceBlockEntity extends LockableContainerBlockE
       ItemStack itemStack = (ItemStack)this.inventory.get(slot);
       boolean bl = !stack.isEmpty() && stack.isItemEqualIgnoreDamage(itemStack) && ItemStack.areTagsEqual(stack, itemStack);
       this.inventory.set(slot, stack);
+      this.wakeUp();
       if (stack.getCount() > this.getMaxCountPerStack()) {
          stack.setCount(this.getMaxCountPerStack());
       }
@@ -173,6 +173,15 @@ public class BeaconBlockEntity extends BlockEntity implements NamedScreenHandler
             } else if (bl && !bl2) {
                this.playSound(SoundEvents.BLOCK_BEACON_DEACTIVATE);
             }
+
+            if (!bl2) {
+               // wake early enough to scan the whole beam again before the next level check
+               int m = (int)(80L - this.world.getTime() % 80L);
+               int o = (this.world.getHeight() - j) / 10 + 2;
+               if (m > o) {
+                  this.sleep(m - o);
+               }
+            }
          }
       }
 
@@ -8,6 +8,7 @@ import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Tickable;
 import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.registry.Registry;
@@ -26,6 +27,8 @@ public abstract class BlockEntity {
    @Nullable
    private BlockState cachedState;
    private boolean invalid;
+   private boolean sleeping;
+   private long tickOrder;
 
    public BlockEntity(BlockEntityType<?> type) {
       this.pos = BlockPos.ORIGIN;
@@ -93,6 +96,7 @@ public abstract class BlockEntity {
 
    public void markDirty() {
       if (this.world != null) {
+         this.wakeUp();
          this.cachedState = this.world.getBlockState(this.pos);
          this.world.markDirty(this.pos, this);
          if (!this.cachedState.isAir()) {
@@ -134,6 +138,7 @@ public abstract class BlockEntity {
 
    public void markRemoved() {
       this.removed = true;
+      this.wakeUp();
    }
 
    public void cancelRemoval() {
@@ -146,6 +151,65 @@ public abstract class BlockEntity {
 
    public void resetBlock() {
       this.cachedState = null;
+      this.wakeUp();
+   }
+
+   /**
+    * Returns whether this block entity has asked not to be ticked until it is
+    * woken up again.
+    */
+   public boolean isSleeping() {
+      return this.sleeping;
+   }
+
+   /**
+    * Stops ticking this block entity until it is woken up by {@link #wakeUp()}.
+    * 
+    * <p>Sleeping block entities are woken up when they are marked dirty, when
+    * their block state changes and when a neighboring block updates them. Only
+    * ticking block entities in a server world can sleep.
+    */
+   protected void sleep() {
+      if (this.world != null && !this.world.isClient && this instanceof Tickable) {
+         this.sleeping = true;
+      }
+
+   }
+
+   /**
+    * Stops ticking this block entity for at most {@code ticks} ticks.
+    * 
+    * @see #sleep()
+    */
+   protected void sleep(int ticks) {
+      this.sleep();
+      if (this.sleeping) {
+         this.world.scheduleBlockEntityWakeUp(this, ticks);
+      }
+
+   }
+
+   /**
+    * Returns the position of this block entity in the order block entities
+    * were added to the ticking list of its world, which is kept when it is
+    * put back into the list after sleeping.
+    */
+   public long getTickOrder() {
+      return this.tickOrder;
+   }
+
+   public void setTickOrder(long tickOrder) {
+      this.tickOrder = tickOrder;
+   }
+
+   public void wakeUp() {
+      if (this.sleeping) {
+         this.sleeping = false;
+         if (this.world != null) {
+            this.world.onBlockEntityWokenUp(this);
+         }
+      }
+
    }
 
    public void populateCrashReport(CrashReportSection crashReportSection) {
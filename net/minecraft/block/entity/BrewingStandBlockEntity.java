@@ -137,6 +137,10 @@ public class BrewingStandBlockEntity extends LockableContainerBlockEntity implem
 
             this.world.setBlockState(this.pos, blockState, 2);
          }
+
+         if (this.brewTime == 0 && (this.fuel <= 0 || !this.canCraft())) {
+            this.sleep();
+         }
       }
 
    }
@@ -224,6 +228,7 @@ public class BrewingStandBlockEntity extends LockableContainerBlockEntity implem
    public void setStack(int slot, ItemStack stack) {
       if (slot >= 0 && slot < this.inventory.size()) {
          this.inventory.set(slot, stack);
+         this.wakeUp();
       }
 
    }
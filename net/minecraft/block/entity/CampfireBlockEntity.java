@@ -54,6 +54,9 @@ public class CampfireBlockEntity extends BlockEntity implements Clearable, Ticka
             }
          }
 
+         if (this.isIdle(bl)) {
+            this.sleep();
+         }
       }
    }
 
@@ -77,6 +80,16 @@ public class CampfireBlockEntity extends BlockEntity implements Clearable, Ticka
 
    }
 
+   private boolean isIdle(boolean lit) {
+      for(int i = 0; i < this.itemsBeingCooked.size(); ++i) {
+         if (!((ItemStack)this.itemsBeingCooked.get(i)).isEmpty() && (lit || this.cookingTimes[i] > 0)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
    private void spawnSmokeParticles() {
       World world = this.getWorld();
       if (world != null) {
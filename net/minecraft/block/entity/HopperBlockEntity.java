@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.block.ChestBlock;
 import net.minecraft.block.HopperBlock;
 import net.minecraft.block.InventoryProvider;
@@ -30,6 +31,7 @@ import net.minecraft.util.function.BooleanBiFunction;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.shape.VoxelShapes;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
@@ -38,6 +40,17 @@ public class HopperBlockEntity extends LootableContainerBlockEntity implements H
    private DefaultedList<ItemStack> inventory;
    private int transferCooldown;
    private long lastTickTime;
+   /**
+    * Whether the last transfer attempt involved an entity inventory, such as a
+    * storage minecart. Those do not report their changes, so such a hopper
+    * never goes to sleep. Otherwise an idle hopper sleeps until a change to its
+    * own contents, a neighboring container or the item entities above it.
+    */
+   private boolean usedEntityInventory;
+   @Nullable
+   private BlockEntity cachedOutputInventory;
+   @Nullable
+   private BlockEntity cachedInputInventory;
 
    public HopperBlockEntity() {
       super(BlockEntityType.HOPPER);
@@ -93,14 +106,28 @@ public class HopperBlockEntity extends LootableContainerBlockEntity implements H
          this.lastTickTime = this.world.getTime();
          if (!this.needsCooldown()) {
             this.setCooldown(0);
-            this.insertAndExtract(() -> {
+            this.usedEntityInventory = false;
+            if (!this.insertAndExtract(() -> {
                return extract(this);
-            });
+            }) && !this.usedEntityInventory) {
+               this.sleep();
+            }
          }
 
       }
    }
 
+   public void invalidateCachedInventories() {
+      this.cachedOutputInventory = null;
+      this.cachedInputInventory = null;
+      this.wakeUp();
+   }
+
+   public void resetBlock() {
+      super.resetBlock();
+      this.invalidateCachedInventories();
+   }
+
    private boolean insertAndExtract(Supplier<Boolean> extractMethod) {
       if (this.world != null && !this.world.isClient) {
          if (!this.needsCooldown() && (Boolean)this.getCachedState().get(HopperBlock.ENABLED)) {
@@ -186,7 +213,7 @@ public class HopperBlockEntity extends LootableContainerBlockEntity implements H
    }
 
    public static boolean extract(Hopper hopper) {
-      Inventory inventory = getInputInventory(hopper);
+      Inventory inventory = hopper instanceof HopperBlockEntity ? ((HopperBlockEntity)hopper).getCachedInputInventory() : getInputInventory(hopper);
       if (inventory != null) {
          Direction direction = Direction.DOWN;
          return isInventoryEmpty(inventory, direction) ? false : getAvailableSlots(inventory, direction).anyMatch((i) -> {
@@ -293,7 +320,7 @@ public class HopperBlockEntity extends LootableContainerBlockEntity implements H
                   int k = 0;
                   if (from instanceof HopperBlockEntity) {
                      HopperBlockEntity hopperBlockEntity2 = (HopperBlockEntity)from;
-                     if (hopperBlockEntity.lastTickTime >= hopperBlockEntity2.lastTickTime) {
+                     if (hopperBlockEntity.isSleeping() || hopperBlockEntity.lastTickTime >= hopperBlockEntity2.lastTickTime) {
                         k = 1;
                      }
                   }
@@ -311,8 +338,93 @@ public class HopperBlockEntity extends LootableContainerBlockEntity implements H
 
    @Nullable
    private Inventory getOutputInventory() {
-      Direction direction = (Direction)this.getCachedState().get(HopperBlock.FACING);
-      return getInventoryAt(this.getWorld(), this.pos.offset(direction));
+      if (this.isCacheValid(this.cachedOutputInventory)) {
+         return (Inventory)this.cachedOutputInventory;
+      } else {
+         Direction direction = (Direction)this.getCachedState().get(HopperBlock.FACING);
+         Inventory inventory = getInventoryAt(this.getWorld(), this.pos.offset(direction));
+         this.cachedOutputInventory = this.toCacheable(inventory);
+         return inventory;
+      }
+   }
+
+   @Nullable
+   private Inventory getCachedInputInventory() {
+      if (this.isCacheValid(this.cachedInputInventory)) {
+         return (Inventory)this.cachedInputInventory;
+      } else {
+         Inventory inventory = getInventoryAt(this.getWorld(), this.pos.up());
+         this.cachedInputInventory = this.toCacheable(inventory);
+         return inventory;
+      }
+   }
+
+   private boolean isCacheValid(@Nullable BlockEntity blockEntity) {
+      return blockEntity != null && !blockEntity.isRemoved() && blockEntity.getWorld() == this.world;
+   }
+
+   /**
+    * Only plain block entity inventories are cached. Chest inventories depend on
+    * the neighboring chest and on whether the chest is blocked, and entity
+    * inventories move, so those are looked up again on every attempt.
+    */
+   @Nullable
+   private BlockEntity toCacheable(@Nullable Inventory inventory) {
+      if (inventory instanceof Entity) {
+         this.usedEntityInventory = true;
+      }
+
+      return inventory instanceof BlockEntity && !(inventory instanceof ChestBlockEntity) ? (BlockEntity)inventory : null;
+   }
+
+   /**
+    * Wakes the hoppers at and next to the given position, which covers every
+    * hopper that could insert into or extract from a container there.
+    */
+   public static void wakeHoppersAround(World world, BlockPos pos) {
+      BlockPos.Mutable mutable = new BlockPos.Mutable();
+      wakeHopperAt(world, mutable.set(pos));
+      Direction[] var3 = Direction.values();
+      int var4 = var3.length;
+
+      for(int var5 = 0; var5 < var4; ++var5) {
+         Direction direction = var3[var5];
+         wakeHopperAt(world, mutable.set(pos, direction));
+      }
+
+   }
+
+   /**
+    * Wakes the hoppers that could pick up from or insert into an entity
+    * occupying the given box.
+    */
+   public static void wakeHoppersAround(World world, Box box) {
+      int i = MathHelper.floor(box.minX);
+      int j = MathHelper.floor(box.maxX);
+      int k = MathHelper.floor(box.minY);
+      int l = MathHelper.floor(box.maxY);
+      int m = MathHelper.floor(box.minZ);
+      int n = MathHelper.floor(box.maxZ);
+      BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+      for(int o = i; o <= j; ++o) {
+         for(int p = k; p <= l; ++p) {
+            for(int q = m; q <= n; ++q) {
+               wakeHoppersAround(world, mutable.set(o, p, q));
+            }
+         }
+      }
+
+   }
+
+   private static void wakeHopperAt(World world, BlockPos pos) {
+      if (world.isChunkLoaded(pos) && world.getBlockState(pos).isOf(Blocks.HOPPER)) {
+         BlockEntity blockEntity = world.getBlockEntity(pos);
+         if (blockEntity instanceof HopperBlockEntity) {
+            ((HopperBlockEntity)blockEntity).wakeUp();
+         }
+      }
+
    }
 
    @Nullable
@@ -76,6 +76,14 @@ public abstract class LockableContainerBlockEntity extends BlockEntity implement
       }
    }
 
+   public void markDirty() {
+      super.markDirty();
+      if (this.world != null && !this.world.isClient) {
+         HopperBlockEntity.wakeHoppersAround(this.world, this.pos);
+      }
+
+   }
+
    @Nullable
    public ScreenHandler createMenu(int i, PlayerInventory playerInventory, PlayerEntity playerEntity) {
       return this.checkUnlocked(playerEntity) ? this.createScreenHandler(i, playerInventory) : null;
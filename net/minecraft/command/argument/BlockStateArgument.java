@@ -54,26 +54,38 @@ public class BlockStateArgument implements Predicate<CachedBlockPosition> {
    }
 
    public boolean setBlockState(ServerWorld world, BlockPos pos, int flags) {
-      BlockState blockState = Block.postProcessState(this.state, world, pos);
-      if (blockState.isAir()) {
-         blockState = this.state;
-      }
-
+      BlockState blockState = this.getPlacementState(world, pos);
       if (!world.setBlockState(pos, blockState, flags)) {
          return false;
       } else {
-         if (this.data != null) {
-            BlockEntity blockEntity = world.getBlockEntity(pos);
-            if (blockEntity != null) {
-               NbtCompound nbtCompound = this.data.copy();
-               nbtCompound.putInt("x", pos.getX());
-               nbtCompound.putInt("y", pos.getY());
-               nbtCompound.putInt("z", pos.getZ());
-               blockEntity.fromTag(blockState, nbtCompound);
-            }
-         }
-
+         this.applyData(world, pos, blockState);
          return true;
       }
    }
+
+   /**
+    * Returns the state to place at the position, updated for its neighbors.
+    */
+   public BlockState getPlacementState(ServerWorld world, BlockPos pos) {
+      BlockState blockState = Block.postProcessState(this.state, world, pos);
+      return blockState.isAir() ? this.state : blockState;
+   }
+
+   /**
+    * Loads the block entity data of this argument, if any, into the block
+    * entity at the position after the state was placed there.
+    */
+   public void applyData(ServerWorld world, BlockPos pos, BlockState state) {
+      if (this.data != null) {
+         BlockEntity blockEntity = world.getBlockEntity(pos);
+         if (blockEntity != null) {
+            NbtCompound nbtCompound = this.data.copy();
+            nbtCompound.putInt("x", pos.getX());
+            nbtCompound.putInt("y", pos.getY());
+            nbtCompound.putInt("z", pos.getZ());
+            blockEntity.fromTag(state, nbtCompound);
+         }
+      }
+
+   }
 }
@@ -0,0 +1,244 @@
+package net.minecraft.entity;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import net.minecraft.predicate.entity.EntityPredicates;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Resolves the {@linkplain LivingEntity#tickCramming() cramming} of living
+ * entities in batches at the end of the entity tick of a world, used with the
+ * {@link net.minecraft.world.GameRules#CROWD_COLLISIONS} game rule. Players,
+ * which tick after the world, are added by the world right before solving.
+ *
+ * <p>Entities are grouped by the chunk section they are in, and each group
+ * looks up the entities around all of its members at once. Each pair of
+ * touching entities is then looked at once: each side that can push the
+ * other pushes it, and each member takes cramming damage from the entities
+ * it can push. As pushing only changes velocities, the result is the same as
+ * every member cramming right after the others, at the positions all
+ * entities have after moving this tick rather than right after each one
+ * moved.
+ *
+ * <p>With the {@code entity.crowdCollisions.verify} system property set, the
+ * pushes of every batch are also worked out by letting every member cram on
+ * its own, and any difference in who is pushed or in the resulting
+ * velocities is logged. The velocities of cramming on its own are kept.
+ */
+public class CrowdCollisionSolver {
+   private static final Logger LOGGER = LogManager.getLogger();
+   private static final boolean VERIFY = Boolean.parseBoolean(System.getProperty("entity.crowdCollisions.verify", "false"));
+   private static final double VELOCITY_TOLERANCE = 1.0E-7D;
+   private final ServerWorld world;
+   private final List<LivingEntity> entities = Lists.newArrayList();
+   private final List<LivingEntity> members = Lists.newArrayList();
+   private final List<Predicate<Entity>> predicates = Lists.newArrayList();
+   private final Reference2IntMap<Entity> indices = new Reference2IntOpenHashMap();
+   private final List<LivingEntity> pushers = Lists.newArrayList();
+   private final List<Entity> pushed = Lists.newArrayList();
+
+   public CrowdCollisionSolver(ServerWorld world) {
+      this.world = world;
+      this.indices.defaultReturnValue(-1);
+   }
+
+   public void add(LivingEntity entity) {
+      this.entities.add(entity);
+   }
+
+   public void addAll(List<? extends LivingEntity> entities) {
+      this.entities.addAll(entities);
+   }
+
+   public void solve() {
+      if (!this.entities.isEmpty()) {
+         this.world.getProfiler().push("crowdCollisions");
+         Long2ObjectMap<List<LivingEntity>> long2ObjectMap = new Long2ObjectLinkedOpenHashMap();
+
+         for(int i = 0; i < this.entities.size(); ++i) {
+            LivingEntity livingEntity = (LivingEntity)this.entities.get(i);
+            if (!livingEntity.removed && livingEntity.world == this.world && this.indices.put(livingEntity, this.members.size()) == -1) {
+               this.members.add(livingEntity);
+               this.predicates.add(EntityPredicates.canBePushedBy(livingEntity));
+               ((List)long2ObjectMap.computeIfAbsent(ChunkSectionPos.from(livingEntity).asLong(), (l) -> {
+                  return Lists.newArrayList();
+               })).add(livingEntity);
+            }
+         }
+
+         this.entities.clear();
+         ObjectIterator var5 = long2ObjectMap.values().iterator();
+
+         while(var5.hasNext()) {
+            List<LivingEntity> list = (List)var5.next();
+            this.collect(list);
+         }
+
+         if (VERIFY) {
+            this.verify();
+         } else {
+            this.push();
+         }
+
+         this.members.clear();
+         this.predicates.clear();
+         this.indices.clear();
+         this.pushers.clear();
+         this.pushed.clear();
+         this.world.getProfiler().pop();
+      }
+   }
+
+   /**
+    * Collects the pushes between the members of the group and the entities
+    * touching them, and damages the members that are crammed.
+    */
+   private void collect(List<LivingEntity> group) {
+      Box box = ((LivingEntity)group.get(0)).getBoundingBox();
+
+      for(int i = 1; i < group.size(); ++i) {
+         box = box.union(((LivingEntity)group.get(i)).getBoundingBox());
+      }
+
+      List<Entity> list = this.world.getOtherEntities((Entity)null, box, (Predicate)null);
+
+      for(int j = 0; j < group.size(); ++j) {
+         LivingEntity livingEntity = (LivingEntity)group.get(j);
+         int k = this.indices.getInt(livingEntity);
+         Box box2 = livingEntity.getBoundingBox();
+         Predicate<Entity> predicate = (Predicate)this.predicates.get(k);
+         int l = 0;
+         int m = 0;
+
+         for(int n = 0; n < list.size(); ++n) {
+            Entity entity = (Entity)list.get(n);
+            if (entity != livingEntity && entity.getBoundingBox().intersects(box2)) {
+               boolean bl = predicate.test(entity);
+               if (bl) {
+                  ++l;
+                  if (!entity.hasVehicle()) {
+                     ++m;
+                  }
+               }
+
+               int o = this.indices.getInt(entity);
+               if (o == -1) {
+                  if (bl) {
+                     this.pushers.add(livingEntity);
+                     this.pushed.add(entity);
+                  }
+               } else if (k < o) {
+                  if (bl) {
+                     this.pushers.add(livingEntity);
+                     this.pushed.add(entity);
+                  }
+
+                  if (((Predicate)this.predicates.get(o)).test(livingEntity)) {
+                     this.pushers.add((LivingEntity)entity);
+                     this.pushed.add(livingEntity);
+                  }
+               }
+            }
+         }
+
+         livingEntity.tickCrammingDamage(l, m);
+      }
+
+   }
+
+   private void push() {
+      for(int i = 0; i < this.pushers.size(); ++i) {
+         ((LivingEntity)this.pushers.get(i)).pushAway((Entity)this.pushed.get(i));
+      }
+
+   }
+
+   /**
+    * Compares the collected pushes with those of every member cramming on
+    * its own, and keeps the velocities of the latter.
+    */
+   private void verify() {
+      Reference2ObjectMap<Entity, Vec3d> reference2ObjectMap = new Reference2ObjectOpenHashMap();
+      Reference2ObjectMap<Entity, Set<Entity>> reference2ObjectMap2 = new Reference2ObjectOpenHashMap();
+
+      for(int i = 0; i < this.pushers.size(); ++i) {
+         Entity entity = (Entity)this.pushers.get(i);
+         Entity entity2 = (Entity)this.pushed.get(i);
+         reference2ObjectMap.put(entity, entity.getVelocity());
+         reference2ObjectMap.put(entity2, entity2.getVelocity());
+         ((Set)reference2ObjectMap2.computeIfAbsent(entity, (entityx) -> {
+            return new ReferenceOpenHashSet();
+         })).add(entity2);
+      }
+
+      this.push();
+      Reference2ObjectMap<Entity, Vec3d> reference2ObjectMap3 = new Reference2ObjectOpenHashMap();
+      ObjectIterator var5 = reference2ObjectMap.keySet().iterator();
+
+      while(var5.hasNext()) {
+         Entity entity3 = (Entity)var5.next();
+         reference2ObjectMap3.put(entity3, entity3.getVelocity());
+         entity3.setVelocity((Vec3d)reference2ObjectMap.get(entity3));
+      }
+
+      for(int j = 0; j < this.members.size(); ++j) {
+         LivingEntity livingEntity = (LivingEntity)this.members.get(j);
+         List<Entity> list = this.world.getOtherEntities(livingEntity, livingEntity.getBoundingBox(), (Predicate)this.predicates.get(j));
+         Set<Entity> set = (Set)reference2ObjectMap2.get(livingEntity);
+         if (list.size() != (set == null ? 0 : set.size()) || !list.isEmpty() && !set.containsAll(list)) {
+            LOGGER.warn("Crowd collisions of {} pushed {} rather than {}", livingEntity, set, list);
+            this.world.getProfiler().visit("crowdCollisionMismatches");
+         }
+
+         if (!list.isEmpty()) {
+            track(livingEntity, reference2ObjectMap, reference2ObjectMap3);
+         }
+
+         for(int k = 0; k < list.size(); ++k) {
+            Entity entity4 = (Entity)list.get(k);
+            track(entity4, reference2ObjectMap, reference2ObjectMap3);
+            livingEntity.pushAway(entity4);
+         }
+      }
+
+      ObjectIterator var11 = reference2ObjectMap3.keySet().iterator();
+
+      while(var11.hasNext()) {
+         Entity entity5 = (Entity)var11.next();
+         Vec3d vec3d = (Vec3d)reference2ObjectMap3.get(entity5);
+         Vec3d vec3d2 = entity5.getVelocity();
+         if (vec3d.squaredDistanceTo(vec3d2) > VELOCITY_TOLERANCE * VELOCITY_TOLERANCE) {
+            LOGGER.warn("Crowd collisions left {} moving at {} rather than {}", entity5, vec3d, vec3d2);
+            this.world.getProfiler().visit("crowdCollisionMismatches");
+         }
+      }
+
+   }
+
+   /**
+    * Records the velocity of an entity the collected pushes left alone, so
+    * that it is compared too.
+    */
+   private static void track(Entity entity, Reference2ObjectMap<Entity, Vec3d> velocities, Reference2ObjectMap<Entity, Vec3d> solvedVelocities) {
+      if (!velocities.containsKey(entity)) {
+         velocities.put(entity, entity.getVelocity());
+         solvedVelocities.put(entity, entity.getVelocity());
+      }
+
+   }
+}
@@ -27,6 +27,7 @@ import net.minecraft.block.Blocks;
 import net.minecraft.block.FenceGateBlock;
 import net.minecraft.block.HoneyBlock;
 import net.minecraft.block.ShapeContext;
+import net.minecraft.block.entity.HopperBlockEntity;
 import net.minecraft.block.piston.PistonBehavior;
 import net.minecraft.command.argument.EntityAnchorArgumentType;
 import net.minecraft.enchantment.EnchantmentHelper;
@@ -91,6 +92,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.registry.RegistryKey;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BlockCollisionCollector;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.Heightmap;
@@ -189,6 +191,8 @@ public abstract class Entity implements Nameable, CommandOutput {
    private boolean teleportRequested;
    private final double[] pistonMovementDelta;
    private long pistonMovementTick;
+   private long hopperWakeMinPos;
+   private long hopperWakeMaxPos;
    private EntityDimensions dimensions;
    private float standingEyeHeight;
 
@@ -208,6 +212,7 @@ public abstract class Entity implements Nameable, CommandOutput {
       this.uuidString = this.uuid.toString();
       this.scoreboardTags = Sets.newHashSet();
       this.pistonMovementDelta = new double[]{0.0D, 0.0D, 0.0D};
+      this.hopperWakeMinPos = Long.MAX_VALUE;
       this.type = type;
       this.world = world;
       this.dimensions = type.getDimensions();
@@ -227,6 +232,25 @@ public abstract class Entity implements Nameable, CommandOutput {
       this.standingEyeHeight = this.getEyeHeight(EntityPose.STANDING, this.dimensions);
    }
 
+   /**
+    * Wakes sleeping hoppers around this entity whenever the blocks its bounding
+    * box touches change, so that hoppers notice item entities and storage
+    * minecarts arriving without polling for them.
+    */
+   protected void wakeNearbyHoppers() {
+      if (!this.world.isClient) {
+         Box box = this.getBoundingBox();
+         long l = BlockPos.asLong(MathHelper.floor(box.minX), MathHelper.floor(box.minY), MathHelper.floor(box.minZ));
+         long m = BlockPos.asLong(MathHelper.floor(box.maxX), MathHelper.floor(box.maxY), MathHelper.floor(box.maxZ));
+         if (l != this.hopperWakeMinPos || m != this.hopperWakeMaxPos) {
+            this.hopperWakeMinPos = l;
+            this.hopperWakeMaxPos = m;
+            HopperBlockEntity.wakeHoppersAround(this.world, box);
+         }
+
+      }
+   }
+
    @Environment(EnvType.CLIENT)
    public boolean method_30632(BlockPos blockPos, BlockState blockState) {
       VoxelShape voxelShape = blockState.getCollisionShape(this.world, blockPos, ShapeContext.of(this));
@@ -747,8 +771,18 @@ public abstract class Entity implements Nameable, CommandOutput {
       boolean bl2 = movement.y == 0.0D;
       boolean bl3 = movement.z == 0.0D;
       if ((!bl || !bl2) && (!bl || !bl3) && (!bl2 || !bl3)) {
-         ReusableStream<VoxelShape> reusableStream = new ReusableStream(Stream.concat(collisions.stream(), world.getBlockCollisions(entity, entityBoundingBox.stretch(movement))));
-         return adjustMovementForCollisions(movement, entityBoundingBox, reusableStream);
+         BlockCollisionCollector blockCollisionCollector = world.getBlockCollisionCollector();
+         blockCollisionCollector.clear();
+         Iterator iterator = collisions.stream().iterator();
+
+         while(iterator.hasNext()) {
+            blockCollisionCollector.add((VoxelShape)iterator.next());
+         }
+
+         blockCollisionCollector.collect(world, entity, entityBoundingBox.stretch(movement), context, false);
+         Vec3d vec3d = adjustMovementForCollisions(movement, entityBoundingBox, blockCollisionCollector);
+         blockCollisionCollector.clear();
+         return vec3d;
       } else {
          return adjustSingleAxisMovementForCollisions(movement, entityBoundingBox, world, context, collisions);
       }
@@ -787,6 +821,43 @@ public abstract class Entity implements Nameable, CommandOutput {
       return new Vec3d(d, e, f);
    }
 
+   /**
+    * Adjusts the movement like {@link #adjustMovementForCollisions(Vec3d, Box,
+    * ReusableStream)}, against shapes gathered in a collector.
+    */
+   public static Vec3d adjustMovementForCollisions(Vec3d movement, Box entityBoundingBox, BlockCollisionCollector collisions) {
+      double d = movement.x;
+      double e = movement.y;
+      double f = movement.z;
+      if (e != 0.0D) {
+         e = collisions.calculateMaxOffset(Direction.Axis.Y, entityBoundingBox, e);
+         if (e != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(0.0D, e, 0.0D);
+         }
+      }
+
+      boolean bl = Math.abs(d) < Math.abs(f);
+      if (bl && f != 0.0D) {
+         f = collisions.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, f);
+         if (f != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(0.0D, 0.0D, f);
+         }
+      }
+
+      if (d != 0.0D) {
+         d = collisions.calculateMaxOffset(Direction.Axis.X, entityBoundingBox, d);
+         if (!bl && d != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(d, 0.0D, 0.0D);
+         }
+      }
+
+      if (!bl && f != 0.0D) {
+         f = collisions.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, f);
+      }
+
+      return new Vec3d(d, e, f);
+   }
+
    public static Vec3d adjustSingleAxisMovementForCollisions(Vec3d movement, Box entityBoundingBox, WorldView world, ShapeContext context, ReusableStream<VoxelShape> collisions) {
       double d = movement.x;
       double e = movement.y;
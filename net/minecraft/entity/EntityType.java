@@ -129,6 +129,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.registry.RawIdHolder;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.util.shape.VoxelShapes;
@@ -138,7 +139,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
-public class EntityType<T extends Entity> {
+public class EntityType<T extends Entity> implements RawIdHolder {
    private static final Logger LOGGER = LogManager.getLogger();
    public static final EntityType<AreaEffectCloudEntity> AREA_EFFECT_CLOUD;
    public static final EntityType<ArmorStandEntity> ARMOR_STAND;
@@ -264,6 +265,7 @@ public class EntityType<T extends Entity> {
    @Nullable
    private Identifier lootTableId;
    private final EntityDimensions dimensions;
+   private int cachedRawId = -1;
 
    private static <T extends Entity> EntityType<T> register(String id, EntityType.Builder<T> type) {
       return (EntityType)Registry.register(Registry.ENTITY_TYPE, (String)id, type.build(id));
@@ -471,6 +473,14 @@ public class EntityType<T extends Entity> {
       }
    }
 
+   public int getCachedRawId() {
+      return this.cachedRawId;
+   }
+
+   public void setCachedRawId(int rawId) {
+      this.cachedRawId = rawId;
+   }
+
    public EntityDimensions getDimensions() {
       return this.dimensions;
    }
@@ -38,7 +38,21 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.RaycastContext;
 import net.minecraft.world.World;
-
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A falling block.
+ *
+ * <p>With the {@link GameRules#STACK_TNT_AND_FALLING_BLOCKS} game rule,
+ * falling blocks in the exact same state are merged into one entity on the
+ * server, which keeps count of them. When the stack lands, the remaining
+ * blocks are ticked right away from the state the stack had before the tick,
+ * as if each of them had been ticked after the one before.
+ *
+ * <p>With the {@code entity.stacking.verify} system property, falling blocks
+ * are not merged, but checked against the falling block they would have been
+ * merged into until it lands, like {@link TntEntity} does.
+ */
 public class FallingBlockEntity extends Entity {
    private BlockState block;
    public int timeFalling;
@@ -48,6 +62,10 @@ public class FallingBlockEntity extends Entity {
    private int fallHurtMax;
    private float fallHurtAmount;
    public NbtCompound blockEntityData;
+   private int stackSize = 1;
+   private boolean landed;
+   @Nullable
+   private FallingBlockEntity stackLeader;
    protected static final TrackedData<BlockPos> BLOCK_POS;
 
    public FallingBlockEntity(EntityType<? extends FallingBlockEntity> entityType, World world) {
@@ -96,6 +114,36 @@ public class FallingBlockEntity extends Entity {
    }
 
    public void tick() {
+      if (!this.world.isClient && this.stackLeader == null && this.world.getGameRules().getBoolean(GameRules.STACK_TNT_AND_FALLING_BLOCKS)) {
+         this.mergeStacks();
+      }
+
+      if (this.stackSize == 1) {
+         this.tickFalling();
+         if (this.stackLeader != null) {
+            this.verifyStackParity();
+         }
+      } else {
+         Vec3d vec3d = this.getPos();
+         Vec3d vec3d2 = this.getVelocity();
+         float f = this.fallDistance;
+         boolean bl = this.onGround;
+         int i = this.timeFalling;
+         this.tickFalling();
+
+         FallingBlockEntity fallingBlockEntity2;
+         for(FallingBlockEntity fallingBlockEntity = this; fallingBlockEntity.landed && fallingBlockEntity.stackSize > 1; fallingBlockEntity = fallingBlockEntity2) {
+            fallingBlockEntity2 = fallingBlockEntity.splitStack(vec3d, vec3d2, f, bl, i);
+            fallingBlockEntity2.tickFalling();
+            if (!fallingBlockEntity2.removed) {
+               this.world.spawnEntity(fallingBlockEntity2);
+            }
+         }
+
+      }
+   }
+
+   private void tickFalling() {
       if (this.block.isAir()) {
          this.remove();
       } else {
@@ -132,7 +180,9 @@ public class FallingBlockEntity extends Entity {
             if (!this.onGround && !bl2) {
                if (!this.world.isClient && (this.timeFalling > 100 && (blockPos2.getY() < 1 || blockPos2.getY() > 256) || this.timeFalling > 600)) {
                   if (this.dropItem && this.world.getGameRules().getBoolean(GameRules.DO_ENTITY_DROPS)) {
-                     this.dropItem(block);
+                     for(int i = 0; i < this.stackSize; ++i) {
+                        this.dropItem(block);
+                     }
                   }
 
                   this.remove();
@@ -142,6 +192,7 @@ public class FallingBlockEntity extends Entity {
                this.setVelocity(this.getVelocity().multiply(0.7D, -0.5D, 0.7D));
                if (!blockState.isOf(Blocks.MOVING_PISTON)) {
                   this.remove();
+                  this.landed = true;
                   if (!this.destroyedOnLanding) {
                      boolean bl3 = blockState.canReplace(new AutomaticItemPlacementContext(this.world, blockPos2, Direction.DOWN, ItemStack.EMPTY, Direction.UP));
                      boolean bl4 = FallingBlock.canFallThrough(this.world.getBlockState(blockPos2.down())) && (!bl || !bl2);
@@ -191,6 +242,74 @@ public class FallingBlockEntity extends Entity {
       }
    }
 
+   private void mergeStacks() {
+      if (this.timeFalling > 0 && !this.hurtEntities && this.blockEntityData == null) {
+         List<FallingBlockEntity> list = this.world.getEntitiesByClass(FallingBlockEntity.class, this.getBoundingBox(), (fallingBlockEntity) -> {
+            return fallingBlockEntity != this && fallingBlockEntity.stackLeader == null && this.canStackWith(fallingBlockEntity);
+         });
+         Iterator var2 = list.iterator();
+
+         while(var2.hasNext()) {
+            FallingBlockEntity fallingBlockEntity = (FallingBlockEntity)var2.next();
+            if (TntEntity.VERIFY_STACKING) {
+               fallingBlockEntity.stackLeader = this;
+            } else {
+               this.stackSize += fallingBlockEntity.stackSize;
+               fallingBlockEntity.remove();
+            }
+         }
+
+      }
+   }
+
+   private void verifyStackParity() {
+      FallingBlockEntity fallingBlockEntity = this.stackLeader;
+      if (fallingBlockEntity.removed || this.removed) {
+         this.stackLeader = null;
+      } else if (fallingBlockEntity.timeFalling != this.timeFalling || fallingBlockEntity.getX() != this.getX() || fallingBlockEntity.getY() != this.getY() || fallingBlockEntity.getZ() != this.getZ() || !fallingBlockEntity.getVelocity().equals(this.getVelocity()) || fallingBlockEntity.onGround != this.onGround) {
+         LOGGER.warn("Stacked falling block {} would not have behaved like {}, which it would have been merged into", this, fallingBlockEntity);
+         this.stackLeader = null;
+      }
+
+   }
+
+   /**
+    * Returns whether the other falling block would move and land exactly like
+    * this one, so that both can be ticked as one.
+    */
+   private boolean canStackWith(FallingBlockEntity other) {
+      return !other.removed && other.block == this.block && other.timeFalling == this.timeFalling && !other.hurtEntities && other.blockEntityData == null && other.dropItem == this.dropItem && other.destroyedOnLanding == this.destroyedOnLanding && other.getX() == this.getX() && other.getY() == this.getY() && other.getZ() == this.getZ() && other.getVelocity().equals(this.getVelocity()) && other.fallDistance == this.fallDistance && other.onGround == this.onGround && other.hasNoGravity() == this.hasNoGravity() && !other.hasVehicle() && !this.hasVehicle() && !other.hasPassengers() && !this.hasPassengers();
+   }
+
+   /**
+    * Takes all but one block off this landed stack, as a new stack in the
+    * given state this stack had before the tick.
+    */
+   private FallingBlockEntity splitStack(Vec3d pos, Vec3d velocity, float fallDistance, boolean onGround, int timeFalling) {
+      FallingBlockEntity fallingBlockEntity = new FallingBlockEntity(EntityType.FALLING_BLOCK, this.world);
+      fallingBlockEntity.block = this.block;
+      fallingBlockEntity.inanimate = true;
+      fallingBlockEntity.dropItem = this.dropItem;
+      fallingBlockEntity.destroyedOnLanding = this.destroyedOnLanding;
+      fallingBlockEntity.timeFalling = timeFalling;
+      fallingBlockEntity.updatePosition(pos.x, pos.y, pos.z);
+      fallingBlockEntity.prevX = this.prevX;
+      fallingBlockEntity.prevY = this.prevY;
+      fallingBlockEntity.prevZ = this.prevZ;
+      fallingBlockEntity.setVelocity(velocity);
+      fallingBlockEntity.fallDistance = fallDistance;
+      fallingBlockEntity.onGround = onGround;
+      fallingBlockEntity.setNoGravity(this.hasNoGravity());
+      fallingBlockEntity.setFallingBlockPos((BlockPos)this.dataTracker.get(BLOCK_POS));
+      fallingBlockEntity.stackSize = this.stackSize - 1;
+      this.stackSize = 1;
+      return fallingBlockEntity;
+   }
+
+   public int getStackSize() {
+      return this.stackSize;
+   }
+
    public boolean handleFallDamage(float fallDistance, float damageMultiplier) {
       if (this.hurtEntities) {
          int i = MathHelper.ceil(fallDistance - 1.0F);
@@ -230,6 +349,10 @@ public class FallingBlockEntity extends Entity {
          nbt.put("TileEntityData", this.blockEntityData);
       }
 
+      if (this.stackSize > 1) {
+         nbt.putInt("StackSize", this.stackSize);
+      }
+
    }
 
    protected void readCustomDataFromNbt(NbtCompound nbt) {
@@ -251,6 +374,8 @@ public class FallingBlockEntity extends Entity {
          this.blockEntityData = nbt.getCompound("TileEntityData");
       }
 
+      this.stackSize = Math.max(1, nbt.getInt("StackSize"));
+
       if (this.block.isAir()) {
          this.block = Blocks.SAND.getDefaultState();
       }
@@ -153,6 +153,8 @@ public class ItemEntity extends Entity {
 
          if (!this.world.isClient && this.itemAge >= 6000) {
             this.remove();
+         } else {
+            this.wakeNearbyHoppers();
          }
 
       }
@@ -2568,28 +2568,50 @@ public abstract class LivingEntity extends Entity {
    }
 
    protected void tickCramming() {
-      List<Entity> list = this.world.getOtherEntities(this, this.getBoundingBox(), EntityPredicates.canBePushedBy(this));
-      if (!list.isEmpty()) {
-         int i = this.world.getGameRules().getInt(GameRules.MAX_ENTITY_CRAMMING);
-         int j;
-         if (i > 0 && list.size() > i - 1 && this.random.nextInt(4) == 0) {
-            j = 0;
-
-            for(int k = 0; k < list.size(); ++k) {
-               if (!((Entity)list.get(k)).hasVehicle()) {
-                  ++j;
+      if (!this.world.isClient && this.world.getGameRules().getBoolean(GameRules.CROWD_COLLISIONS)) {
+         if (!(this instanceof PlayerEntity)) {
+            ((ServerWorld)this.world).getCrowdCollisionSolver().add(this);
+         }
+
+      } else {
+         List<Entity> list = this.world.getOtherEntities(this, this.getBoundingBox(), EntityPredicates.canBePushedBy(this));
+         if (!list.isEmpty()) {
+            int i = this.world.getGameRules().getInt(GameRules.MAX_ENTITY_CRAMMING);
+            int j;
+            if (i > 0 && list.size() > i - 1 && this.random.nextInt(4) == 0) {
+               j = 0;
+
+               for(int k = 0; k < list.size(); ++k) {
+                  if (!((Entity)list.get(k)).hasVehicle()) {
+                     ++j;
+                  }
+               }
+
+               if (j > i - 1) {
+                  this.damage(DamageSource.CRAMMING, 6.0F);
                }
             }
 
-            if (j > i - 1) {
-               this.damage(DamageSource.CRAMMING, 6.0F);
+            for(j = 0; j < list.size(); ++j) {
+               Entity entity = (Entity)list.get(j);
+               this.pushAway(entity);
             }
          }
 
-         for(j = 0; j < list.size(); ++j) {
-            Entity entity = (Entity)list.get(j);
-            this.pushAway(entity);
-         }
+      }
+   }
+
+   /**
+    * Damages this entity like {@link #tickCramming()} would if it could push
+    * the given number of entities, of which the given number are not riding
+    * anything.
+    *
+    * @see CrowdCollisionSolver
+    */
+   void tickCrammingDamage(int pushable, int unmounted) {
+      int i = this.world.getGameRules().getInt(GameRules.MAX_ENTITY_CRAMMING);
+      if (i > 0 && pushable > i - 1 && this.random.nextInt(4) == 0 && unmounted > i - 1) {
+         this.damage(DamageSource.CRAMMING, 6.0F);
       }
 
    }
@@ -1,5 +1,7 @@
 package net.minecraft.entity;
 
+import java.util.Iterator;
+import java.util.List;
 import net.minecraft.entity.data.DataTracker;
 import net.minecraft.entity.data.TrackedData;
 import net.minecraft.entity.data.TrackedDataHandlerRegistry;
@@ -7,15 +9,36 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.Packet;
 import net.minecraft.network.packet.s2c.play.EntitySpawnS2CPacket;
 import net.minecraft.particle.ParticleTypes;
+import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
 import net.minecraft.world.explosion.Explosion;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * A primed TNT.
+ *
+ * <p>With the {@link GameRules#STACK_TNT_AND_FALLING_BLOCKS} game rule, primed
+ * TNT in the exact same state are merged into one entity on the server, which
+ * keeps count of them. Separate TNT in the same state move the same way until
+ * the first of them explodes, which knocks the others back. So when a stack
+ * is about to explode, the rest of it is split off in the state it had before
+ * the tick, in time to be knocked back by the explosion, and is then ticked
+ * right away, as the others would have been ticked after the first one.
+ *
+ * <p>With the {@code entity.stacking.verify} system property, TNT are not
+ * merged. Instead, each TNT that would have been merged checks after its
+ * own ticks that it is still in the same state as the TNT it would have been
+ * merged into, until that one explodes, and logs a warning otherwise.
+ */
 public class TntEntity extends Entity {
    private static final TrackedData<Integer> FUSE;
+   static final boolean VERIFY_STACKING = Boolean.parseBoolean(System.getProperty("entity.stacking.verify", "false"));
    @Nullable
    private LivingEntity causingEntity;
    private int fuseTimer;
+   private int stackSize = 1;
+   @Nullable
+   private TntEntity stackLeader;
 
    public TntEntity(EntityType<? extends TntEntity> entityType, World world) {
       super(entityType, world);
@@ -48,6 +71,32 @@ public class TntEntity extends Entity {
    }
 
    public void tick() {
+      if (!this.world.isClient && this.stackLeader == null && this.world.getGameRules().getBoolean(GameRules.STACK_TNT_AND_FALLING_BLOCKS)) {
+         this.mergeStacks();
+      }
+
+      for(TntEntity tntEntity = this.tickStack(); tntEntity != null; tntEntity = tntEntity.tickStack()) {
+         tntEntity.resetPosition(tntEntity.getX(), tntEntity.getY(), tntEntity.getZ());
+         ++tntEntity.age;
+      }
+
+      if (this.stackLeader != null) {
+         this.verifyStackParity();
+      }
+
+   }
+
+   /**
+    * Ticks this TNT like vanilla does. If this is a stack that explodes in
+    * this tick, returns the rest of the stack, which still has to be ticked.
+    */
+   @Nullable
+   private TntEntity tickStack() {
+      TntEntity tntEntity = null;
+      if (this.stackSize > 1 && this.fuseTimer <= 1 && !this.world.isClient) {
+         tntEntity = this.splitStack();
+      }
+
       if (!this.hasNoGravity()) {
          this.setVelocity(this.getVelocity().add(0.0D, -0.04D, 0.0D));
       }
@@ -62,6 +111,10 @@ public class TntEntity extends Entity {
       if (this.fuseTimer <= 0) {
          this.remove();
          if (!this.world.isClient) {
+            if (tntEntity != null && !this.world.spawnEntity(tntEntity)) {
+               tntEntity = null;
+            }
+
             this.explode();
          }
       } else {
@@ -71,6 +124,7 @@ public class TntEntity extends Entity {
          }
       }
 
+      return tntEntity;
    }
 
    private void explode() {
@@ -78,12 +132,83 @@ public class TntEntity extends Entity {
       this.world.createExplosion(this, this.getX(), this.getBodyY(0.0625D), this.getZ(), 4.0F, Explosion.DestructionType.BREAK);
    }
 
+   /**
+    * Takes all but one TNT off this stack, as a new stack in the state this
+    * stack has before it ticks.
+    */
+   private TntEntity splitStack() {
+      TntEntity tntEntity = new TntEntity(EntityType.TNT, this.world);
+      tntEntity.updatePosition(this.getX(), this.getY(), this.getZ());
+      tntEntity.prevX = this.prevX;
+      tntEntity.prevY = this.prevY;
+      tntEntity.prevZ = this.prevZ;
+      tntEntity.setVelocity(this.getVelocity());
+      tntEntity.onGround = this.onGround;
+      tntEntity.fallDistance = this.fallDistance;
+      tntEntity.setNoGravity(this.hasNoGravity());
+      tntEntity.setFuse(this.fuseTimer);
+      tntEntity.causingEntity = this.causingEntity;
+      tntEntity.stackSize = this.stackSize - 1;
+      this.stackSize = 1;
+      return tntEntity;
+   }
+
+   private void mergeStacks() {
+      List<TntEntity> list = this.world.getEntitiesByClass(TntEntity.class, this.getBoundingBox(), (tntEntity) -> {
+         return tntEntity != this && tntEntity.stackLeader == null && this.canStackWith(tntEntity);
+      });
+      Iterator var2 = list.iterator();
+
+      while(var2.hasNext()) {
+         TntEntity tntEntity = (TntEntity)var2.next();
+         if (VERIFY_STACKING) {
+            tntEntity.stackLeader = this;
+         } else {
+            this.stackSize += tntEntity.stackSize;
+            tntEntity.remove();
+         }
+      }
+
+   }
+
+   /**
+    * Checks that this TNT, which would have been merged into its stack
+    * leader, is still in the same state as the leader after both ticked.
+    */
+   private void verifyStackParity() {
+      TntEntity tntEntity = this.stackLeader;
+      if (tntEntity.removed || this.removed) {
+         this.stackLeader = null;
+      } else if (tntEntity.fuseTimer != this.fuseTimer || tntEntity.getX() != this.getX() || tntEntity.getY() != this.getY() || tntEntity.getZ() != this.getZ() || !tntEntity.getVelocity().equals(this.getVelocity()) || tntEntity.onGround != this.onGround) {
+         LOGGER.warn("Stacked TNT {} would not have behaved like {}, which it would have been merged into", this, tntEntity);
+         this.stackLeader = null;
+      }
+
+   }
+
+   /**
+    * Returns whether the other TNT would move and explode exactly like this
+    * one, so that both can be ticked as one.
+    */
+   private boolean canStackWith(TntEntity other) {
+      return !other.removed && other.fuseTimer == this.fuseTimer && other.causingEntity == this.causingEntity && other.getX() == this.getX() && other.getY() == this.getY() && other.getZ() == this.getZ() && other.getVelocity().equals(this.getVelocity()) && other.onGround == this.onGround && other.hasNoGravity() == this.hasNoGravity() && !other.hasVehicle() && !this.hasVehicle() && !other.hasPassengers() && !this.hasPassengers();
+   }
+
    protected void writeCustomDataToNbt(NbtCompound nbt) {
       nbt.putShort("Fuse", (short)this.getFuseTimer());
+      if (this.stackSize > 1) {
+         nbt.putInt("StackSize", this.stackSize);
+      }
+
    }
 
    protected void readCustomDataFromNbt(NbtCompound nbt) {
       this.setFuse(nbt.getShort("Fuse"));
+      this.stackSize = Math.max(1, nbt.getInt("StackSize"));
+   }
+
+   public int getStackSize() {
+      return this.stackSize;
    }
 
    @Nullable
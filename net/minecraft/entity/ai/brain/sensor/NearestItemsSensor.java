@@ -19,7 +19,7 @@ public class NearestItemsSensor extends Sensor<MobEntity> {
 
    protected void sense(ServerWorld serverWorld, MobEntity mobEntity) {
       Brain<?> brain = mobEntity.getBrain();
-      List<ItemEntity> list = serverWorld.getEntitiesByClass(ItemEntity.class, mobEntity.getBoundingBox().expand(8.0D, 4.0D, 8.0D), (itemEntity) -> {
+      List<ItemEntity> list = serverWorld.getSensorEntityCache().getEntitiesByClass(ItemEntity.class, mobEntity, 8, mobEntity.getBoundingBox().expand(8.0D, 4.0D, 8.0D), (itemEntity) -> {
          return true;
       });
       mobEntity.getClass();
@@ -14,7 +14,7 @@ import net.minecraft.util.math.Box;
 public class NearestLivingEntitiesSensor extends Sensor<LivingEntity> {
    protected void sense(ServerWorld world, LivingEntity entity) {
       Box box = entity.getBoundingBox().expand(16.0D, 16.0D, 16.0D);
-      List<LivingEntity> list = world.getEntitiesByClass(LivingEntity.class, box, (livingEntity2) -> {
+      List<LivingEntity> list = world.getSensorEntityCache().getEntitiesByClass(LivingEntity.class, entity, 16, box, (livingEntity2) -> {
          return livingEntity2 != entity && livingEntity2.isAlive();
       });
       entity.getClass();
@@ -0,0 +1,279 @@
+package net.minecraft.entity.ai.brain.sensor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.collection.TypeFilterableList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.chunk.ChunkManager;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Shares the entity lookups of sensors between the mobs of a world.
+ *
+ * <p>Mobs are grouped into cubic cells as wide as their sensing range. Once
+ * a second mob senses from a cell, the entities of the class in the chunk
+ * sections around the cell are collected once, in the order {@link
+ * net.minecraft.world.World#getEntitiesByClass} visits them, and sensors
+ * filter them by their own box against current bounding boxes. A cell used
+ * by a single mob queries the world directly, as there is nothing to share.
+ *
+ * <p>The collected entities are kept until an entity is added to or removed
+ * from one of the sections, or a chunk around the cell loads or unloads, so
+ * sensors see exactly what a direct query would return.
+ */
+public class SensorEntityCache {
+   private static final double MARGIN = 2.0D;
+   private final ServerWorld world;
+   private final Map<SensorEntityCache.Key, Long2ObjectMap<SensorEntityCache.Cell>> cells = Maps.newHashMap();
+   private long lastCleanupTime;
+
+   public SensorEntityCache(ServerWorld world) {
+      this.world = world;
+   }
+
+   /**
+    * Returns the entities of the given class intersecting the box, like
+    * {@link net.minecraft.world.World#getEntitiesByClass} would. The box
+    * should lie within {@code range} blocks of the sensing entity's bounding
+    * box, otherwise the world is queried directly.
+    */
+   public <T extends Entity> List<T> getEntitiesByClass(Class<T> entityClass, Entity entity, int range, Box box, Predicate<? super T> predicate) {
+      Profiler profiler = this.world.getProfiler();
+      long l = this.world.getTime();
+      this.cleanup(l);
+      Long2ObjectMap<SensorEntityCache.Cell> long2ObjectMap = (Long2ObjectMap)this.cells.computeIfAbsent(new SensorEntityCache.Key(entityClass, range), (key) -> {
+         return new Long2ObjectOpenHashMap();
+      });
+      int i = MathHelper.floor(entity.getX() / (double)range);
+      int j = MathHelper.floor(entity.getY() / (double)range);
+      int k = MathHelper.floor(entity.getZ() / (double)range);
+      long m = BlockPos.asLong(i, j, k);
+      SensorEntityCache.Cell cell = (SensorEntityCache.Cell)long2ObjectMap.get(m);
+      if (cell == null) {
+         cell = new SensorEntityCache.Cell(new Box((double)(i * range), (double)(j * range), (double)(k * range), (double)((i + 1) * range), (double)((j + 1) * range), (double)((k + 1) * range)).expand((double)range + MARGIN), entity.getEntityId());
+         long2ObjectMap.put(m, cell);
+      }
+
+      cell.lastUsedTime = l;
+      if (cell.consumer != entity.getEntityId()) {
+         cell.shared = true;
+      }
+
+      if (cell.shared && contains(cell.box, box)) {
+         if (cell.isCurrent()) {
+            profiler.visit("sensorCacheHit");
+         } else {
+            cell.collect(this.world.getChunkManager(), entityClass);
+            profiler.visit("sensorCacheMiss");
+         }
+
+         return cell.filter(entityClass, box, predicate);
+      } else {
+         profiler.visit("sensorCacheDirect");
+         return this.world.getEntitiesByClass(entityClass, box, predicate);
+      }
+   }
+
+   /**
+    * Drops the collected entities of the cells around a chunk whose entities
+    * were loaded or unloaded.
+    */
+   public void onChunkChanged(int chunkX, int chunkZ) {
+      Iterator var3 = this.cells.values().iterator();
+
+      while(var3.hasNext()) {
+         Long2ObjectMap<SensorEntityCache.Cell> long2ObjectMap = (Long2ObjectMap)var3.next();
+         Iterator var5 = long2ObjectMap.values().iterator();
+
+         while(var5.hasNext()) {
+            SensorEntityCache.Cell cell = (SensorEntityCache.Cell)var5.next();
+            if (cell.covers(chunkX, chunkZ)) {
+               cell.entities = null;
+            }
+         }
+      }
+
+   }
+
+   private static boolean contains(Box outer, Box inner) {
+      return inner.minX >= outer.minX && inner.minY >= outer.minY && inner.minZ >= outer.minZ && inner.maxX <= outer.maxX && inner.maxY <= outer.maxY && inner.maxZ <= outer.maxZ;
+   }
+
+   private void cleanup(long time) {
+      if (time - this.lastCleanupTime >= 100L) {
+         this.lastCleanupTime = time;
+         Iterator var3 = this.cells.values().iterator();
+
+         while(var3.hasNext()) {
+            Long2ObjectMap<SensorEntityCache.Cell> long2ObjectMap = (Long2ObjectMap)var3.next();
+            long2ObjectMap.values().removeIf((cell) -> {
+               return time - cell.lastUsedTime >= 100L;
+            });
+         }
+
+      }
+   }
+
+   static final class Key {
+      private final Class<?> entityClass;
+      private final int range;
+
+      private Key(Class<?> entityClass, int range) {
+         this.entityClass = entityClass;
+         this.range = range;
+      }
+
+      public boolean equals(Object object) {
+         if (this == object) {
+            return true;
+         } else if (!(object instanceof SensorEntityCache.Key)) {
+            return false;
+         } else {
+            SensorEntityCache.Key key = (SensorEntityCache.Key)object;
+            return this.entityClass == key.entityClass && this.range == key.range;
+         }
+      }
+
+      public int hashCode() {
+         return 31 * this.entityClass.hashCode() + this.range;
+      }
+   }
+
+   /**
+    * The entities around a cell, grouped by the chunk section they are in.
+    * Section {@code i} is at {@code sectionX[i]}, {@code sectionY[i]} and
+    * {@code sectionZ[i]}, and its entities are {@code entities} from {@code
+    * starts[i]} to {@code starts[i + 1]}.
+    */
+   static class Cell {
+      private final Box box;
+      private final int minChunkX;
+      private final int maxChunkX;
+      private final int minChunkZ;
+      private final int maxChunkZ;
+      private final int consumer;
+      private boolean shared;
+      private long lastUsedTime;
+      private List<Entity> entities;
+      private TypeFilterableList<Entity>[] sections;
+      private int[] modificationCounts;
+      private int[] sectionX;
+      private int[] sectionY;
+      private int[] sectionZ;
+      private int[] starts;
+
+      private Cell(Box box, int consumer) {
+         this.box = box;
+         this.minChunkX = MathHelper.floor((box.minX - 2.0D) / 16.0D);
+         this.maxChunkX = MathHelper.ceil((box.maxX + 2.0D) / 16.0D);
+         this.minChunkZ = MathHelper.floor((box.minZ - 2.0D) / 16.0D);
+         this.maxChunkZ = MathHelper.ceil((box.maxZ + 2.0D) / 16.0D);
+         this.consumer = consumer;
+      }
+
+      private boolean covers(int chunkX, int chunkZ) {
+         return chunkX >= this.minChunkX && chunkX < this.maxChunkX && chunkZ >= this.minChunkZ && chunkZ < this.maxChunkZ;
+      }
+
+      private boolean isCurrent() {
+         if (this.entities == null) {
+            return false;
+         } else {
+            for(int i = 0; i < this.sections.length; ++i) {
+               if (this.sections[i].getModificationCount() != this.modificationCounts[i]) {
+                  return false;
+               }
+            }
+
+            return true;
+         }
+      }
+
+      /**
+       * Collects the entities of the sections that {@link
+       * net.minecraft.world.World#getEntitiesByClass} would visit for the box
+       * of this cell, in the same order.
+       */
+      private void collect(ChunkManager chunkManager, Class<? extends Entity> entityClass) {
+         int i = MathHelper.clamp(MathHelper.floor((this.box.minY - 2.0D) / 16.0D), 0, 15);
+         int j = MathHelper.clamp(MathHelper.floor((this.box.maxY + 2.0D) / 16.0D), 0, 15);
+         List<TypeFilterableList<Entity>> list = Lists.newArrayList();
+         IntArrayList intArrayList = new IntArrayList();
+         IntArrayList intArrayList2 = new IntArrayList();
+         IntArrayList intArrayList3 = new IntArrayList();
+         IntArrayList intArrayList4 = new IntArrayList();
+         this.entities = Lists.newArrayList();
+
+         for(int k = this.minChunkX; k < this.maxChunkX; ++k) {
+            for(int l = this.minChunkZ; l < this.maxChunkZ; ++l) {
+               WorldChunk worldChunk = chunkManager.getWorldChunk(k, l, false);
+               if (worldChunk != null) {
+                  TypeFilterableList<Entity>[] typeFilterableLists = worldChunk.getEntitySectionArray();
+
+                  for(int m = i; m <= j; ++m) {
+                     list.add(typeFilterableLists[m]);
+                     intArrayList.add(k);
+                     intArrayList2.add(m);
+                     intArrayList3.add(l);
+                     intArrayList4.add(this.entities.size());
+                     this.entities.addAll(typeFilterableLists[m].getAllOfType(entityClass));
+                  }
+               }
+            }
+         }
+
+         intArrayList4.add(this.entities.size());
+         this.sections = (TypeFilterableList[])list.toArray(new TypeFilterableList[0]);
+         this.modificationCounts = new int[this.sections.length];
+
+         for(int n = 0; n < this.sections.length; ++n) {
+            this.modificationCounts[n] = this.sections[n].getModificationCount();
+         }
+
+         this.sectionX = intArrayList.toIntArray();
+         this.sectionY = intArrayList2.toIntArray();
+         this.sectionZ = intArrayList3.toIntArray();
+         this.starts = intArrayList4.toIntArray();
+      }
+
+      /**
+       * Keeps the entities a direct query for the box would return: those in
+       * the sections it would visit, whose bounding boxes intersect the box
+       * and which pass the predicate.
+       */
+      private <T extends Entity> List<T> filter(Class<T> entityClass, Box box, Predicate<? super T> predicate) {
+         int i = MathHelper.floor((box.minX - 2.0D) / 16.0D);
+         int j = MathHelper.ceil((box.maxX + 2.0D) / 16.0D);
+         int k = MathHelper.floor((box.minZ - 2.0D) / 16.0D);
+         int l = MathHelper.ceil((box.maxZ + 2.0D) / 16.0D);
+         int m = MathHelper.clamp(MathHelper.floor((box.minY - 2.0D) / 16.0D), 0, 15);
+         int n = MathHelper.clamp(MathHelper.floor((box.maxY + 2.0D) / 16.0D), 0, 15);
+         List<T> list = Lists.newArrayList();
+
+         for(int o = 0; o < this.sections.length; ++o) {
+            if (this.sectionX[o] >= i && this.sectionX[o] < j && this.sectionZ[o] >= k && this.sectionZ[o] < l && this.sectionY[o] >= m && this.sectionY[o] <= n) {
+               for(int p = this.starts[o]; p < this.starts[o + 1]; ++p) {
+                  T entity = entityClass.cast(this.entities.get(p));
+                  if (entity.getBoundingBox().intersects(box) && predicate.test(entity)) {
+                     list.add(entity);
+                  }
+               }
+            }
+         }
+
+         return list;
+      }
+   }
+}
@@ -1,9 +1,11 @@
 package net.minecraft.entity.ai.goal;
 
 import java.util.EnumSet;
+import java.util.Iterator;
 
 public abstract class Goal {
    private final EnumSet<Goal.Control> controls = EnumSet.noneOf(Goal.Control.class);
+   private int controlMask;
 
    public abstract boolean canStart();
 
@@ -27,6 +29,7 @@ public abstract class Goal {
    public void setControls(EnumSet<Goal.Control> controls) {
       this.controls.clear();
       this.controls.addAll(controls);
+      this.controlMask = Goal.Control.getMask(controls);
    }
 
    public String toString() {
@@ -37,10 +40,35 @@ public abstract class Goal {
       return this.controls;
    }
 
+   /**
+    * Returns the {@linkplain Goal.Control#getMask(Iterable) mask} of the
+    * controls last passed to {@link #setControls}.
+    */
+   public int getControlMask() {
+      return this.controlMask;
+   }
+
    public static enum Control {
       MOVE,
       LOOK,
       JUMP,
       TARGET;
+
+      public static final Goal.Control[] VALUES = values();
+
+      public int getBit() {
+         return 1 << this.ordinal();
+      }
+
+      public static int getMask(Iterable<Goal.Control> controls) {
+         int i = 0;
+
+         Goal.Control control;
+         for(Iterator var2 = controls.iterator(); var2.hasNext(); i |= control.getBit()) {
+            control = (Goal.Control)var2.next();
+         }
+
+         return i;
+      }
    }
 }
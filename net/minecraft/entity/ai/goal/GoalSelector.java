@@ -1,9 +1,8 @@
 package net.minecraft.entity.ai.goal;
 
 import com.google.common.collect.Sets;
-import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.Map;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -23,6 +22,9 @@ import org.apache.logging.log4j.Logger;
  * <p>If two goals have the same priority and are competing for the same control, then one
  * goal cannot replace the other if it's running. The goal selector tries to run goals in the order
  * they were added.
+ *
+ * <p>A goal may be added with a start interval, in which case whether it can start is only
+ * checked every that many ticks.
  */
 public class GoalSelector {
    private static final Logger LOGGER = LogManager.getLogger();
@@ -35,11 +37,13 @@ public class GoalSelector {
          return false;
       }
    };
-   private final Map<Goal.Control, PrioritizedGoal> goalsByControl = new EnumMap(Goal.Control.class);
+   private final PrioritizedGoal[] goalsByControl = new PrioritizedGoal[Goal.Control.VALUES.length];
    private final Set<PrioritizedGoal> goals = Sets.newLinkedHashSet();
    private final Supplier<Profiler> profiler;
    private final EnumSet<Goal.Control> disabledControls = EnumSet.noneOf(Goal.Control.class);
+   private int disabledControlMask;
    private int timeInterval = 3;
+   private int ticks;
 
    public GoalSelector(Supplier<Profiler> profiler) {
       this.profiler = profiler;
@@ -53,10 +57,25 @@ public class GoalSelector {
       this.goals.add(new PrioritizedGoal(priority, goal));
    }
 
+   /**
+    * Adds a goal with a certain priority, checking whether it can start only
+    * every {@code startInterval} ticks. Goals added together with the same
+    * interval are checked at different ticks.
+    */
+   public void add(int priority, Goal goal, int startInterval) {
+      this.goals.add(new PrioritizedGoal(priority, goal, startInterval, this.goals.size() % Math.max(1, startInterval)));
+   }
+
    public void remove(Goal goal) {
-      this.goals.stream().filter((prioritizedGoal) -> {
-         return prioritizedGoal.getGoal() == goal;
-      }).filter(PrioritizedGoal::isRunning).forEach(PrioritizedGoal::stop);
+      Iterator var2 = this.goals.iterator();
+
+      while(var2.hasNext()) {
+         PrioritizedGoal prioritizedGoal = (PrioritizedGoal)var2.next();
+         if (prioritizedGoal.getGoal() == goal && prioritizedGoal.isRunning()) {
+            prioritizedGoal.stop();
+         }
+      }
+
       this.goals.removeIf((prioritizedGoal) -> {
          return prioritizedGoal.getGoal() == goal;
       });
@@ -65,64 +84,93 @@ public class GoalSelector {
    public void tick() {
       Profiler profiler = (Profiler)this.profiler.get();
       profiler.push("goalCleanup");
-      this.getRunningGoals().filter((prioritizedGoal) -> {
-         boolean var2;
-         if (prioritizedGoal.isRunning()) {
-            Stream var10000 = prioritizedGoal.getControls().stream();
-            EnumSet var10001 = this.disabledControls;
-            var10001.getClass();
-            if (!var10000.anyMatch(var10001::contains) && prioritizedGoal.shouldContinue()) {
-               var2 = false;
-               return var2;
-            }
+      Iterator var2 = this.goals.iterator();
+
+      PrioritizedGoal prioritizedGoal;
+      while(var2.hasNext()) {
+         prioritizedGoal = (PrioritizedGoal)var2.next();
+         if (prioritizedGoal.isRunning() && ((prioritizedGoal.getControlMask() & this.disabledControlMask) != 0 || !prioritizedGoal.shouldContinue())) {
+            prioritizedGoal.stop();
          }
+      }
 
-         var2 = true;
-         return var2;
-      }).forEach(Goal::stop);
-      this.goalsByControl.forEach((control, prioritizedGoal) -> {
-         if (!prioritizedGoal.isRunning()) {
-            this.goalsByControl.remove(control);
+      int i;
+      for(i = 0; i < this.goalsByControl.length; ++i) {
+         prioritizedGoal = this.goalsByControl[i];
+         if (prioritizedGoal != null && !prioritizedGoal.isRunning()) {
+            this.goalsByControl[i] = null;
          }
+      }
 
-      });
       profiler.pop();
       profiler.push("goalUpdate");
-      this.goals.stream().filter((prioritizedGoal) -> {
-         return !prioritizedGoal.isRunning();
-      }).filter((prioritizedGoal) -> {
-         Stream var10000 = prioritizedGoal.getControls().stream();
-         EnumSet var10001 = this.disabledControls;
-         var10001.getClass();
-         return var10000.noneMatch(var10001::contains);
-      }).filter((prioritizedGoal) -> {
-         return prioritizedGoal.getControls().stream().allMatch((control) -> {
-            return ((PrioritizedGoal)this.goalsByControl.getOrDefault(control, REPLACEABLE_GOAL)).canBeReplacedBy(prioritizedGoal);
-         });
-      }).filter(PrioritizedGoal::canStart).forEach((prioritizedGoal) -> {
-         prioritizedGoal.getControls().forEach((control) -> {
-            PrioritizedGoal prioritizedGoal2 = (PrioritizedGoal)this.goalsByControl.getOrDefault(control, REPLACEABLE_GOAL);
-            prioritizedGoal2.stop();
-            this.goalsByControl.put(control, prioritizedGoal);
-         });
-         prioritizedGoal.start();
-      });
+      ++this.ticks;
+      var2 = this.goals.iterator();
+
+      while(var2.hasNext()) {
+         prioritizedGoal = (PrioritizedGoal)var2.next();
+         if (!prioritizedGoal.isRunning()) {
+            i = prioritizedGoal.getControlMask();
+            if ((i & this.disabledControlMask) == 0 && this.canReplaceAll(prioritizedGoal, i) && prioritizedGoal.shouldCheckStart(this.ticks) && prioritizedGoal.canStart()) {
+               for(int j = 0; j < this.goalsByControl.length; ++j) {
+                  if ((i & 1 << j) != 0) {
+                     PrioritizedGoal prioritizedGoal2 = this.goalsByControl[j];
+                     if (prioritizedGoal2 != null) {
+                        prioritizedGoal2.stop();
+                     }
+
+                     this.goalsByControl[j] = prioritizedGoal;
+                  }
+               }
+
+               prioritizedGoal.start();
+            }
+         }
+      }
+
       profiler.pop();
       profiler.push("goalTick");
-      this.getRunningGoals().forEach(PrioritizedGoal::tick);
+      var2 = this.goals.iterator();
+
+      while(var2.hasNext()) {
+         prioritizedGoal = (PrioritizedGoal)var2.next();
+         if (prioritizedGoal.isRunning()) {
+            prioritizedGoal.tick();
+         }
+      }
+
       profiler.pop();
    }
 
+   /**
+    * Returns whether the goal can replace the goals holding each of the
+    * controls in the mask.
+    */
+   private boolean canReplaceAll(PrioritizedGoal goal, int controlMask) {
+      for(int i = 0; i < this.goalsByControl.length; ++i) {
+         if ((controlMask & 1 << i) != 0) {
+            PrioritizedGoal prioritizedGoal = this.goalsByControl[i];
+            if (!(prioritizedGoal == null ? REPLACEABLE_GOAL : prioritizedGoal).canBeReplacedBy(goal)) {
+               return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
    public Stream<PrioritizedGoal> getRunningGoals() {
       return this.goals.stream().filter(PrioritizedGoal::isRunning);
    }
 
    public void disableControl(Goal.Control control) {
       this.disabledControls.add(control);
+      this.disabledControlMask |= control.getBit();
    }
 
    public void enableControl(Goal.Control control) {
       this.disabledControls.remove(control);
+      this.disabledControlMask &= ~control.getBit();
    }
 
    public void setControlEnabled(Goal.Control control, boolean enabled) {
@@ -6,11 +6,29 @@ import org.jetbrains.annotations.Nullable;
 public class PrioritizedGoal extends Goal {
    private final Goal goal;
    private final int priority;
+   private final int startInterval;
+   private final int startOffset;
    private boolean running;
 
    public PrioritizedGoal(int priority, Goal goal) {
+      this(priority, goal, 1, 0);
+   }
+
+   /**
+    * @param startInterval the number of ticks between checks whether the goal
+    * can start while it is not running
+    * @param startOffset the tick, modulo the interval, at which the goal is
+    * checked
+    */
+   public PrioritizedGoal(int priority, Goal goal, int startInterval, int startOffset) {
       this.priority = priority;
       this.goal = goal;
+      this.startInterval = startInterval;
+      this.startOffset = startOffset;
+   }
+
+   public boolean shouldCheckStart(int ticks) {
+      return this.startInterval <= 1 || (ticks + this.startOffset) % this.startInterval == 0;
    }
 
    public boolean canBeReplacedBy(PrioritizedGoal goal) {
@@ -55,6 +73,10 @@ public class PrioritizedGoal extends Goal {
       return this.goal.getControls();
    }
 
+   public int getControlMask() {
+      return this.goal.getControlMask();
+   }
+
    public boolean isRunning() {
       return this.running;
    }
@@ -0,0 +1,226 @@
+package net.minecraft.entity.ai.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.chunk.ChunkCache;
+import net.minecraft.world.chunk.SnapshotChunkCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Computes paths for {@link LandPathNodeMaker land} navigations off the
+ * server thread.
+ *
+ * <p>Start and target nodes are resolved on the server thread against a
+ * {@link SnapshotChunkCache}, and everything the search reads from the mob
+ * is {@linkplain LandPathNodeMaker.CapturedMob captured} there too, so that
+ * only the search itself runs on the pathfinding executor. Copied chunk
+ * sections are shared by the requests of the same tick, unless a block in
+ * or next to them changes in between. A search that reads a block outside
+ * of its copied sections gives up, and the navigation searches again on the
+ * server thread when it picks up the result.
+ *
+ * <p>Controlled by the {@code pathfinding.async} system property: {@code true}
+ * searches on the pathfinding executor, {@code inline} runs the same requests
+ * on the server thread as a deterministic fallback, {@code verify} does the
+ * same and also runs the vanilla search, logging any difference and using
+ * the vanilla path, and anything else keeps the vanilla synchronous
+ * pathfinding.
+ */
+public class AsyncPathfinder {
+   private static final Logger LOGGER = LogManager.getLogger();
+   private static final String MODE = System.getProperty("pathfinding.async", "false").toLowerCase(Locale.ROOT);
+   public static final boolean ENABLED = MODE.equals("true") || MODE.equals("inline") || MODE.equals("verify");
+   private static final boolean VERIFY = MODE.equals("verify");
+   private static final boolean INLINE = VERIFY || MODE.equals("inline");
+   private final ServerWorld world;
+   private final Long2ObjectMap<SnapshotChunkCache.Section> snapshotSections = new Long2ObjectOpenHashMap();
+   private final AtomicInteger queueLength = new AtomicInteger();
+   private int completedPaths;
+   private long totalLatencyMs;
+   private int fallbacks;
+   private int mismatches;
+
+   public AsyncPathfinder(ServerWorld world) {
+      this.world = world;
+   }
+
+   public void tick() {
+      this.snapshotSections.clear();
+      Profiler profiler = this.world.getProfiler();
+      profiler.visit("asyncPathQueue", this.queueLength.get());
+      profiler.visit("asyncPathFallbacks", this.fallbacks);
+      profiler.visit("asyncPathMismatches", this.mismatches);
+      this.fallbacks = 0;
+      this.mismatches = 0;
+   }
+
+   public AsyncPathfinder.PendingPath findPathToAny(MobEntity mob, PathNodeMaker template, int range, Set<BlockPos> positions, BlockPos origin, int radius, float followRange, int distance, float rangeMultiplier, int searchRange, boolean up) {
+      LandPathNodeMaker landPathNodeMaker = createNodeMaker(template);
+      BlockPos blockPos = origin.add(-radius, -radius, -radius);
+      BlockPos blockPos2 = origin.add(radius, radius, radius);
+      AsyncPathfinder.PendingPath pendingPath = new AsyncPathfinder.PendingPath(positions, distance, searchRange, up);
+      Supplier<Path> supplier;
+
+      try {
+         SnapshotChunkCache snapshotChunkCache = new SnapshotChunkCache(this.world, blockPos, blockPos2, this.snapshotSections);
+         landPathNodeMaker.setCapturedMob(new LandPathNodeMaker.CapturedMob(mob));
+         supplier = (new PathNodeNavigator(landPathNodeMaker, range)).prepareFindPathToAny(snapshotChunkCache, mob, positions, followRange, distance, rangeMultiplier);
+      } catch (SnapshotChunkCache.MissingSectionException var18) {
+         pendingPath.incomplete = true;
+         pendingPath.future.complete(null);
+         return pendingPath;
+      }
+
+      this.queueLength.incrementAndGet();
+      if (VERIFY) {
+         this.run(pendingPath, supplier);
+         if (!pendingPath.incomplete) {
+            Path path = (new PathNodeNavigator(createNodeMaker(template), range)).findPathToAny(new ChunkCache(this.world, blockPos, blockPos2), mob, positions, followRange, distance, rangeMultiplier);
+            Path path2 = pendingPath.getPath();
+            if (!isSamePath(path, path2)) {
+               ++this.mismatches;
+               LOGGER.warn("Async path for {} differs from the synchronous one: {} instead of {}", mob, path2, path);
+               pendingPath.future.obtrudeValue(path);
+            }
+         }
+      } else if (INLINE) {
+         this.run(pendingPath, supplier);
+      } else {
+         try {
+            Util.getPathfindingExecutor().execute(() -> {
+               this.run(pendingPath, supplier);
+            });
+         } catch (RejectedExecutionException var15) {
+            this.run(pendingPath, supplier);
+         }
+      }
+
+      return pendingPath;
+   }
+
+   private static LandPathNodeMaker createNodeMaker(PathNodeMaker template) {
+      LandPathNodeMaker landPathNodeMaker = new LandPathNodeMaker();
+      landPathNodeMaker.setCanEnterOpenDoors(template.canEnterOpenDoors());
+      landPathNodeMaker.setCanOpenDoors(template.canOpenDoors());
+      landPathNodeMaker.setCanSwim(template.canSwim());
+      return landPathNodeMaker;
+   }
+
+   private static boolean isSamePath(@Nullable Path path, @Nullable Path path2) {
+      if (path != null && path2 != null) {
+         return path.equalsPath(path2) && path.reachesTarget() == path2.reachesTarget() && path.getTarget().equals(path2.getTarget());
+      } else {
+         return path == path2;
+      }
+   }
+
+   private void run(AsyncPathfinder.PendingPath pendingPath, Supplier<Path> supplier) {
+      try {
+         pendingPath.future.complete(pendingPath.cancelled ? null : supplier.get());
+      } catch (SnapshotChunkCache.MissingSectionException var4) {
+         pendingPath.incomplete = true;
+         pendingPath.future.complete(null);
+      } catch (Throwable var5) {
+         LOGGER.error("Couldn't compute path", var5);
+         pendingPath.future.complete(null);
+      } finally {
+         this.queueLength.decrementAndGet();
+      }
+
+   }
+
+   /**
+    * Records the latency of a request whose path was handed to its
+    * navigation. Must be called on the server thread.
+    */
+   void onApplied(AsyncPathfinder.PendingPath pendingPath) {
+      long l = Util.getMeasuringTimeMs() - pendingPath.startTime;
+      if (pendingPath.incomplete) {
+         ++this.fallbacks;
+      }
+
+      ++this.completedPaths;
+      this.totalLatencyMs += l;
+      this.world.getProfiler().visit("asyncPathLatencyMs", (int)l);
+   }
+
+   public int getQueueLength() {
+      return this.queueLength.get();
+   }
+
+   public double getAverageLatencyMs() {
+      return this.completedPaths == 0 ? 0.0D : (double)this.totalLatencyMs / (double)this.completedPaths;
+   }
+
+   public static class PendingPath {
+      private final Set<BlockPos> positions;
+      private final int distance;
+      private final int range;
+      private final boolean up;
+      private final long startTime = Util.getMeasuringTimeMs();
+      private final CompletableFuture<Path> future = new CompletableFuture();
+      private volatile boolean cancelled;
+      private volatile boolean incomplete;
+
+      private PendingPath(Set<BlockPos> positions, int distance, int range, boolean up) {
+         this.positions = positions;
+         this.distance = distance;
+         this.range = range;
+         this.up = up;
+      }
+
+      public boolean isFor(Set<BlockPos> positions, int distance) {
+         return this.distance == distance && this.positions.equals(positions);
+      }
+
+      public Set<BlockPos> getPositions() {
+         return this.positions;
+      }
+
+      public int getDistance() {
+         return this.distance;
+      }
+
+      public int getRange() {
+         return this.range;
+      }
+
+      public boolean isUp() {
+         return this.up;
+      }
+
+      /**
+       * Returns whether the search needed blocks that were not copied, and has
+       * to be done again on the server thread.
+       */
+      public boolean isIncomplete() {
+         return this.incomplete;
+      }
+
+      public boolean isDone() {
+         return this.future.isDone();
+      }
+
+      @Nullable
+      public Path getPath() {
+         return (Path)this.future.getNow(null);
+      }
+
+      public void cancel() {
+         this.cancelled = true;
+      }
+   }
+}
@@ -2,6 +2,7 @@ package net.minecraft.entity.ai.pathing;
 
 import com.google.common.collect.ImmutableSet;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.minecraft.block.BlockState;
@@ -10,6 +11,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.attribute.EntityAttributes;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.server.network.DebugInfoSender;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
@@ -45,6 +47,10 @@ public abstract class EntityNavigation {
    private float rangeMultiplier;
    private final PathNodeNavigator pathNodeNavigator;
    private boolean nearPathStartPos;
+   @Nullable
+   private AsyncPathfinder.PendingPath pendingPath;
+   private boolean asyncRequested;
+   private boolean asyncSubmitted;
 
    public EntityNavigation(MobEntity mob, World world) {
       this.pathStartPos = Vec3d.ZERO;
@@ -80,10 +86,21 @@ public abstract class EntityNavigation {
    }
 
    public void recalculatePath() {
-      if (this.world.getTime() - this.lastRecalculateTime > 20L) {
+      if (this.pendingPath != null) {
+         this.shouldRecalculate = true;
+      } else if (this.world.getTime() - this.lastRecalculateTime > 20L) {
          if (this.currentTarget != null) {
+            Path path = this.currentPath;
             this.currentPath = null;
-            this.currentPath = this.findPathTo(this.currentTarget, this.currentDistance);
+            Path path2 = this.findPath(() -> {
+               return this.findPathTo(this.currentTarget, this.currentDistance);
+            });
+            if (this.asyncSubmitted) {
+               this.currentPath = path;
+            } else {
+               this.currentPath = path2;
+            }
+
             this.lastRecalculateTime = this.world.getTime();
             this.shouldRecalculate = false;
          }
@@ -93,6 +110,57 @@ public abstract class EntityNavigation {
 
    }
 
+   /**
+    * Whether paths requested through {@link #recalculatePath} may be computed
+    * by the world's {@link AsyncPathfinder}. The entity keeps following its
+    * current path until the new one is applied.
+    *
+    * <p>Paths requested through {@link #startMovingTo} are always computed
+    * synchronously, since goals act on whether a path was found.
+    */
+   protected boolean canPathfindAsync() {
+      return AsyncPathfinder.ENABLED && this.world instanceof ServerWorld && this.nodeMaker != null && this.nodeMaker.getClass() == LandPathNodeMaker.class;
+   }
+
+   /**
+    * Runs the given path lookup, allowing it to be computed asynchronously.
+    * If it was, {@link #asyncSubmitted} is set and the path will be applied
+    * once the pending request completes.
+    */
+   @Nullable
+   private Path findPath(Supplier<Path> finder) {
+      this.asyncRequested = this.canPathfindAsync();
+      this.asyncSubmitted = false;
+
+      try {
+         return (Path)finder.get();
+      } finally {
+         this.asyncRequested = false;
+      }
+   }
+
+   private void cancelPendingPath() {
+      if (this.pendingPath != null) {
+         this.pendingPath.cancel();
+         this.pendingPath = null;
+      }
+
+   }
+
+   private void applyPendingPath() {
+      AsyncPathfinder.PendingPath pendingPath = this.pendingPath;
+      this.pendingPath = null;
+      ((ServerWorld)this.world).getAsyncPathfinder().onApplied(pendingPath);
+      Path path = pendingPath.isIncomplete() ? this.findPathSynchronously(pendingPath.getPositions(), pendingPath.getRange(), pendingPath.isUp(), pendingPath.getDistance()) : pendingPath.getPath();
+      if (path != null && path.getTarget() != null) {
+         this.currentTarget = path.getTarget();
+         this.currentDistance = pendingPath.getDistance();
+         this.resetNode();
+      }
+
+      this.currentPath = path;
+   }
+
    @Nullable
    public final Path findPathTo(double x, double y, double z, int distance) {
       return this.findPathTo(new BlockPos(x, y, z), distance);
@@ -128,22 +196,39 @@ public abstract class EntityNavigation {
          return null;
       } else if (this.currentPath != null && !this.currentPath.isFinished() && positions.contains(this.currentTarget)) {
          return this.currentPath;
-      } else {
-         this.world.getProfiler().push("pathfind");
-         float f = (float)this.entity.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE);
-         BlockPos blockPos = bl ? this.entity.getBlockPos().up() : this.entity.getBlockPos();
-         int i = (int)(f + (float)range);
-         ChunkCache chunkCache = new ChunkCache(this.world, blockPos.add(-i, -i, -i), blockPos.add(i, i, i));
-         Path path = this.pathNodeNavigator.findPathToAny(chunkCache, this.entity, positions, f, distance, this.rangeMultiplier);
-         this.world.getProfiler().pop();
-         if (path != null && path.getTarget() != null) {
-            this.currentTarget = path.getTarget();
-            this.currentDistance = distance;
-            this.resetNode();
+      } else if (this.asyncRequested) {
+         if (this.pendingPath == null || !this.pendingPath.isFor(positions, distance)) {
+            this.cancelPendingPath();
+            this.world.getProfiler().push("pathfindAsync");
+            float f = (float)this.entity.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE);
+            BlockPos blockPos = bl ? this.entity.getBlockPos().up() : this.entity.getBlockPos();
+            this.pendingPath = ((ServerWorld)this.world).getAsyncPathfinder().findPathToAny(this.entity, this.nodeMaker, this.pathNodeNavigator.getRange(), positions, blockPos, (int)(f + (float)range), f, distance, this.rangeMultiplier, range, bl);
+            this.world.getProfiler().pop();
          }
 
-         return path;
+         this.asyncSubmitted = true;
+         return null;
+      } else {
+         return this.findPathSynchronously(positions, range, bl, distance);
+      }
+   }
+
+   @Nullable
+   private Path findPathSynchronously(Set<BlockPos> positions, int range, boolean bl, int distance) {
+      this.world.getProfiler().push("pathfind");
+      float f = (float)this.entity.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE);
+      BlockPos blockPos = bl ? this.entity.getBlockPos().up() : this.entity.getBlockPos();
+      int i = (int)(f + (float)range);
+      ChunkCache chunkCache = new ChunkCache(this.world, blockPos.add(-i, -i, -i), blockPos.add(i, i, i));
+      Path path = this.pathNodeNavigator.findPathToAny(chunkCache, this.entity, positions, f, distance, this.rangeMultiplier);
+      this.world.getProfiler().pop();
+      if (path != null && path.getTarget() != null) {
+         this.currentTarget = path.getTarget();
+         this.currentDistance = distance;
+         this.resetNode();
       }
+
+      return path;
    }
 
    public boolean startMovingTo(double x, double y, double z, double speed) {
@@ -156,6 +241,7 @@ public abstract class EntityNavigation {
    }
 
    public boolean startMovingAlong(@Nullable Path path, double speed) {
+      this.cancelPendingPath();
       if (path == null) {
          this.currentPath = null;
          return false;
@@ -164,7 +250,7 @@ public abstract class EntityNavigation {
             this.currentPath = path;
          }
 
-         if (this.isIdle()) {
+         if (!this.hasUnfinishedPath()) {
             return false;
          } else {
             this.adjustPath();
@@ -188,11 +274,15 @@ public abstract class EntityNavigation {
 
    public void tick() {
       ++this.tickCount;
+      if (this.pendingPath != null && this.pendingPath.isDone()) {
+         this.applyPendingPath();
+      }
+
       if (this.shouldRecalculate) {
          this.recalculatePath();
       }
 
-      if (!this.isIdle()) {
+      if (this.hasUnfinishedPath()) {
          Vec3d vec3d3;
          if (this.isAtValidPosition()) {
             this.continueFollowingPath();
@@ -205,7 +295,7 @@ public abstract class EntityNavigation {
          }
 
          DebugInfoSender.sendPathfindingData(this.world, this.entity, this.currentPath, this.nodeReachProximity);
-         if (!this.isIdle()) {
+         if (this.hasUnfinishedPath()) {
             vec3d3 = this.currentPath.getNodePosition(this.entity);
             BlockPos blockPos = new BlockPos(vec3d3);
             this.entity.getMoveControl().moveTo(vec3d3.x, this.world.getBlockState(blockPos.down()).isAir() ? vec3d3.y : LandPathNodeMaker.getFeetY(this.world, blockPos), vec3d3.z, this.speed);
@@ -288,8 +378,16 @@ public abstract class EntityNavigation {
       this.nearPathStartPos = false;
    }
 
+   /**
+    * Returns whether the entity is neither following a path nor waiting for
+    * an asynchronously computed one.
+    */
    public boolean isIdle() {
-      return this.currentPath == null || this.currentPath.isFinished();
+      return !this.hasUnfinishedPath() && this.pendingPath == null;
+   }
+
+   private boolean hasUnfinishedPath() {
+      return this.currentPath != null && !this.currentPath.isFinished();
    }
 
    public boolean isFollowingPath() {
@@ -297,6 +395,7 @@ public abstract class EntityNavigation {
    }
 
    public void stop() {
+      this.cancelPendingPath();
       this.currentPath = null;
    }
 
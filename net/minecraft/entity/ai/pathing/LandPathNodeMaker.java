@@ -15,6 +15,8 @@ import net.minecraft.block.DoorBlock;
 import net.minecraft.block.FenceGateBlock;
 import net.minecraft.block.LeavesBlock;
 import net.minecraft.block.Material;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
@@ -26,6 +28,7 @@ import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockCollisionCollector;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.chunk.ChunkCache;
 import org.jetbrains.annotations.Nullable;
@@ -34,6 +37,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
    protected float waterPathNodeTypeWeight;
    private final Long2ObjectMap<PathNodeType> field_25190 = new Long2ObjectOpenHashMap();
    private final Object2BooleanMap<Box> field_25191 = new Object2BooleanOpenHashMap();
+   @Nullable
+   private LandPathNodeMaker.CapturedMob capturedMob;
 
    public void init(ChunkCache cachedWorld, MobEntity entity) {
       super.init(cachedWorld, entity);
@@ -44,9 +49,30 @@ public class LandPathNodeMaker extends PathNodeMaker {
       this.entity.setPathfindingPenalty(PathNodeType.WATER, this.waterPathNodeTypeWeight);
       this.field_25190.clear();
       this.field_25191.clear();
+      this.capturedMob = null;
       super.clear();
    }
 
+   /**
+    * Makes the search read everything it needs from the mob from the given
+    * copy instead, so that it can run while the mob keeps changing.
+    */
+   public void setCapturedMob(LandPathNodeMaker.CapturedMob capturedMob) {
+      this.capturedMob = capturedMob;
+   }
+
+   private float getPenalty(MobEntity mob, PathNodeType type) {
+      return this.capturedMob != null && mob == this.entity ? this.capturedMob.penalties[type.ordinal()] : mob.getPathfindingPenalty(type);
+   }
+
+   private float getEntityWidth() {
+      return this.capturedMob != null ? this.capturedMob.width : this.entity.getWidth();
+   }
+
+   private float getEntityHeight() {
+      return this.capturedMob != null ? this.capturedMob.height : this.entity.getHeight();
+   }
+
    public PathNode getStart() {
       BlockPos.Mutable mutable = new BlockPos.Mutable();
       int i = MathHelper.floor(this.entity.getY());
@@ -115,8 +141,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
       int j = 0;
       PathNodeType pathNodeType = this.method_29303(this.entity, node.x, node.y + 1, node.z);
       PathNodeType pathNodeType2 = this.method_29303(this.entity, node.x, node.y, node.z);
-      if (this.entity.getPathfindingPenalty(pathNodeType) >= 0.0F && pathNodeType2 != PathNodeType.STICKY_HONEY) {
-         j = MathHelper.floor(Math.max(1.0F, this.entity.stepHeight));
+      if (this.getPenalty(this.entity, pathNodeType) >= 0.0F && pathNodeType2 != PathNodeType.STICKY_HONEY) {
+         j = MathHelper.floor(Math.max(1.0F, this.capturedMob != null ? this.capturedMob.stepHeight : this.entity.stepHeight));
       }
 
       double d = getFeetY(this.cachedWorld, new BlockPos(node.x, node.y, node.z));
@@ -173,7 +199,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
             return false;
          } else if (pathNode3.y <= pathNode.y && pathNode2.y <= pathNode.y) {
             if (pathNode2.type != PathNodeType.WALKABLE_DOOR && pathNode3.type != PathNodeType.WALKABLE_DOOR && pathNode4.type != PathNodeType.WALKABLE_DOOR) {
-               boolean bl = pathNode3.type == PathNodeType.FENCE && pathNode2.type == PathNodeType.FENCE && (double)this.entity.getWidth() < 0.5D;
+               boolean bl = pathNode3.type == PathNodeType.FENCE && pathNode2.type == PathNodeType.FENCE && (double)this.getEntityWidth() < 0.5D;
                return pathNode4.penalty >= 0.0F && (pathNode3.y < pathNode.y || pathNode3.penalty >= 0.0F || bl) && (pathNode2.y < pathNode.y || pathNode2.penalty >= 0.0F || bl);
             } else {
                return false;
@@ -187,8 +213,9 @@ public class LandPathNodeMaker extends PathNodeMaker {
    }
 
    private boolean method_29578(PathNode pathNode) {
-      Vec3d vec3d = new Vec3d((double)pathNode.x - this.entity.getX(), (double)pathNode.y - this.entity.getY(), (double)pathNode.z - this.entity.getZ());
-      Box box = this.entity.getBoundingBox();
+      Vec3d vec3d = this.capturedMob != null ? this.capturedMob.pos : this.entity.getPos();
+      vec3d = new Vec3d((double)pathNode.x - vec3d.x, (double)pathNode.y - vec3d.y, (double)pathNode.z - vec3d.z);
+      Box box = this.capturedMob != null ? this.capturedMob.boundingBox : this.entity.getBoundingBox();
       int i = MathHelper.ceil(vec3d.length() / box.getAverageSideLength());
       vec3d = vec3d.multiply((double)(1.0F / (float)i));
 
@@ -217,8 +244,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
          return null;
       } else {
          PathNodeType pathNodeType = this.method_29303(this.entity, x, y, z);
-         float f = this.entity.getPathfindingPenalty(pathNodeType);
-         double e = (double)this.entity.getWidth() / 2.0D;
+         float f = this.getPenalty(this.entity, pathNodeType);
+         double e = (double)this.getEntityWidth() / 2.0D;
          if (f >= 0.0F) {
             pathNode = this.getNode(x, y, z);
             pathNode.type = pathNodeType;
@@ -234,10 +261,10 @@ public class LandPathNodeMaker extends PathNodeMaker {
          } else {
             if ((pathNode == null || pathNode.penalty < 0.0F) && maxYStep > 0 && pathNodeType != PathNodeType.FENCE && pathNodeType != PathNodeType.UNPASSABLE_RAIL && pathNodeType != PathNodeType.TRAPDOOR) {
                pathNode = this.getPathNode(x, y + 1, z, maxYStep - 1, prevFeetY, direction, nodeType);
-               if (pathNode != null && (pathNode.type == PathNodeType.OPEN || pathNode.type == PathNodeType.WALKABLE) && this.entity.getWidth() < 1.0F) {
+               if (pathNode != null && (pathNode.type == PathNodeType.OPEN || pathNode.type == PathNodeType.WALKABLE) && this.getEntityWidth() < 1.0F) {
                   double g = (double)(x - direction.getOffsetX()) + 0.5D;
                   double h = (double)(z - direction.getOffsetZ()) + 0.5D;
-                  Box box = new Box(g - e, getFeetY(this.cachedWorld, mutable.set(g, (double)(y + 1), h)) + 0.001D, h - e, g + e, (double)this.entity.getHeight() + getFeetY(this.cachedWorld, mutable.set((double)pathNode.x, (double)pathNode.y, (double)pathNode.z)) - 0.002D, h + e);
+                  Box box = new Box(g - e, getFeetY(this.cachedWorld, mutable.set(g, (double)(y + 1), h)) + 0.001D, h - e, g + e, (double)this.getEntityHeight() + getFeetY(this.cachedWorld, mutable.set((double)pathNode.x, (double)pathNode.y, (double)pathNode.z)) - 0.002D, h + e);
                   if (this.method_29304(box)) {
                      pathNode = null;
                   }
@@ -258,7 +285,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
                   pathNode = this.getNode(x, y, z);
                   pathNode.type = pathNodeType;
-                  pathNode.penalty = Math.max(pathNode.penalty, this.entity.getPathfindingPenalty(pathNodeType));
+                  pathNode.penalty = Math.max(pathNode.penalty, this.getPenalty(this.entity, pathNodeType));
                }
             }
 
@@ -276,7 +303,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
                      return pathNode4;
                   }
 
-                  if (i++ >= this.entity.getSafeFallDistance()) {
+                  if (i++ >= (this.capturedMob != null ? this.capturedMob.safeFallDistance : this.entity.getSafeFallDistance())) {
                      pathNode4 = this.getNode(x, y, z);
                      pathNode4.type = PathNodeType.BLOCKED;
                      pathNode4.penalty = -1.0F;
@@ -284,7 +311,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
                   }
 
                   pathNodeType = this.method_29303(this.entity, x, y, z);
-                  f = this.entity.getPathfindingPenalty(pathNodeType);
+                  f = this.getPenalty(this.entity, pathNodeType);
                   if (pathNodeType != PathNodeType.OPEN && f >= 0.0F) {
                      pathNode = this.getNode(x, y, z);
                      pathNode.type = pathNodeType;
@@ -315,14 +342,18 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
    private boolean method_29304(Box box) {
       return (Boolean)this.field_25191.computeIfAbsent(box, (box2) -> {
-         return !this.cachedWorld.isSpaceEmpty(this.entity, box);
+         if (this.capturedMob != null) {
+            return this.capturedMob.touchesWorldBorder || (new BlockCollisionCollector()).collect(this.cachedWorld, (Entity)null, box, this.capturedMob.shapeContext, true);
+         } else {
+            return !this.cachedWorld.isSpaceEmpty(this.entity, box);
+         }
       });
    }
 
    public PathNodeType getNodeType(BlockView world, int x, int y, int z, MobEntity mob, int sizeX, int sizeY, int sizeZ, boolean canOpenDoors, boolean canEnterOpenDoors) {
       EnumSet<PathNodeType> enumSet = EnumSet.noneOf(PathNodeType.class);
       PathNodeType pathNodeType = PathNodeType.BLOCKED;
-      BlockPos blockPos = mob.getBlockPos();
+      BlockPos blockPos = this.capturedMob != null && mob == this.entity ? this.capturedMob.blockPos : mob.getBlockPos();
       pathNodeType = this.findNearbyNodeTypes(world, x, y, z, sizeX, sizeY, sizeZ, canOpenDoors, canEnterOpenDoors, enumSet, pathNodeType, blockPos);
       if (enumSet.contains(PathNodeType.FENCE)) {
          return PathNodeType.FENCE;
@@ -334,16 +365,16 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
          while(var15.hasNext()) {
             PathNodeType pathNodeType3 = (PathNodeType)var15.next();
-            if (mob.getPathfindingPenalty(pathNodeType3) < 0.0F) {
+            if (this.getPenalty(mob, pathNodeType3) < 0.0F) {
                return pathNodeType3;
             }
 
-            if (mob.getPathfindingPenalty(pathNodeType3) >= mob.getPathfindingPenalty(pathNodeType2)) {
+            if (this.getPenalty(mob, pathNodeType3) >= this.getPenalty(mob, pathNodeType2)) {
                pathNodeType2 = pathNodeType3;
             }
          }
 
-         if (pathNodeType == PathNodeType.OPEN && mob.getPathfindingPenalty(pathNodeType2) == 0.0F && sizeX <= 1) {
+         if (pathNodeType == PathNodeType.OPEN && this.getPenalty(mob, pathNodeType2) == 0.0F && sizeX <= 1) {
             return PathNodeType.OPEN;
          } else {
             return pathNodeType2;
@@ -407,7 +438,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
    }
 
    public PathNodeType getDefaultNodeType(BlockView world, int x, int y, int z) {
-      return getLandNodeType(world, new BlockPos.Mutable(x, y, z));
+      BlockPos.Mutable mutable = new BlockPos.Mutable(x, y, z);
+      return world instanceof ChunkCache ? ((ChunkCache)world).getLandNodeType(mutable) : getLandNodeType(world, mutable);
    }
 
    public static PathNodeType getLandNodeType(BlockView world, BlockPos.Mutable pos) {
@@ -523,4 +555,39 @@ public class LandPathNodeMaker extends PathNodeMaker {
    private static boolean method_27138(BlockState blockState) {
       return blockState.isIn(BlockTags.FIRE) || blockState.isOf(Blocks.LAVA) || blockState.isOf(Blocks.MAGMA_BLOCK) || CampfireBlock.isLitCampfire(blockState);
    }
+
+   /**
+    * A copy of everything a land path search reads from its mob, taken on
+    * the server thread.
+    */
+   public static class CapturedMob {
+      private final float[] penalties = new float[PathNodeType.values().length];
+      private final BlockPos blockPos;
+      private final Vec3d pos;
+      private final Box boundingBox;
+      private final float width;
+      private final float height;
+      private final float stepHeight;
+      private final int safeFallDistance;
+      private final ShapeContext shapeContext;
+      private final boolean touchesWorldBorder;
+
+      public CapturedMob(MobEntity mob) {
+         PathNodeType[] pathNodeTypes = PathNodeType.values();
+
+         for(int i = 0; i < pathNodeTypes.length; ++i) {
+            this.penalties[i] = mob.getPathfindingPenalty(pathNodeTypes[i]);
+         }
+
+         this.blockPos = mob.getBlockPos();
+         this.pos = mob.getPos();
+         this.boundingBox = mob.getBoundingBox();
+         this.width = mob.getWidth();
+         this.height = mob.getHeight();
+         this.stepHeight = mob.stepHeight;
+         this.safeFallDistance = mob.getSafeFallDistance();
+         this.shapeContext = ShapeContext.of(mob);
+         this.touchesWorldBorder = BlockCollisionCollector.getWorldBorderCollision(mob.world, mob) != null;
+      }
+   }
 }
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.util.math.BlockPos;
@@ -36,10 +37,35 @@ public class PathNodeNavigator {
          return this.pathNodeMaker.getNode((double)blockPos.getX(), (double)blockPos.getY(), (double)blockPos.getZ());
       }, Function.identity()));
       Path path = this.findPathToAny(pathNode, map, followRange, distance, rangeMultiplier);
+      world.flushNodeTypeCacheStats();
       this.pathNodeMaker.clear();
       return path;
    }
 
+   /**
+    * Resolves the start and target nodes using the given world and mob, and
+    * returns the search itself, which only reads from the node maker. The
+    * node maker is not cleared afterwards, so this navigator and its node
+    * maker must not be reused.
+    */
+   public Supplier<Path> prepareFindPathToAny(ChunkCache world, MobEntity mob, Set<BlockPos> positions, float followRange, int distance, float rangeMultiplier) {
+      this.minHeap.clear();
+      this.pathNodeMaker.init(world, mob);
+      PathNode pathNode = this.pathNodeMaker.getStart();
+      Map<TargetPathNode, BlockPos> map = (Map)positions.stream().collect(Collectors.toMap((blockPos) -> {
+         return this.pathNodeMaker.getNode((double)blockPos.getX(), (double)blockPos.getY(), (double)blockPos.getZ());
+      }, Function.identity()));
+      return () -> {
+         Path path = this.findPathToAny(pathNode, map, followRange, distance, rangeMultiplier);
+         world.flushNodeTypeCacheStats();
+         return path;
+      };
+   }
+
+   public int getRange() {
+      return this.range;
+   }
+
    @Nullable
    private Path findPathToAny(PathNode startNode, Map<TargetPathNode, BlockPos> positions, float followRange, int distance, float rangeMultiplier) {
       Set<TargetPathNode> set = positions.keySet();
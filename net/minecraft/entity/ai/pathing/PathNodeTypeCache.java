@@ -0,0 +1,150 @@
+package net.minecraft.entity.ai.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.profiler.Profiler;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A world-wide cache of the {@linkplain LandPathNodeMaker#getLandNodeType
+ * land node types} of blocks, shared by all navigations of the world.
+ *
+ * <p>Node types are stored per chunk section as one byte per block, zero
+ * meaning not computed yet. A section is dropped as a whole when a block
+ * within one block of it changes, since the node type of a block depends
+ * on its neighbors, and the sections of the chunks around a chunk are
+ * dropped when it loads. At most {@code pathfinding.nodeTypeCacheSections}
+ * sections are kept, dropping the least recently used ones beyond that.
+ *
+ * <p>Callers must only fill in node types computed from loaded chunks, so
+ * that blocks of missing chunks are never cached. The section map itself
+ * must only be accessed on the
+ * world's thread; the arrays handed out may be read and filled from any
+ * thread, as every value written into them is computed from the same block
+ * states.
+ */
+public class PathNodeTypeCache {
+   private static final PathNodeType[] NODE_TYPES = PathNodeType.values();
+   private static final int MAX_SECTIONS = Integer.getInteger("pathfinding.nodeTypeCacheSections", 2048);
+   private final Long2ObjectLinkedOpenHashMap<byte[]> sections = new Long2ObjectLinkedOpenHashMap();
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private long reportedHits;
+   private long reportedMisses;
+
+   public byte[] getSection(int sectionX, int sectionY, int sectionZ) {
+      long l = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+      byte[] bs = (byte[])this.sections.getAndMoveToFirst(l);
+      if (bs == null) {
+         bs = new byte[4096];
+         this.sections.putAndMoveToFirst(l, bs);
+
+         while(this.sections.size() > MAX_SECTIONS) {
+            this.sections.removeLast();
+         }
+      }
+
+      return bs;
+   }
+
+   @Nullable
+   public byte[] getSectionIfPresent(int sectionX, int sectionY, int sectionZ) {
+      return (byte[])this.sections.get(ChunkSectionPos.asLong(sectionX, sectionY, sectionZ));
+   }
+
+   public void onBlockChanged(BlockPos pos) {
+      if (!this.sections.isEmpty()) {
+         int i = pos.getX() - 1 >> 4;
+         int j = pos.getX() + 1 >> 4;
+         int k = pos.getY() - 1 >> 4;
+         int l = pos.getY() + 1 >> 4;
+         int m = pos.getZ() - 1 >> 4;
+         int n = pos.getZ() + 1 >> 4;
+
+         for(int o = i; o <= j; ++o) {
+            for(int p = k; p <= l; ++p) {
+               for(int q = m; q <= n; ++q) {
+                  this.sections.remove(ChunkSectionPos.asLong(o, p, q));
+               }
+            }
+         }
+
+      }
+   }
+
+   /**
+    * Drops the sections that may depend on any block of the given section.
+    */
+   public void onSectionChanged(int sectionX, int sectionY, int sectionZ) {
+      if (!this.sections.isEmpty()) {
+         for(int i = sectionX - 1; i <= sectionX + 1; ++i) {
+            for(int j = sectionY - 1; j <= sectionY + 1; ++j) {
+               for(int k = sectionZ - 1; k <= sectionZ + 1; ++k) {
+                  this.sections.remove(ChunkSectionPos.asLong(i, j, k));
+               }
+            }
+         }
+
+      }
+   }
+
+   /**
+    * Drops the sections of the chunks around a chunk that was loaded, as
+    * node types next to it may have been cached while it was missing.
+    */
+   public void onChunkLoaded(int chunkX, int chunkZ) {
+      if (!this.sections.isEmpty()) {
+         for(int i = chunkX - 1; i <= chunkX + 1; ++i) {
+            for(int j = chunkZ - 1; j <= chunkZ + 1; ++j) {
+               for(int k = 0; k < 16; ++k) {
+                  this.sections.remove(ChunkSectionPos.asLong(i, k, j));
+               }
+            }
+         }
+
+      }
+   }
+
+   public void onChunkUnloaded(int chunkX, int chunkZ) {
+      if (!this.sections.isEmpty()) {
+         for(int i = 0; i < 16; ++i) {
+            this.sections.remove(ChunkSectionPos.asLong(chunkX, i, chunkZ));
+         }
+
+      }
+   }
+
+   public static int getIndex(BlockPos pos) {
+      return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | pos.getX() & 15;
+   }
+
+   public static byte toId(PathNodeType type) {
+      return (byte)(type.ordinal() + 1);
+   }
+
+   public static PathNodeType fromId(byte id) {
+      return NODE_TYPES[id - 1];
+   }
+
+   public void addStats(int hits, int misses) {
+      this.hits.addAndGet((long)hits);
+      this.misses.addAndGet((long)misses);
+   }
+
+   public void tick(Profiler profiler) {
+      long l = this.hits.get();
+      long m = this.misses.get();
+      profiler.visit("nodeTypeCacheHit", (int)(l - this.reportedHits));
+      profiler.visit("nodeTypeCacheMiss", (int)(m - this.reportedMisses));
+      this.reportedHits = l;
+      this.reportedMisses = m;
+   }
+
+   public double getHitRate() {
+      long l = this.hits.get();
+      long m = l + this.misses.get();
+      return m == 0L ? 0.0D : (double)l / (double)m;
+   }
+}
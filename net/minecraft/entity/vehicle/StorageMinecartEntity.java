@@ -119,6 +119,14 @@ public abstract class StorageMinecartEntity extends AbstractMinecartEntity imple
    public void markDirty() {
    }
 
+   public void tick() {
+      super.tick();
+      if (!this.removed) {
+         this.wakeNearbyHoppers();
+      }
+
+   }
+
    public boolean canPlayerUse(PlayerEntity player) {
       if (this.removed) {
          return false;
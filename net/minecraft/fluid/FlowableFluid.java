@@ -7,6 +7,7 @@ import it.unimi.dsi.fastutil.shorts.Short2BooleanMap;
 import it.unimi.dsi.fastutil.shorts.Short2BooleanOpenHashMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,6 +31,7 @@ import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldAccess;
 import net.minecraft.world.WorldView;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Represents a fluid which can flow.
@@ -38,6 +40,7 @@ public abstract class FlowableFluid extends Fluid {
    public static final BooleanProperty FALLING;
    public static final IntProperty LEVEL;
    private static final ThreadLocal<Object2ByteLinkedOpenHashMap<Block.NeighborGroup>> field_15901;
+   private static final Direction[] DIRECTIONS = Direction.values();
    private final Map<FluidState, VoxelShape> shapeCache = Maps.newIdentityHashMap();
 
    protected void appendProperties(StateManager.Builder<Fluid, FluidState> builder) {
@@ -140,24 +143,58 @@ public abstract class FlowableFluid extends Fluid {
       }
 
       if (i > 0) {
-         Map<Direction, FluidState> map = this.getSpread(world, pos, blockState);
-         Iterator var7 = map.entrySet().iterator();
-
-         while(var7.hasNext()) {
-            Entry<Direction, FluidState> entry = (Entry)var7.next();
-            Direction direction = (Direction)entry.getKey();
-            FluidState fluidState2 = (FluidState)entry.getValue();
-            BlockPos blockPos = pos.offset(direction);
-            BlockState blockState2 = world.getBlockState(blockPos);
-            if (this.canFlow(world, pos, blockState, direction, blockPos, blockState2, world.getFluidState(blockPos), fluidState2.getFluid())) {
-               this.flow(world, blockPos, blockState2, direction, fluidState2);
+         FluidFlowCache fluidFlowCache = FluidFlowCache.get(world);
+         if (fluidFlowCache != null) {
+            FluidState[] fluidStates = fluidFlowCache.borrowSpread();
+            this.getSpread(world, fluidFlowCache, pos, blockState, fluidStates);
+
+            for(int j = 0; j < fluidStates.length; ++j) {
+               if (fluidStates[j] != null) {
+                  this.flowTo(world, pos, blockState, DIRECTIONS[j], fluidStates[j]);
+               }
+            }
+
+            fluidFlowCache.releaseSpread(fluidStates);
+         } else {
+            Map<Direction, FluidState> map = this.getSpread(world, pos, blockState);
+            Iterator var7 = map.entrySet().iterator();
+
+            while(var7.hasNext()) {
+               Entry<Direction, FluidState> entry = (Entry)var7.next();
+               this.flowTo(world, pos, blockState, (Direction)entry.getKey(), (FluidState)entry.getValue());
             }
          }
 
       }
    }
 
+   private void flowTo(WorldAccess world, BlockPos pos, BlockState blockState, Direction direction, FluidState fluidState) {
+      BlockPos blockPos = pos.offset(direction);
+      BlockState blockState2 = world.getBlockState(blockPos);
+      if (this.canFlow(world, pos, blockState, direction, blockPos, blockState2, world.getFluidState(blockPos), fluidState.getFluid())) {
+         this.flow(world, blockPos, blockState2, direction, fluidState);
+      }
+
+   }
+
    protected FluidState getUpdatedState(WorldView world, BlockPos pos, BlockState state) {
+      FluidFlowCache fluidFlowCache = FluidFlowCache.get(world);
+      if (fluidFlowCache != null && fluidFlowCache.getBlockState(world, pos) == state) {
+         FluidState fluidState = fluidFlowCache.getUpdatedState(this.getFlowing(), pos);
+         if (fluidState == null) {
+            fluidState = this.computeUpdatedState(world, fluidFlowCache, pos, state);
+            if (this.hasStaticBoundsAround(world, fluidFlowCache, pos, state)) {
+               fluidFlowCache.putUpdatedState(this.getFlowing(), pos, fluidState);
+            }
+         }
+
+         return fluidState;
+      } else {
+         return this.computeUpdatedState(world, (FluidFlowCache)null, pos, state);
+      }
+   }
+
+   private FluidState computeUpdatedState(WorldView world, @Nullable FluidFlowCache cache, BlockPos pos, BlockState state) {
       int i = 0;
       int j = 0;
       Iterator var6 = Direction.Type.HORIZONTAL.iterator();
@@ -165,7 +202,7 @@ public abstract class FlowableFluid extends Fluid {
       while(var6.hasNext()) {
          Direction direction = (Direction)var6.next();
          BlockPos blockPos = pos.offset(direction);
-         BlockState blockState = world.getBlockState(blockPos);
+         BlockState blockState = getBlockState(world, cache, blockPos);
          FluidState fluidState = blockState.getFluidState();
          if (fluidState.getFluid().matchesType(this) && this.receivesFlow(direction, world, pos, state, blockPos, blockState)) {
             if (fluidState.isStill()) {
@@ -177,7 +214,7 @@ public abstract class FlowableFluid extends Fluid {
       }
 
       if (this.isInfinite() && j >= 2) {
-         BlockState blockState2 = world.getBlockState(pos.down());
+         BlockState blockState2 = getBlockState(world, cache, pos.down());
          FluidState fluidState2 = blockState2.getFluidState();
          if (blockState2.getMaterial().isSolid() || this.isMatchingAndStill(fluidState2)) {
             return this.getStill(false);
@@ -185,7 +222,7 @@ public abstract class FlowableFluid extends Fluid {
       }
 
       BlockPos blockPos2 = pos.up();
-      BlockState blockState3 = world.getBlockState(blockPos2);
+      BlockState blockState3 = getBlockState(world, cache, blockPos2);
       FluidState fluidState3 = blockState3.getFluidState();
       if (!fluidState3.isEmpty() && fluidState3.getFluid().matchesType(this) && this.receivesFlow(Direction.UP, world, pos, state, blockPos2, blockState3)) {
          return this.getFlowing(8, true);
@@ -199,6 +236,28 @@ public abstract class FlowableFluid extends Fluid {
       }
    }
 
+   private static BlockState getBlockState(WorldView world, @Nullable FluidFlowCache cache, BlockPos pos) {
+      return cache != null ? cache.getBlockState(world, pos) : world.getBlockState(pos);
+   }
+
+   /**
+    * Returns whether the shapes the updated state at the position depends on
+    * only depend on the block states, so that it can be cached.
+    */
+   private boolean hasStaticBoundsAround(WorldView world, FluidFlowCache cache, BlockPos pos, BlockState state) {
+      if (state.getBlock().hasDynamicBounds()) {
+         return false;
+      } else {
+         for(int i = 0; i < DIRECTIONS.length; ++i) {
+            if (DIRECTIONS[i] != Direction.DOWN && cache.getBlockState(world, pos.offset(DIRECTIONS[i])).getBlock().hasDynamicBounds()) {
+               return false;
+            }
+         }
+
+         return true;
+      }
+   }
+
    private boolean receivesFlow(Direction face, BlockView world, BlockPos pos, BlockState state, BlockPos fromPos, BlockState fromState) {
       Object2ByteLinkedOpenHashMap object2ByteLinkedOpenHashMap2;
       if (!state.getBlock().hasDynamicBounds() && !fromState.getBlock().hasDynamicBounds()) {
@@ -305,6 +364,76 @@ public abstract class FlowableFluid extends Fluid {
       return j;
    }
 
+   /**
+    * Same as {@link #method_15742} for a world with a flow cache, which takes
+    * the place of the block states and holes remembered during one search.
+    */
+   private int getFlowSpeedBetween(WorldView world, FluidFlowCache cache, BlockPos pos, int i, Direction direction, BlockState state) {
+      int j = 1000;
+      Iterator var8 = Direction.Type.HORIZONTAL.iterator();
+
+      while(var8.hasNext()) {
+         Direction direction2 = (Direction)var8.next();
+         if (direction2 != direction) {
+            BlockPos blockPos = pos.offset(direction2);
+            BlockState blockState = cache.getBlockState(world, blockPos);
+            if (this.canFlowThrough(world, cache, pos, state, direction2, blockPos, blockState)) {
+               if (this.isHole(world, cache, blockPos, blockState)) {
+                  return i;
+               }
+
+               if (i < this.getFlowSpeed(world)) {
+                  int k = this.getFlowSpeedBetween(world, cache, blockPos, i + 1, direction2.getOpposite(), blockState);
+                  if (k < j) {
+                     j = k;
+                  }
+               }
+            }
+         }
+      }
+
+      return j;
+   }
+
+   /**
+    * Returns whether the flowing fluid can fall down from the position, like
+    * {@link #method_15736}, remembering the answer unless it depends on more
+    * than the block states.
+    */
+   private boolean isHole(WorldView world, FluidFlowCache cache, BlockPos pos, BlockState state) {
+      int i = cache.getHole(this.getFlowing(), pos);
+      if (i >= 0) {
+         return i != 0;
+      } else {
+         BlockPos blockPos = pos.down();
+         BlockState blockState = cache.getBlockState(world, blockPos);
+         boolean bl = this.method_15736(world, this.getFlowing(), pos, state, blockPos, blockState);
+         if (!state.getBlock().hasDynamicBounds() && !blockState.getBlock().hasDynamicBounds()) {
+            cache.putHole(this.getFlowing(), pos, bl);
+         }
+
+         return bl;
+      }
+   }
+
+   /**
+    * Same as {@link #canFlowThrough(BlockView, Fluid, BlockPos, BlockState,
+    * Direction, BlockPos, BlockState, FluidState)} for the flowing fluid,
+    * remembering the part that only depends on the block flowed into.
+    */
+   private boolean canFlowThrough(WorldView world, FluidFlowCache cache, BlockPos pos, BlockState state, Direction face, BlockPos fromPos, BlockState fromState) {
+      int i = cache.getPassable(this.getFlowing(), fromPos);
+      boolean bl;
+      if (i >= 0) {
+         bl = i != 0;
+      } else {
+         bl = !this.isMatchingAndStill(fromState.getFluidState()) && this.canFill(world, fromPos, fromState, this.getFlowing());
+         cache.putPassable(this.getFlowing(), fromPos, bl);
+      }
+
+      return bl && this.receivesFlow(face, world, pos, state, fromPos, fromState);
+   }
+
    private boolean method_15736(BlockView world, Fluid fluid, BlockPos pos, BlockState state, BlockPos fromPos, BlockState fromState) {
       if (!this.receivesFlow(Direction.DOWN, world, pos, state, fromPos, fromState)) {
          return false;
@@ -340,6 +469,63 @@ public abstract class FlowableFluid extends Fluid {
    }
 
    protected Map<Direction, FluidState> getSpread(WorldView world, BlockPos pos, BlockState state) {
+      FluidFlowCache fluidFlowCache = FluidFlowCache.get(world);
+      if (fluidFlowCache != null) {
+         Map<Direction, FluidState> map = Maps.newEnumMap(Direction.class);
+         FluidState[] fluidStates = fluidFlowCache.borrowSpread();
+         this.getSpread(world, fluidFlowCache, pos, state, fluidStates);
+
+         for(int i = 0; i < fluidStates.length; ++i) {
+            if (fluidStates[i] != null) {
+               map.put(DIRECTIONS[i], fluidStates[i]);
+            }
+         }
+
+         fluidFlowCache.releaseSpread(fluidStates);
+         return map;
+      } else {
+         return this.getUncachedSpread(world, pos, state);
+      }
+   }
+
+   /**
+    * Collects the states the fluid spreads with into the array, at the
+    * ordinals of the directions it spreads to, like {@link #getSpread(WorldView,
+    * BlockPos, BlockState)} without allocating a map.
+    */
+   private void getSpread(WorldView world, FluidFlowCache cache, BlockPos pos, BlockState state, FluidState[] spread) {
+      int i = 1000;
+      Arrays.fill(spread, (Object)null);
+      Iterator var7 = Direction.Type.HORIZONTAL.iterator();
+
+      while(var7.hasNext()) {
+         Direction direction = (Direction)var7.next();
+         BlockPos blockPos = pos.offset(direction);
+         BlockState blockState = cache.getBlockState(world, blockPos);
+         FluidState fluidState = blockState.getFluidState();
+         FluidState fluidState2 = this.getUpdatedState(world, blockPos, blockState);
+         if (this.canFlowThrough(world, fluidState2.getFluid(), pos, state, direction, blockPos, blockState, fluidState)) {
+            int k;
+            if (this.isHole(world, cache, blockPos, blockState)) {
+               k = 0;
+            } else {
+               k = this.getFlowSpeedBetween(world, cache, blockPos, 1, direction.getOpposite(), blockState);
+            }
+
+            if (k < i) {
+               Arrays.fill(spread, (Object)null);
+            }
+
+            if (k <= i) {
+               spread[direction.ordinal()] = fluidState2;
+               i = k;
+            }
+         }
+      }
+
+   }
+
+   private Map<Direction, FluidState> getUncachedSpread(WorldView world, BlockPos pos, BlockState state) {
       int i = 1000;
       Map<Direction, FluidState> map = Maps.newEnumMap(Direction.class);
       Short2ObjectMap<Pair<BlockState, FluidState>> short2ObjectMap = new Short2ObjectOpenHashMap();
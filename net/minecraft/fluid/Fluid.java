@@ -12,16 +12,18 @@ import net.minecraft.util.collection.IdList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.RawIdHolder;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldView;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class Fluid {
+public abstract class Fluid implements RawIdHolder {
    public static final IdList<FluidState> STATE_IDS = new IdList();
    protected final StateManager<Fluid, FluidState> stateManager;
    private FluidState defaultState;
+   private int cachedRawId = -1;
 
    protected Fluid() {
       StateManager.Builder<Fluid, FluidState> builder = new StateManager.Builder(this);
@@ -37,6 +39,14 @@ public abstract class Fluid {
       return this.stateManager;
    }
 
+   public int getCachedRawId() {
+      return this.cachedRawId;
+   }
+
+   public void setCachedRawId(int rawId) {
+      this.cachedRawId = rawId;
+   }
+
    protected final void setDefaultState(FluidState state) {
       this.defaultState = state;
    }
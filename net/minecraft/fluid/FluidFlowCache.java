@@ -0,0 +1,197 @@
+package net.minecraft.fluid;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.Arrays;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldView;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shares what {@link FlowableFluid} finds out about blocks while working out
+ * where fluids flow between the fluid ticks of a world in the same tick, as
+ * neighboring fluid ticks search mostly the same blocks.
+ *
+ * <p>The cache is only used between {@link #begin} and {@link #end}, on the
+ * thread that began it. It keeps the block state of each position looked at
+ * and, for each flowing fluid, whether the fluid can fall into a position,
+ * whether it can spread into it, and its {@linkplain
+ * FlowableFluid#getUpdatedState updated state} there. Entries are dropped as
+ * soon as a block they depend on changes, so fluids flow exactly as they
+ * would without the cache.
+ */
+public class FluidFlowCache {
+   private static final byte HOLE_KNOWN = 1;
+   private static final byte HOLE = 2;
+   private static final byte PASSABLE_KNOWN = 4;
+   private static final byte PASSABLE = 8;
+   private static final Direction[] DIRECTIONS = Direction.values();
+   private final Long2ObjectOpenHashMap<BlockState> states = new Long2ObjectOpenHashMap();
+   private final Reference2ObjectOpenHashMap<Fluid, FluidFlowCache.Entries> entries = new Reference2ObjectOpenHashMap();
+   private final FluidState[] spread = new FluidState[DIRECTIONS.length];
+   private boolean spreadInUse;
+   @Nullable
+   private Thread thread;
+   private int hits;
+   private int misses;
+
+   /**
+    * Returns the cache of the world if it is in use on the current thread,
+    * or {@code null} otherwise.
+    */
+   @Nullable
+   static FluidFlowCache get(WorldView world) {
+      if (world instanceof World) {
+         FluidFlowCache fluidFlowCache = ((World)world).getFluidFlowCache();
+         if (fluidFlowCache.thread == Thread.currentThread()) {
+            return fluidFlowCache;
+         }
+      }
+
+      return null;
+   }
+
+   public void begin() {
+      this.thread = Thread.currentThread();
+   }
+
+   public void end(Profiler profiler) {
+      this.thread = null;
+      this.states.clear();
+      this.entries.clear();
+      this.spreadInUse = false;
+      profiler.visit("fluidFlowCacheHits", this.hits);
+      profiler.visit("fluidFlowCacheMisses", this.misses);
+      this.hits = 0;
+      this.misses = 0;
+   }
+
+   public void onBlockChanged(BlockPos pos) {
+      if (this.thread == Thread.currentThread()) {
+         long l = pos.asLong();
+         this.states.remove(l);
+         ObjectIterator var4 = this.entries.values().iterator();
+
+         while(var4.hasNext()) {
+            FluidFlowCache.Entries entries = (FluidFlowCache.Entries)var4.next();
+            entries.flags.remove(l);
+            entries.flags.remove(BlockPos.offset(l, Direction.UP));
+            entries.updatedStates.remove(l);
+
+            for(int i = 0; i < DIRECTIONS.length; ++i) {
+               entries.updatedStates.remove(BlockPos.offset(l, DIRECTIONS[i]));
+            }
+         }
+      }
+
+   }
+
+   BlockState getBlockState(WorldView world, BlockPos pos) {
+      long l = pos.asLong();
+      BlockState blockState = (BlockState)this.states.get(l);
+      if (blockState == null) {
+         blockState = world.getBlockState(pos);
+         this.states.put(l, blockState);
+      }
+
+      return blockState;
+   }
+
+   private FluidFlowCache.Entries getEntries(Fluid fluid) {
+      return (FluidFlowCache.Entries)this.entries.computeIfAbsent(fluid, (fluidx) -> {
+         return new FluidFlowCache.Entries();
+      });
+   }
+
+   /**
+    * Returns {@code 1} if the fluid can fall into the position, {@code 0} if
+    * it cannot, or {@code -1} if that is not known yet.
+    */
+   int getHole(Fluid fluid, BlockPos pos) {
+      return this.getFlag(fluid, pos, HOLE_KNOWN, HOLE);
+   }
+
+   void putHole(Fluid fluid, BlockPos pos, boolean hole) {
+      this.putFlag(fluid, pos, HOLE_KNOWN, HOLE, hole);
+   }
+
+   /**
+    * Returns {@code 1} if the fluid can spread into the position, ignoring
+    * the shapes of the blocks it would spread between, {@code 0} if it
+    * cannot, or {@code -1} if that is not known yet.
+    */
+   int getPassable(Fluid fluid, BlockPos pos) {
+      return this.getFlag(fluid, pos, PASSABLE_KNOWN, PASSABLE);
+   }
+
+   void putPassable(Fluid fluid, BlockPos pos, boolean passable) {
+      this.putFlag(fluid, pos, PASSABLE_KNOWN, PASSABLE, passable);
+   }
+
+   private int getFlag(Fluid fluid, BlockPos pos, byte known, byte value) {
+      byte b = this.getEntries(fluid).flags.get(pos.asLong());
+      if ((b & known) == 0) {
+         ++this.misses;
+         return -1;
+      } else {
+         ++this.hits;
+         return (b & value) != 0 ? 1 : 0;
+      }
+   }
+
+   private void putFlag(Fluid fluid, BlockPos pos, byte known, byte value, boolean set) {
+      Long2ByteOpenHashMap long2ByteOpenHashMap = this.getEntries(fluid).flags;
+      long l = pos.asLong();
+      byte b = (byte)(long2ByteOpenHashMap.get(l) & ~value | known | (set ? value : 0));
+      long2ByteOpenHashMap.put(l, b);
+   }
+
+   @Nullable
+   FluidState getUpdatedState(Fluid fluid, BlockPos pos) {
+      FluidState fluidState = (FluidState)this.getEntries(fluid).updatedStates.get(pos.asLong());
+      if (fluidState == null) {
+         ++this.misses;
+      } else {
+         ++this.hits;
+      }
+
+      return fluidState;
+   }
+
+   void putUpdatedState(Fluid fluid, BlockPos pos, FluidState state) {
+      this.getEntries(fluid).updatedStates.put(pos.asLong(), state);
+   }
+
+   /**
+    * Returns an array to collect the spread of a fluid into, indexed by
+    * direction ordinal, which should be handed back with {@link
+    * #releaseSpread} once it is no longer used.
+    */
+   FluidState[] borrowSpread() {
+      if (this.spreadInUse) {
+         return new FluidState[DIRECTIONS.length];
+      } else {
+         this.spreadInUse = true;
+         return this.spread;
+      }
+   }
+
+   void releaseSpread(FluidState[] spread) {
+      if (spread == this.spread) {
+         Arrays.fill(spread, (Object)null);
+         this.spreadInUse = false;
+      }
+
+   }
+
+   static class Entries {
+      private final Long2ByteOpenHashMap flags = new Long2ByteOpenHashMap();
+      private final Long2ObjectOpenHashMap<FluidState> updatedStates = new Long2ObjectOpenHashMap();
+   }
+}
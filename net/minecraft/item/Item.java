@@ -36,12 +36,13 @@ import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.RawIdHolder;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.RaycastContext;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 
-public class Item implements ItemConvertible {
+public class Item implements ItemConvertible, RawIdHolder {
    public static final Map<Block, Item> BLOCK_ITEMS = Maps.newHashMap();
    protected static final UUID ATTACK_DAMAGE_MODIFIER_ID = UUID.fromString("CB3F55D3-645C-4F38-A497-9C13A33DB5CF");
    protected static final UUID ATTACK_SPEED_MODIFIER_ID = UUID.fromString("FA233E1C-4180-4865-B01B-BCCE9785ACA3");
@@ -56,6 +57,15 @@ public class Item implements ItemConvertible {
    private String translationKey;
    @Nullable
    private final FoodComponent foodComponent;
+   private int cachedRawId = -1;
+
+   public int getCachedRawId() {
+      return this.cachedRawId;
+   }
+
+   public void setCachedRawId(int rawId) {
+      this.cachedRawId = rawId;
+   }
 
    public static int getRawId(Item item) {
       return item == null ? 0 : Registry.ITEM.getRawId(item);
@@ -44,7 +44,7 @@ public class LightUpdateS2CPacket implements Packet<ClientPlayPacketListener> {
                this.filledSkyLightMask |= 1 << i;
             } else {
                this.skyLightMask |= 1 << i;
-               this.skyLightUpdates.add(chunkNibbleArray.asByteArray().clone());
+               this.skyLightUpdates.add(chunkNibbleArray.asReadOnlyByteArray().clone());
             }
          }
 
@@ -53,7 +53,7 @@ public class LightUpdateS2CPacket implements Packet<ClientPlayPacketListener> {
                this.filledBlockLightMask |= 1 << i;
             } else {
                this.blockLightMask |= 1 << i;
-               this.blockLightUpdates.add(chunkNibbleArray2.asByteArray().clone());
+               this.blockLightUpdates.add(chunkNibbleArray2.asReadOnlyByteArray().clone());
             }
          }
       }
@@ -74,7 +74,7 @@ public class LightUpdateS2CPacket implements Packet<ClientPlayPacketListener> {
          if ((this.skyLightMask & 1 << i) != 0) {
             chunkNibbleArray2 = lightProvider.get(LightType.SKY).getLightSection(ChunkSectionPos.from(pos, -1 + i));
             if (chunkNibbleArray2 != null && !chunkNibbleArray2.isUninitialized()) {
-               this.skyLightUpdates.add(chunkNibbleArray2.asByteArray().clone());
+               this.skyLightUpdates.add(chunkNibbleArray2.asReadOnlyByteArray().clone());
             } else {
                this.skyLightMask &= ~(1 << i);
                if (chunkNibbleArray2 != null) {
@@ -86,7 +86,7 @@ public class LightUpdateS2CPacket implements Packet<ClientPlayPacketListener> {
          if ((this.blockLightMask & 1 << i) != 0) {
             chunkNibbleArray2 = lightProvider.get(LightType.BLOCK).getLightSection(ChunkSectionPos.from(pos, -1 + i));
             if (chunkNibbleArray2 != null && !chunkNibbleArray2.isUninitialized()) {
-               this.blockLightUpdates.add(chunkNibbleArray2.asByteArray().clone());
+               this.blockLightUpdates.add(chunkNibbleArray2.asReadOnlyByteArray().clone());
             } else {
                this.blockLightMask &= ~(1 << i);
                if (chunkNibbleArray2 != null) {
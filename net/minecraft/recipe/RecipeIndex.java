@@ -0,0 +1,204 @@
+package net.minecraft.recipe;
+
+import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An index over the recipes of one recipe type, mapping the raw IDs of input
+ * items to the recipes that can possibly match an inventory containing them.
+ *
+ * <p>Only recipes of the vanilla shaped, shapeless, cooking and cutting
+ * classes are indexed, since their {@code matches} is known to require every
+ * ingredient to be present. Each of them is filed under the items of its most
+ * selective ingredient. Any other recipe, such as a {@link
+ * SpecialCraftingRecipe}, is a candidate for every inventory.
+ *
+ * <p>Candidates are always tested in the original recipe order, so lookups
+ * return the same recipe as a linear scan over all recipes.
+ */
+public class RecipeIndex<C extends Inventory> {
+   private static final Set<Class<?>> INDEXABLE_RECIPE_CLASSES = ImmutableSet.of(ShapedRecipe.class, ShapelessRecipe.class, SmeltingRecipe.class, BlastingRecipe.class, SmokingRecipe.class, CampfireCookingRecipe.class, new Class[]{StonecuttingRecipe.class});
+   private static final int[] EMPTY = new int[0];
+   private final Recipe<C>[] recipes;
+   private final Int2ObjectMap<int[]> candidatesByItem = new Int2ObjectOpenHashMap();
+   private final int[] unindexedCandidates;
+   private final Reference2IntMap<Recipe<C>> positions = new Reference2IntOpenHashMap();
+
+   public RecipeIndex(Collection<Recipe<C>> recipes) {
+      this.recipes = (Recipe[])recipes.toArray(new Recipe[0]);
+      this.positions.defaultReturnValue(-1);
+      Int2ObjectMap<IntList> int2ObjectMap = new Int2ObjectOpenHashMap();
+      IntList intList = new IntArrayList();
+
+      for(int i = 0; i < this.recipes.length; ++i) {
+         this.positions.put(this.recipes[i], i);
+         IntList intList2 = getKeyItemIds(this.recipes[i]);
+         if (intList2 == null) {
+            intList.add(i);
+         } else {
+            IntSet intSet = new IntOpenHashSet(intList2);
+            Iterator var7 = intSet.iterator();
+
+            while(var7.hasNext()) {
+               int j = (Integer)var7.next();
+               ((IntList)int2ObjectMap.computeIfAbsent(j, (k) -> {
+                  return new IntArrayList();
+               })).add(i);
+            }
+         }
+      }
+
+      int2ObjectMap.forEach((integer, intListx) -> {
+         this.candidatesByItem.put(integer, intListx.toIntArray());
+      });
+      this.unindexedCandidates = intList.toIntArray();
+   }
+
+   /**
+    * Returns the raw IDs of the items one of which must be present for the
+    * recipe to match, or {@code null} if the recipe cannot be indexed.
+    */
+   @Nullable
+   private static IntList getKeyItemIds(Recipe<?> recipe) {
+      if (!INDEXABLE_RECIPE_CLASSES.contains(recipe.getClass())) {
+         return null;
+      } else {
+         IntList intList = null;
+         Iterator var2 = recipe.getIngredients().iterator();
+
+         while(var2.hasNext()) {
+            Ingredient ingredient = (Ingredient)var2.next();
+            IntList intList2 = ingredient.getMatchingItemIds();
+            if (!intList2.isEmpty() && (intList == null || intList2.size() < intList.size())) {
+               intList = intList2;
+            }
+         }
+
+         return intList;
+      }
+   }
+
+   public <T extends Recipe<C>> Optional<T> getFirstMatch(RecipeType<T> type, C inventory, World world) {
+      int[] is = this.getCandidates(inventory);
+      int i = -1;
+
+      for(int j = 0; j < is.length; ++j) {
+         int k = is[j];
+         if (k != i) {
+            i = k;
+            Optional<T> optional = type.get(this.recipes[k], world, inventory);
+            if (optional.isPresent()) {
+               return optional;
+            }
+         }
+      }
+
+      return Optional.empty();
+   }
+
+   public <T extends Recipe<C>> void forEachMatch(RecipeType<T> type, C inventory, World world, Consumer<T> consumer) {
+      int[] is = this.getCandidates(inventory);
+      int i = -1;
+
+      for(int j = 0; j < is.length; ++j) {
+         int k = is[j];
+         if (k != i) {
+            i = k;
+            type.get(this.recipes[k], world, inventory).ifPresent(consumer);
+         }
+      }
+
+   }
+
+   /**
+    * Returns whether the recipe is the first candidate for the inventory, so
+    * that no other recipe can be an earlier match if it matches.
+    */
+   public boolean isFirstCandidate(Recipe<C> recipe, C inventory) {
+      int i = this.positions.getInt(recipe);
+      if (i < 0) {
+         return false;
+      } else if (this.unindexedCandidates.length > 0 && this.unindexedCandidates[0] < i) {
+         return false;
+      } else {
+         for(int j = 0; j < inventory.size(); ++j) {
+            ItemStack itemStack = inventory.getStack(j);
+            if (!itemStack.isEmpty()) {
+               int[] is = (int[])this.candidatesByItem.getOrDefault(RecipeMatcher.getItemId(itemStack), EMPTY);
+               if (is.length > 0 && is[0] < i) {
+                  return false;
+               }
+            }
+         }
+
+         return true;
+      }
+   }
+
+   /**
+    * Returns the sorted indices of the recipes that may match the inventory.
+    * The returned array may contain duplicates next to each other.
+    */
+   private int[] getCandidates(C inventory) {
+      int i = inventory.size();
+      int[] is = new int[i];
+      int j = 0;
+      int k = this.unindexedCandidates.length;
+
+      int l;
+      for(l = 0; l < i; ++l) {
+         ItemStack itemStack = inventory.getStack(l);
+         if (!itemStack.isEmpty()) {
+            int m = RecipeMatcher.getItemId(itemStack);
+            if (!contains(is, j, m)) {
+               is[j++] = m;
+               k += ((int[])this.candidatesByItem.getOrDefault(m, EMPTY)).length;
+            }
+         }
+      }
+
+      if (k == 0) {
+         return EMPTY;
+      } else {
+         int[] js = new int[k];
+         System.arraycopy(this.unindexedCandidates, 0, js, 0, this.unindexedCandidates.length);
+         int n = this.unindexedCandidates.length;
+
+         for(l = 0; l < j; ++l) {
+            int[] ks = (int[])this.candidatesByItem.getOrDefault(is[l], EMPTY);
+            System.arraycopy(ks, 0, js, n, ks.length);
+            n += ks.length;
+         }
+
+         Arrays.sort(js);
+         return js;
+      }
+   }
+
+   private static boolean contains(int[] array, int length, int value) {
+      for(int i = 0; i < length; ++i) {
+         if (array[i] == value) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+}
@@ -1,6 +1,7 @@
 package net.minecraft.recipe;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.gson.Gson;
@@ -9,6 +10,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.mojang.datafixers.util.Pair;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -35,11 +37,13 @@ import net.minecraft.util.registry.Registry;
 import net.minecraft.world.World;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 public class RecipeManager extends JsonDataLoader {
    private static final Gson GSON = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
    private static final Logger LOGGER = LogManager.getLogger();
    private Map<RecipeType<?>, Map<Identifier, Recipe<?>>> recipes = ImmutableMap.of();
+   private Map<RecipeType<?>, RecipeIndex<?>> indices = ImmutableMap.of();
    private boolean errored;
 
    public RecipeManager() {
@@ -68,13 +72,49 @@ public class RecipeManager extends JsonDataLoader {
       this.recipes = (Map)map2.entrySet().stream().collect(ImmutableMap.toImmutableMap(Entry::getKey, (entryx) -> {
          return ((Builder)entryx.getValue()).build();
       }));
+      this.buildIndices();
       LOGGER.info((String)"Loaded {} recipes", (Object)map2.size());
    }
 
+   private void buildIndices() {
+      long l = Util.getMeasuringTimeNano();
+      this.indices = (Map)this.recipes.entrySet().stream().collect(ImmutableMap.toImmutableMap(Entry::getKey, (entry) -> {
+         return new RecipeIndex(((Map)entry.getValue()).values());
+      }));
+      LOGGER.debug((String)"Indexed recipes in {} ms", (Object)((Util.getMeasuringTimeNano() - l) / 1000000L));
+   }
+
    public <C extends Inventory, T extends Recipe<C>> Optional<T> getFirstMatch(RecipeType<T> type, C inventory, World world) {
-      return this.getAllOfType(type).values().stream().flatMap((recipe) -> {
-         return Util.stream(type.get(recipe, world, inventory));
-      }).findFirst();
+      RecipeIndex<C> recipeIndex = this.getIndex(type);
+      return recipeIndex == null ? Optional.empty() : recipeIndex.getFirstMatch(type, inventory, world);
+   }
+
+   /**
+    * Finds the first recipe matching the inventory, trying the recipe with the
+    * given ID first if no other recipe comes before it. Callers that match the
+    * same inventory repeatedly, such as furnaces, pass the ID returned by their
+    * previous lookup.
+    */
+   public <C extends Inventory, T extends Recipe<C>> Optional<Pair<Identifier, T>> getFirstMatch(RecipeType<T> type, C inventory, World world, @Nullable Identifier id) {
+      RecipeIndex<C> recipeIndex = this.getIndex(type);
+      if (id != null && recipeIndex != null) {
+         Recipe<C> recipe = (Recipe)this.getAllOfType(type).get(id);
+         if (recipe != null && recipeIndex.isFirstCandidate(recipe, inventory)) {
+            Optional<T> optional = type.get(recipe, world, inventory);
+            if (optional.isPresent()) {
+               return Optional.of(Pair.of(id, optional.get()));
+            }
+         }
+      }
+
+      return this.getFirstMatch(type, inventory, world).map((recipex) -> {
+         return Pair.of(recipex.getId(), recipex);
+      });
+   }
+
+   @Nullable
+   private <C extends Inventory, T extends Recipe<C>> RecipeIndex<C> getIndex(RecipeType<T> type) {
+      return (RecipeIndex)this.indices.get(type);
    }
 
    /**
@@ -88,11 +128,17 @@ public class RecipeManager extends JsonDataLoader {
    }
 
    public <C extends Inventory, T extends Recipe<C>> List<T> getAllMatches(RecipeType<T> type, C inventory, World world) {
-      return (List)this.getAllOfType(type).values().stream().flatMap((recipe) -> {
-         return Util.stream(type.get(recipe, world, inventory));
-      }).sorted(Comparator.comparing((recipe) -> {
-         return recipe.getOutput().getTranslationKey();
-      })).collect(Collectors.toList());
+      RecipeIndex<C> recipeIndex = this.getIndex(type);
+      if (recipeIndex == null) {
+         return Lists.newArrayList();
+      } else {
+         List<T> list = Lists.newArrayList();
+         recipeIndex.forEachMatch(type, inventory, world, list::add);
+         list.sort(Comparator.comparing((recipe) -> {
+            return recipe.getOutput().getTranslationKey();
+         }));
+         return list;
+      }
    }
 
    private <C extends Inventory, T extends Recipe<C>> Map<Identifier, Recipe<C>> getAllOfType(RecipeType<T> type) {
@@ -153,5 +199,6 @@ public class RecipeManager extends JsonDataLoader {
          }
       });
       this.recipes = ImmutableMap.copyOf((Map)map);
+      this.buildIndices();
    }
 }
@@ -7,6 +7,9 @@ import com.mojang.brigadier.builder.RequiredArgumentBuilder;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.Dynamic2CommandExceptionType;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
@@ -18,11 +21,17 @@ import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.argument.BlockPosArgumentType;
 import net.minecraft.command.argument.BlockPredicateArgumentType;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.BlockEditJob;
+import net.minecraft.server.world.BlockEditJobManager;
+import net.minecraft.server.world.BulkBlockWriter;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Clearable;
 import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import org.jetbrains.annotations.Nullable;
 
 public class CloneCommand {
@@ -84,9 +93,15 @@ public class CloneCommand {
       if (!mode.allowsOverlap() && blockBox2.intersects(blockBox)) {
          throw OVERLAP_EXCEPTION.create();
       } else {
-         int i = blockBox.getBlockCountX() * blockBox.getBlockCountY() * blockBox.getBlockCountZ();
-         if (i > 32768) {
-            throw TOO_BIG_EXCEPTION.create(32768, i);
+         long l = (long)blockBox.getBlockCountX() * (long)blockBox.getBlockCountY() * (long)blockBox.getBlockCountZ();
+         if (l > (long)BlockEditJobManager.MAX_VOLUME) {
+            throw TOO_BIG_EXCEPTION.create(BlockEditJobManager.MAX_VOLUME, l);
+         } else if (l > 32768L) {
+            ServerWorld serverWorld2 = source.getWorld();
+            BlockEditJob blockEditJob = new CloneCommand.Job(serverWorld2, source, blockBox, blockBox2, filter, mode, l);
+            serverWorld2.getBlockEditJobManager().submit(blockEditJob);
+            source.sendFeedback(blockEditJob.getQueuedText(l), true);
+            return (int)l;
          } else {
             ServerWorld serverWorld = source.getWorld();
             if (serverWorld.isRegionLoaded(begin, end) && serverWorld.isRegionLoaded(destination, blockPos)) {
@@ -212,6 +227,305 @@ public class CloneCommand {
       }
    }
 
+   static class ChunkBlocks {
+      private final List<CloneCommand.BlockInfo> solidBlocks = Lists.newArrayList();
+      private final List<CloneCommand.BlockInfo> blockEntities = Lists.newArrayList();
+      private final List<CloneCommand.BlockInfo> otherBlocks = Lists.newArrayList();
+   }
+
+   /**
+    * Clones a region chunk by chunk, reading each destination chunk's blocks
+    * from the source right before writing them.
+    *
+    * <p>Only the source sections that intersect the destination are copied
+    * ahead, in a first pass, as writing the destination may overwrite them;
+    * the rest of the source is left alone until it is read. When moving, the
+    * source blocks inside the destination are cleared right before their
+    * chunk is written, and the others in a last pass, after the whole
+    * destination was written rather than before.
+    */
+   static class Job extends BlockEditJob {
+      private static final int BUFFER_PASS = 0;
+      private static final int PASTE_PASS = 1;
+      private static final int CLEAR_PASS = 2;
+      private final BlockBox sourceBox;
+      private final BlockBox destinationBox;
+      @Nullable
+      private final BlockBox bufferBox;
+      private final BlockPos offset;
+      private final Predicate<CachedBlockPosition> filter;
+      private final CloneCommand.Mode mode;
+      private final Long2ObjectMap<CloneCommand.ChunkBlocks> bufferedBlocks = new Long2ObjectOpenHashMap();
+      private final Long2ObjectMap<Deque<BlockPos>> movedPositions = new Long2ObjectOpenHashMap();
+
+      private Job(ServerWorld world, ServerCommandSource source, BlockBox sourceBox, BlockBox destinationBox, Predicate<CachedBlockPosition> filter, CloneCommand.Mode mode, long volume) {
+         super(world, source, createPasses(sourceBox, destinationBox, mode), BlockEditJobManager.keepsSnapshots(mode == CloneCommand.Mode.MOVE ? volume * 2L : volume));
+         this.sourceBox = sourceBox;
+         this.destinationBox = destinationBox;
+         this.bufferBox = getBufferBox(sourceBox, destinationBox);
+         this.offset = new BlockPos(destinationBox.minX - sourceBox.minX, destinationBox.minY - sourceBox.minY, destinationBox.minZ - sourceBox.minZ);
+         this.filter = filter;
+         this.mode = mode;
+      }
+
+      /**
+       * Returns the part of the source within the chunk sections the
+       * destination intersects, or {@code null} if there is none.
+       */
+      @Nullable
+      private static BlockBox getBufferBox(BlockBox sourceBox, BlockBox destinationBox) {
+         int i = Math.max(sourceBox.minX, destinationBox.minX & -16);
+         int j = Math.max(sourceBox.minY, destinationBox.minY & -16);
+         int k = Math.max(sourceBox.minZ, destinationBox.minZ & -16);
+         int l = Math.min(sourceBox.maxX, destinationBox.maxX | 15);
+         int m = Math.min(sourceBox.maxY, destinationBox.maxY | 15);
+         int n = Math.min(sourceBox.maxZ, destinationBox.maxZ | 15);
+         return i <= l && j <= m && k <= n ? new BlockBox(i, j, k, l, m, n) : null;
+      }
+
+      private static List<LongList> createPasses(BlockBox sourceBox, BlockBox destinationBox, CloneCommand.Mode mode) {
+         List<LongList> list = Lists.newArrayList();
+         BlockBox blockBox = getBufferBox(sourceBox, destinationBox);
+         if (blockBox != null) {
+            list.add(BlockEditJob.getChunks(blockBox));
+         }
+
+         list.add(BlockEditJob.getChunks(destinationBox));
+         if (mode == CloneCommand.Mode.MOVE) {
+            list.add(BlockEditJob.getChunks(sourceBox));
+         }
+
+         return list;
+      }
+
+      private int getPassType(int pass) {
+         return this.bufferBox == null ? pass + 1 : pass;
+      }
+
+      /**
+       * Writing a destination chunk also reads the source chunks its blocks
+       * come from.
+       */
+      protected LongList getRequiredChunks(int pass, long chunkPos) {
+         if (this.getPassType(pass) != PASTE_PASS) {
+            return super.getRequiredChunks(pass, chunkPos);
+         } else {
+            BlockBox blockBox = clampToChunk(this.destinationBox, ChunkPos.getPackedX(chunkPos), ChunkPos.getPackedZ(chunkPos));
+            LongList longList = BlockEditJob.getChunks(new BlockBox(blockBox.minX - this.offset.getX(), blockBox.minY - this.offset.getY(), blockBox.minZ - this.offset.getZ(), blockBox.maxX - this.offset.getX(), blockBox.maxY - this.offset.getY(), blockBox.maxZ - this.offset.getZ()));
+            if (!longList.contains(chunkPos)) {
+               longList.add(chunkPos);
+            }
+
+            return longList;
+         }
+      }
+
+      protected void processChunk(int pass, int chunkX, int chunkZ) {
+         int i = this.getPassType(pass);
+         if (i == BUFFER_PASS) {
+            this.buffer(chunkX, chunkZ);
+         } else if (i == PASTE_PASS) {
+            this.paste(chunkX, chunkZ);
+         } else {
+            this.clearSource(chunkX, chunkZ);
+         }
+
+      }
+
+      /**
+       * Copies the block at a source position into the blocks to paste, if it
+       * passes the filter, and returns the list it was added to, or {@code
+       * null} if it was not.
+       */
+      @Nullable
+      private List<CloneCommand.BlockInfo> copy(BlockPos pos, CloneCommand.ChunkBlocks chunkBlocks) {
+         CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(this.world, pos, false);
+         BlockState blockState = cachedBlockPosition.getBlockState();
+         if (!this.filter.test(cachedBlockPosition)) {
+            return null;
+         } else {
+            BlockPos blockPos = pos.add(this.offset);
+            BlockEntity blockEntity = this.world.getBlockEntity(pos);
+            if (blockEntity != null) {
+               chunkBlocks.blockEntities.add(new CloneCommand.BlockInfo(blockPos, blockState, blockEntity.writeNbt(new NbtCompound())));
+               return chunkBlocks.blockEntities;
+            } else if (!blockState.isOpaqueFullCube(this.world, pos) && !blockState.isFullCube(this.world, pos)) {
+               chunkBlocks.otherBlocks.add(new CloneCommand.BlockInfo(blockPos, blockState, (NbtCompound)null));
+               return chunkBlocks.otherBlocks;
+            } else {
+               chunkBlocks.solidBlocks.add(new CloneCommand.BlockInfo(blockPos, blockState, (NbtCompound)null));
+               return chunkBlocks.solidBlocks;
+            }
+         }
+      }
+
+      private void buffer(int chunkX, int chunkZ) {
+         BlockBox blockBox = clampToChunk(this.bufferBox, chunkX, chunkZ);
+
+         for(int i = blockBox.minZ; i <= blockBox.maxZ; ++i) {
+            for(int j = blockBox.minY; j <= blockBox.maxY; ++j) {
+               for(int k = blockBox.minX; k <= blockBox.maxX; ++k) {
+                  BlockPos blockPos = new BlockPos(k, j, i);
+                  BlockPos blockPos2 = blockPos.add(this.offset);
+                  CloneCommand.ChunkBlocks chunkBlocks = (CloneCommand.ChunkBlocks)this.bufferedBlocks.computeIfAbsent(ChunkPos.toLong(blockPos2.getX() >> 4, blockPos2.getZ() >> 4), (l) -> {
+                     return new CloneCommand.ChunkBlocks();
+                  });
+                  List<CloneCommand.BlockInfo> list = this.copy(blockPos, chunkBlocks);
+                  if (list != null && this.mode == CloneCommand.Mode.MOVE && this.destinationBox.contains(blockPos)) {
+                     Deque<BlockPos> deque = (Deque)this.movedPositions.computeIfAbsent(ChunkPos.toLong(blockPos.getX() >> 4, blockPos.getZ() >> 4), (l) -> {
+                        return Lists.newLinkedList();
+                     });
+                     if (list == chunkBlocks.otherBlocks) {
+                        deque.addFirst(blockPos);
+                     } else {
+                        deque.addLast(blockPos);
+                     }
+                  }
+               }
+            }
+         }
+
+      }
+
+      private void clearSource(int chunkX, int chunkZ) {
+         BlockBox blockBox = clampToChunk(this.sourceBox, chunkX, chunkZ);
+         Deque<BlockPos> deque = Lists.newLinkedList();
+
+         for(int i = blockBox.minZ; i <= blockBox.maxZ; ++i) {
+            for(int j = blockBox.minY; j <= blockBox.maxY; ++j) {
+               for(int k = blockBox.minX; k <= blockBox.maxX; ++k) {
+                  BlockPos blockPos = new BlockPos(k, j, i);
+                  if (!this.destinationBox.contains(blockPos)) {
+                     CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(this.world, blockPos, false);
+                     BlockState blockState = cachedBlockPosition.getBlockState();
+                     if (this.filter.test(cachedBlockPosition)) {
+                        if (this.world.getBlockEntity(blockPos) == null && !blockState.isOpaqueFullCube(this.world, blockPos) && !blockState.isFullCube(this.world, blockPos)) {
+                           deque.addFirst(blockPos);
+                        } else {
+                           deque.addLast(blockPos);
+                        }
+                     }
+                  }
+               }
+            }
+         }
+
+         this.clear(deque);
+      }
+
+      private void clear(Deque<BlockPos> positions) {
+         if (!positions.isEmpty()) {
+            BulkBlockWriter bulkBlockWriter = new BulkBlockWriter(this.world);
+            List<BlockPos> list = Lists.newArrayList();
+            Iterator var4 = positions.iterator();
+
+            BlockPos blockPos;
+            while(var4.hasNext()) {
+               blockPos = (BlockPos)var4.next();
+               this.record(blockPos);
+               Clearable.clear(this.world.getBlockEntity(blockPos));
+               bulkBlockWriter.setInOrder(blockPos, Blocks.BARRIER.getDefaultState(), 2, list);
+            }
+
+            bulkBlockWriter.apply(2);
+            var4 = positions.iterator();
+
+            while(var4.hasNext()) {
+               blockPos = (BlockPos)var4.next();
+               bulkBlockWriter.setInOrder(blockPos, Blocks.AIR.getDefaultState(), 3, list);
+            }
+
+            bulkBlockWriter.apply(3);
+         }
+      }
+
+      private void paste(int chunkX, int chunkZ) {
+         long l = ChunkPos.toLong(chunkX, chunkZ);
+         CloneCommand.ChunkBlocks chunkBlocks = (CloneCommand.ChunkBlocks)this.bufferedBlocks.remove(l);
+         if (chunkBlocks == null) {
+            chunkBlocks = new CloneCommand.ChunkBlocks();
+         }
+
+         BlockBox blockBox = clampToChunk(this.destinationBox, chunkX, chunkZ);
+
+         for(int i = blockBox.minZ; i <= blockBox.maxZ; ++i) {
+            for(int j = blockBox.minY; j <= blockBox.maxY; ++j) {
+               for(int k = blockBox.minX; k <= blockBox.maxX; ++k) {
+                  BlockPos blockPos = new BlockPos(k - this.offset.getX(), j - this.offset.getY(), i - this.offset.getZ());
+                  if (this.bufferBox == null || !this.bufferBox.contains(blockPos)) {
+                     this.copy(blockPos, chunkBlocks);
+                  }
+               }
+            }
+         }
+
+         Deque<BlockPos> deque = (Deque)this.movedPositions.remove(l);
+         if (deque != null) {
+            this.clear(deque);
+         }
+
+         List<CloneCommand.BlockInfo> list = Lists.newArrayList();
+         list.addAll(chunkBlocks.solidBlocks);
+         list.addAll(chunkBlocks.blockEntities);
+         list.addAll(chunkBlocks.otherBlocks);
+         List<CloneCommand.BlockInfo> list2 = Lists.reverse(list);
+         BulkBlockWriter bulkBlockWriter = new BulkBlockWriter(this.world);
+         List<BlockPos> list3 = Lists.newArrayList();
+
+         int m;
+         CloneCommand.BlockInfo blockInfo;
+         for(m = 0; m < list2.size(); ++m) {
+            blockInfo = (CloneCommand.BlockInfo)list2.get(m);
+            this.record(blockInfo.pos);
+            Clearable.clear(this.world.getBlockEntity(blockInfo.pos));
+            bulkBlockWriter.setInOrder(blockInfo.pos, Blocks.BARRIER.getDefaultState(), 2, list3);
+         }
+
+         bulkBlockWriter.apply(2);
+         list3.clear();
+
+         for(m = 0; m < list.size(); ++m) {
+            blockInfo = (CloneCommand.BlockInfo)list.get(m);
+            bulkBlockWriter.setInOrder(blockInfo.pos, blockInfo.state, 2, list3);
+         }
+
+         list3.addAll(bulkBlockWriter.apply(2));
+         this.changedBlocks += list3.size();
+
+         for(m = 0; m < chunkBlocks.blockEntities.size(); ++m) {
+            blockInfo = (CloneCommand.BlockInfo)chunkBlocks.blockEntities.get(m);
+            BlockEntity blockEntity = this.world.getBlockEntity(blockInfo.pos);
+            if (blockInfo.blockEntityTag != null && blockEntity != null) {
+               blockInfo.blockEntityTag.putInt("x", blockInfo.pos.getX());
+               blockInfo.blockEntityTag.putInt("y", blockInfo.pos.getY());
+               blockInfo.blockEntityTag.putInt("z", blockInfo.pos.getZ());
+               blockEntity.fromTag(blockInfo.state, blockInfo.blockEntityTag);
+               blockEntity.markDirty();
+            }
+         }
+
+         for(m = 0; m < list2.size(); ++m) {
+            blockInfo = (CloneCommand.BlockInfo)list2.get(m);
+            this.world.updateNeighbors(blockInfo.pos, blockInfo.state.getBlock());
+         }
+
+      }
+
+      protected void onFinished() {
+         this.world.getBlockTickScheduler().copyScheduledTicks(this.sourceBox, this.offset);
+         if (this.changedBlocks == 0) {
+            this.source.sendError(new TranslatableText("commands.clone.failed"));
+         } else {
+            this.source.sendFeedback(new TranslatableText("commands.clone.success", new Object[]{this.changedBlocks}), true);
+         }
+
+      }
+
+      public Text getDescription() {
+         return new LiteralText("Clone from " + this.sourceBox.minX + " " + this.sourceBox.minY + " " + this.sourceBox.minZ + " to " + this.sourceBox.maxX + " " + this.sourceBox.maxY + " " + this.sourceBox.maxZ + " at " + this.destinationBox.minX + " " + this.destinationBox.minY + " " + this.destinationBox.minZ);
+      }
+   }
+
    static enum Mode {
       FORCE(true),
       MOVE(true),
@@ -65,6 +65,7 @@ public class CommandManager {
       DebugCommand.register(this.dispatcher);
       DefaultGameModeCommand.register(this.dispatcher);
       DifficultyCommand.register(this.dispatcher);
+      EditJobCommand.register(this.dispatcher);
       EffectCommand.register(this.dispatcher);
       MeCommand.register(this.dispatcher);
       EnchantCommand.register(this.dispatcher);
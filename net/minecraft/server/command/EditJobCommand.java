@@ -0,0 +1,68 @@
+package net.minecraft.server.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import java.util.Collection;
+import java.util.Iterator;
+import net.minecraft.server.world.BlockEditJob;
+import net.minecraft.text.LiteralText;
+
+public class EditJobCommand {
+   private static final DynamicCommandExceptionType UNKNOWN_EXCEPTION = new DynamicCommandExceptionType((object) -> {
+      return new LiteralText("There is no edit job " + object);
+   });
+   private static final DynamicCommandExceptionType UNDO_FAILED_EXCEPTION = new DynamicCommandExceptionType((object) -> {
+      return new LiteralText("Edit job " + object + " cannot be undone");
+   });
+
+   public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+      dispatcher.register((LiteralArgumentBuilder)((LiteralArgumentBuilder)((LiteralArgumentBuilder)((LiteralArgumentBuilder)CommandManager.literal("editjob").requires((serverCommandSource) -> {
+         return serverCommandSource.hasPermissionLevel(2);
+      })).then(CommandManager.literal("list").executes((commandContext) -> {
+         return executeList((ServerCommandSource)commandContext.getSource());
+      }))).then(CommandManager.literal("cancel").then(CommandManager.argument("id", IntegerArgumentType.integer(1)).executes((commandContext) -> {
+         return executeCancel((ServerCommandSource)commandContext.getSource(), IntegerArgumentType.getInteger(commandContext, "id"));
+      })))).then(CommandManager.literal("undo").then(CommandManager.argument("id", IntegerArgumentType.integer(1)).executes((commandContext) -> {
+         return executeUndo((ServerCommandSource)commandContext.getSource(), IntegerArgumentType.getInteger(commandContext, "id"));
+      }))));
+   }
+
+   private static int executeList(ServerCommandSource source) {
+      Collection<BlockEditJob> collection = source.getWorld().getBlockEditJobManager().getJobs();
+      if (collection.isEmpty()) {
+         source.sendFeedback(new LiteralText("There are no edit jobs"), false);
+      } else {
+         Iterator var2 = collection.iterator();
+
+         while(var2.hasNext()) {
+            BlockEditJob blockEditJob = (BlockEditJob)var2.next();
+            source.sendFeedback((new LiteralText(blockEditJob.getId() + ": ")).append(blockEditJob.getDescription()).append(" (" + blockEditJob.getProgress() + "%)"), false);
+         }
+      }
+
+      return collection.size();
+   }
+
+   private static int executeCancel(ServerCommandSource source, int id) throws CommandSyntaxException {
+      BlockEditJob blockEditJob = source.getWorld().getBlockEditJobManager().cancel(id);
+      if (blockEditJob == null) {
+         throw UNKNOWN_EXCEPTION.create(id);
+      } else {
+         source.sendFeedback(new LiteralText("Cancelled edit job " + id + " after changing " + blockEditJob.getChangedBlocks() + " blocks"), true);
+         return blockEditJob.getChangedBlocks();
+      }
+   }
+
+   private static int executeUndo(ServerCommandSource source, int id) throws CommandSyntaxException {
+      BlockEditJob blockEditJob = source.getWorld().getBlockEditJobManager().undo(id, source);
+      if (blockEditJob == null) {
+         throw UNDO_FAILED_EXCEPTION.create(id);
+      } else {
+         source.sendFeedback(new LiteralText("Undoing edit job " + id + " as edit job " + blockEditJob.getId()), true);
+         return blockEditJob.getId();
+      }
+   }
+}
@@ -20,7 +20,13 @@ import net.minecraft.command.argument.BlockPredicateArgumentType;
 import net.minecraft.command.argument.BlockStateArgument;
 import net.minecraft.command.argument.BlockStateArgumentType;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.BlockEditJob;
+import net.minecraft.server.world.BlockEditJobManager;
+import net.minecraft.server.world.BlockEditSnapshot;
+import net.minecraft.server.world.BulkBlockWriter;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Clearable;
 import net.minecraft.util.math.BlockBox;
@@ -57,49 +63,75 @@ public class FillCommand {
    }
 
    private static int execute(ServerCommandSource source, BlockBox range, BlockStateArgument block, FillCommand.Mode mode, @Nullable Predicate<CachedBlockPosition> filter) throws CommandSyntaxException {
-      int i = range.getBlockCountX() * range.getBlockCountY() * range.getBlockCountZ();
-      if (i > 32768) {
-         throw TOO_BIG_EXCEPTION.create(32768, i);
+      long l = (long)range.getBlockCountX() * (long)range.getBlockCountY() * (long)range.getBlockCountZ();
+      ServerWorld serverWorld = source.getWorld();
+      if (l > 32768L) {
+         if (l > (long)BlockEditJobManager.MAX_VOLUME) {
+            throw TOO_BIG_EXCEPTION.create(BlockEditJobManager.MAX_VOLUME, l);
+         } else {
+            BlockEditJob blockEditJob = new FillCommand.Job(serverWorld, source, range, block, mode, filter, l);
+            serverWorld.getBlockEditJobManager().submit(blockEditJob);
+            source.sendFeedback(blockEditJob.getQueuedText(l), true);
+            return (int)l;
+         }
       } else {
-         List<BlockPos> list = Lists.newArrayList();
-         ServerWorld serverWorld = source.getWorld();
-         int j = 0;
-         Iterator var9 = BlockPos.iterate(range.minX, range.minY, range.minZ, range.maxX, range.maxY, range.maxZ).iterator();
-
-         while(true) {
-            BlockPos blockPos;
-            do {
-               if (!var9.hasNext()) {
-                  var9 = list.iterator();
-
-                  while(var9.hasNext()) {
-                     blockPos = (BlockPos)var9.next();
-                     Block block2 = serverWorld.getBlockState(blockPos).getBlock();
-                     serverWorld.updateNeighbors(blockPos, block2);
-                  }
+         List<BlockPos> list = fill(serverWorld, range, range, block, mode, filter, (BlockEditSnapshot)null);
+         if (list.isEmpty()) {
+            throw FAILED_EXCEPTION.create();
+         } else {
+            source.sendFeedback(new TranslatableText("commands.fill.success", new Object[]{list.size()}), true);
+            return list.size();
+         }
+      }
+   }
 
-                  if (j == 0) {
-                     throw FAILED_EXCEPTION.create();
-                  }
+   /**
+    * Fills the part of the range inside the region, and returns the positions
+    * that changed.
+    */
+   private static List<BlockPos> fill(ServerWorld world, BlockBox range, BlockBox region, BlockStateArgument block, FillCommand.Mode mode, @Nullable Predicate<CachedBlockPosition> filter, @Nullable BlockEditSnapshot snapshot) {
+      List<BlockPos> list = Lists.newArrayList();
+      BulkBlockWriter bulkBlockWriter = mode != FillCommand.Mode.DESTROY && BulkBlockWriter.canWriteInBulk(block.getBlockState()) ? new BulkBlockWriter(world) : null;
+      Iterator var9 = BlockPos.iterate(region.minX, region.minY, region.minZ, region.maxX, region.maxY, region.maxZ).iterator();
 
-                  source.sendFeedback(new TranslatableText("commands.fill.success", new Object[]{j}), true);
-                  return j;
+      BlockPos blockPos;
+      while(var9.hasNext()) {
+         blockPos = (BlockPos)var9.next();
+         if (filter == null || filter.test(new CachedBlockPosition(world, blockPos, true))) {
+            BlockStateArgument blockStateArgument = mode.filter.filter(range, blockPos, block, world);
+            if (blockStateArgument != null) {
+               if (snapshot != null) {
+                  snapshot.record(world, blockPos);
                }
 
-               blockPos = (BlockPos)var9.next();
-            } while(filter != null && !filter.test(new CachedBlockPosition(serverWorld, blockPos, true)));
+               if (bulkBlockWriter != null && BulkBlockWriter.canWriteInBulk(world.getBlockState(blockPos))) {
+                  bulkBlockWriter.set(blockPos.toImmutable(), blockStateArgument.getPlacementState(world, blockPos));
+               } else {
+                  if (bulkBlockWriter != null && !bulkBlockWriter.isEmpty()) {
+                     list.addAll(bulkBlockWriter.apply(2));
+                  }
 
-            BlockStateArgument blockStateArgument = mode.filter.filter(range, blockPos, block, serverWorld);
-            if (blockStateArgument != null) {
-               BlockEntity blockEntity = serverWorld.getBlockEntity(blockPos);
-               Clearable.clear(blockEntity);
-               if (blockStateArgument.setBlockState(serverWorld, blockPos, 2)) {
-                  list.add(blockPos.toImmutable());
-                  ++j;
+                  BlockEntity blockEntity = world.getBlockEntity(blockPos);
+                  Clearable.clear(blockEntity);
+                  if (blockStateArgument.setBlockState(world, blockPos, 2)) {
+                     list.add(blockPos.toImmutable());
+                  }
                }
             }
          }
       }
+
+      if (bulkBlockWriter != null) {
+         list.addAll(bulkBlockWriter.apply(2));
+      }
+
+      for(int j = 0; j < list.size(); ++j) {
+         blockPos = (BlockPos)list.get(j);
+         Block block2 = world.getBlockState(blockPos).getBlock();
+         world.updateNeighbors(blockPos, block2);
+      }
+
+      return list;
    }
 
    static {
@@ -107,6 +139,39 @@ public class FillCommand {
       FAILED_EXCEPTION = new SimpleCommandExceptionType(new TranslatableText("commands.fill.failed"));
    }
 
+   static class Job extends BlockEditJob {
+      private final BlockBox range;
+      private final BlockStateArgument block;
+      private final FillCommand.Mode mode;
+      @Nullable
+      private final Predicate<CachedBlockPosition> filter;
+
+      private Job(ServerWorld world, ServerCommandSource source, BlockBox range, BlockStateArgument block, FillCommand.Mode mode, @Nullable Predicate<CachedBlockPosition> filter, long volume) {
+         super(world, source, Collections.singletonList(BlockEditJob.getChunks(range)), mode != FillCommand.Mode.DESTROY && BlockEditJobManager.keepsSnapshots(volume));
+         this.range = range;
+         this.block = block;
+         this.mode = mode;
+         this.filter = filter;
+      }
+
+      protected void processChunk(int pass, int chunkX, int chunkZ) {
+         this.changedBlocks += FillCommand.fill(this.world, this.range, clampToChunk(this.range, chunkX, chunkZ), this.block, this.mode, this.filter, this.snapshot).size();
+      }
+
+      protected void onFinished() {
+         if (this.changedBlocks == 0) {
+            this.source.sendError(new TranslatableText("commands.fill.failed"));
+         } else {
+            this.source.sendFeedback(new TranslatableText("commands.fill.success", new Object[]{this.changedBlocks}), true);
+         }
+
+      }
+
+      public Text getDescription() {
+         return new LiteralText("Fill from " + this.range.minX + " " + this.range.minY + " " + this.range.minZ + " to " + this.range.maxX + " " + this.range.maxY + " " + this.range.maxZ);
+      }
+   }
+
    static enum Mode {
       REPLACE((blockBox, blockPos, blockStateArgument, serverWorld) -> {
          return blockStateArgument;
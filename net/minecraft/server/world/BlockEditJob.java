@@ -0,0 +1,243 @@
+package net.minecraft.server.world;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongLists;
+import java.util.List;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An edit of many blocks of a server world, such as a large {@code /fill},
+ * that is spread over several ticks by the {@link BlockEditJobManager}.
+ *
+ * <p>A job goes through one or more passes over a list of chunks, one chunk
+ * at a time and always in the same order. The next few chunks of the current
+ * pass, and any other chunks they {@linkplain #getRequiredChunks read from},
+ * are loaded with {@linkplain ChunkTicketType#BLOCK_EDIT tickets}, and a chunk
+ * is only edited once they are loaded, after which its tickets are removed.
+ */
+public abstract class BlockEditJob {
+   private static final int LOADING_CHUNKS = 8;
+   protected final ServerWorld world;
+   protected final ServerCommandSource source;
+   @Nullable
+   protected final BlockEditSnapshot snapshot;
+   private final List<LongList> passes;
+   private final int chunkCount;
+   private int id;
+   private int pass;
+   private int index;
+   private int loadedIndex;
+   private int processedChunks;
+   protected int changedBlocks;
+   private BlockEditJob.Status status;
+
+   protected BlockEditJob(ServerWorld world, ServerCommandSource source, List<LongList> passes, boolean keepSnapshot) {
+      this.status = BlockEditJob.Status.QUEUED;
+      this.world = world;
+      this.source = source;
+      this.passes = passes;
+      this.snapshot = keepSnapshot ? new BlockEditSnapshot() : null;
+      int i = 0;
+
+      for(int j = 0; j < passes.size(); ++j) {
+         i += ((LongList)passes.get(j)).size();
+      }
+
+      this.chunkCount = i;
+   }
+
+   /**
+    * Returns the chunks intersecting the box, row by row.
+    */
+   public static LongList getChunks(BlockBox box) {
+      LongList longList = new LongArrayList();
+
+      for(int i = box.minZ >> 4; i <= box.maxZ >> 4; ++i) {
+         for(int j = box.minX >> 4; j <= box.maxX >> 4; ++j) {
+            longList.add(ChunkPos.toLong(j, i));
+         }
+      }
+
+      return longList;
+   }
+
+   /**
+    * Returns the part of the box that is inside the chunk.
+    */
+   protected static BlockBox clampToChunk(BlockBox box, int chunkX, int chunkZ) {
+      int i = chunkX << 4;
+      int j = chunkZ << 4;
+      return new BlockBox(Math.max(box.minX, i), box.minY, Math.max(box.minZ, j), Math.min(box.maxX, i + 15), box.maxY, Math.min(box.maxZ, j + 15));
+   }
+
+   void setId(int id) {
+      this.id = id;
+   }
+
+   /**
+    * Edits chunks until the job is done, the next chunk is not loaded yet,
+    * or the stop time is reached.
+    *
+    * @return whether the job is done
+    */
+   boolean tick(long stopTime) {
+      this.status = BlockEditJob.Status.RUNNING;
+      boolean bl = false;
+
+      while(this.pass < this.passes.size()) {
+         LongList longList = (LongList)this.passes.get(this.pass);
+         if (this.index >= longList.size()) {
+            ++this.pass;
+            this.index = 0;
+            this.loadedIndex = 0;
+         } else {
+            if (bl && Util.getMeasuringTimeNano() >= stopTime) {
+               return false;
+            }
+
+            while(this.loadedIndex < longList.size() && this.loadedIndex < this.index + LOADING_CHUNKS) {
+               this.setLoading(longList.getLong(this.loadedIndex), true);
+               ++this.loadedIndex;
+            }
+
+            long l = longList.getLong(this.index);
+            LongList longList2 = this.getRequiredChunks(this.pass, l);
+
+            for(int i = 0; i < longList2.size(); ++i) {
+               long m = longList2.getLong(i);
+               if (this.world.getChunkManager().getWorldChunk(ChunkPos.getPackedX(m), ChunkPos.getPackedZ(m)) == null) {
+                  return false;
+               }
+            }
+
+            this.processChunk(this.pass, ChunkPos.getPackedX(l), ChunkPos.getPackedZ(l));
+            this.setLoading(l, false);
+            ++this.index;
+            ++this.processedChunks;
+            bl = true;
+         }
+      }
+
+      this.status = BlockEditJob.Status.DONE;
+      this.onFinished();
+      return true;
+   }
+
+   /**
+    * Stops the job, leaving the chunks edited so far as they are.
+    */
+   void cancel() {
+      if (this.pass < this.passes.size()) {
+         LongList longList = (LongList)this.passes.get(this.pass);
+
+         for(int i = this.index; i < this.loadedIndex; ++i) {
+            this.setLoading(longList.getLong(i), false);
+         }
+      }
+
+      this.status = BlockEditJob.Status.CANCELLED;
+   }
+
+   /**
+    * Adds or removes the tickets loading the chunks required to edit a chunk
+    * of the current pass. The tickets are keyed by the edited chunk, so that
+    * chunks required by several edited chunks stay loaded until the last of
+    * them is done.
+    */
+   private void setLoading(long chunkPos, boolean loading) {
+      ChunkPos chunkPos2 = new ChunkPos(chunkPos);
+      LongList longList = this.getRequiredChunks(this.pass, chunkPos);
+
+      for(int i = 0; i < longList.size(); ++i) {
+         ChunkPos chunkPos3 = new ChunkPos(longList.getLong(i));
+         if (loading) {
+            this.world.getChunkManager().addTicket(ChunkTicketType.BLOCK_EDIT, chunkPos3, 1, chunkPos2);
+         } else {
+            this.world.getChunkManager().removeTicket(ChunkTicketType.BLOCK_EDIT, chunkPos3, 1, chunkPos2);
+         }
+      }
+
+   }
+
+   /**
+    * Returns the chunks that have to be loaded to edit a chunk during the
+    * given pass, which are the chunk itself unless the edit reads from other
+    * chunks too.
+    */
+   protected LongList getRequiredChunks(int pass, long chunkPos) {
+      return LongLists.singleton(chunkPos);
+   }
+
+   /**
+    * Edits one loaded chunk during the given pass.
+    */
+   protected abstract void processChunk(int pass, int chunkX, int chunkZ);
+
+   /**
+    * Called once all passes are done, to report the result to the source.
+    */
+   protected abstract void onFinished();
+
+   /**
+    * Returns a short description of the edit, for listing the jobs.
+    */
+   public abstract Text getDescription();
+
+   /**
+    * Returns the feedback sent to the source once the job was queued.
+    */
+   public Text getQueuedText(long volume) {
+      return new LiteralText("Queued edit job " + this.id + " for " + volume + " blocks" + (this.snapshot == null ? ", which cannot be undone" : ""));
+   }
+
+   protected void record(BlockPos pos) {
+      if (this.snapshot != null) {
+         this.snapshot.record(this.world, pos);
+      }
+
+   }
+
+   public int getId() {
+      return this.id;
+   }
+
+   public ServerCommandSource getSource() {
+      return this.source;
+   }
+
+   @Nullable
+   public BlockEditSnapshot getSnapshot() {
+      return this.snapshot;
+   }
+
+   public BlockEditJob.Status getStatus() {
+      return this.status;
+   }
+
+   public int getChangedBlocks() {
+      return this.changedBlocks;
+   }
+
+   /**
+    * Returns the share of chunks already edited over all passes, between
+    * {@code 0} and {@code 100}.
+    */
+   public int getProgress() {
+      return this.chunkCount == 0 ? 100 : this.processedChunks * 100 / this.chunkCount;
+   }
+
+   public static enum Status {
+      QUEUED,
+      RUNNING,
+      DONE,
+      CANCELLED;
+   }
+}
@@ -0,0 +1,158 @@
+package net.minecraft.server.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Collection;
+import java.util.Collections;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs the {@linkplain BlockEditJob block edit jobs} of a server world one
+ * after the other, within a time budget per tick, and reports their progress
+ * to the command sources that started them.
+ *
+ * <p>Controlled by system properties: {@code edit.maxVolume} is the largest
+ * number of blocks a single job may edit, {@code edit.tickBudgetMs} the time
+ * spent on jobs each tick, and {@code edit.undo} whether jobs keep snapshots
+ * of what they replaced, so that the last few jobs can be undone. Snapshots
+ * are off by default, and are not kept for jobs editing more than {@code
+ * edit.undoMaxVolume} blocks.
+ */
+public class BlockEditJobManager {
+   public static final int MAX_VOLUME = Integer.getInteger("edit.maxVolume", 16777216);
+   private static final long TICK_BUDGET_NANOS = Long.getLong("edit.tickBudgetMs", 10L) * 1000000L;
+   private static final boolean KEEP_SNAPSHOTS = Boolean.parseBoolean(System.getProperty("edit.undo", "false"));
+   private static final int MAX_UNDO_VOLUME = Integer.getInteger("edit.undoMaxVolume", 1048576);
+   private static final int PROGRESS_INTERVAL = 100;
+   private static final int MAX_UNDOABLE_JOBS = 5;
+   private final ServerWorld world;
+   private final Int2ObjectLinkedOpenHashMap<BlockEditJob> jobs = new Int2ObjectLinkedOpenHashMap();
+   private final Int2ObjectLinkedOpenHashMap<BlockEditSnapshot> snapshots = new Int2ObjectLinkedOpenHashMap();
+   private int nextId = 1;
+   private int ticks;
+
+   public BlockEditJobManager(ServerWorld world) {
+      this.world = world;
+   }
+
+   /**
+    * Returns whether a new job editing the given number of blocks should keep
+    * a snapshot to be undone with.
+    */
+   public static boolean keepsSnapshots(long volume) {
+      return KEEP_SNAPSHOTS && volume <= (long)MAX_UNDO_VOLUME;
+   }
+
+   /**
+    * Queues a job to run after the jobs already queued, and returns its id.
+    */
+   public int submit(BlockEditJob job) {
+      int i = this.nextId++;
+      job.setId(i);
+      this.jobs.put(i, job);
+      return i;
+   }
+
+   public void tick() {
+      if (!this.jobs.isEmpty()) {
+         ++this.ticks;
+         long l = Util.getMeasuringTimeNano() + TICK_BUDGET_NANOS;
+         ObjectIterator objectIterator = this.jobs.values().iterator();
+
+         while(objectIterator.hasNext()) {
+            BlockEditJob blockEditJob = (BlockEditJob)objectIterator.next();
+            if (!blockEditJob.tick(l)) {
+               if (this.ticks % PROGRESS_INTERVAL == 0) {
+                  blockEditJob.getSource().sendFeedback(new LiteralText("Edit job " + blockEditJob.getId() + " is " + blockEditJob.getProgress() + "% done"), false);
+               }
+
+               break;
+            }
+
+            objectIterator.remove();
+            this.keepUndoable(blockEditJob);
+            if (Util.getMeasuringTimeNano() >= l) {
+               break;
+            }
+         }
+
+         this.world.getProfiler().visit("blockEditJobs", this.jobs.size());
+      }
+   }
+
+   private void keepUndoable(BlockEditJob job) {
+      if (job.getSnapshot() != null) {
+         this.snapshots.put(job.getId(), job.getSnapshot());
+
+         while(this.snapshots.size() > MAX_UNDOABLE_JOBS) {
+            this.snapshots.removeFirst();
+         }
+      }
+
+   }
+
+   /**
+    * Stops a queued or running job, and returns it, or {@code null} if there
+    * is no such job.
+    */
+   @Nullable
+   public BlockEditJob cancel(int id) {
+      BlockEditJob blockEditJob = (BlockEditJob)this.jobs.remove(id);
+      if (blockEditJob != null) {
+         blockEditJob.cancel();
+         this.keepUndoable(blockEditJob);
+      }
+
+      return blockEditJob;
+   }
+
+   /**
+    * Queues a job restoring what the given job replaced, cancelling that job
+    * first if it is still running, and returns the new job, or {@code null}
+    * if the given job cannot be undone.
+    */
+   @Nullable
+   public BlockEditJob undo(int id, ServerCommandSource source) {
+      this.cancel(id);
+      BlockEditSnapshot blockEditSnapshot = (BlockEditSnapshot)this.snapshots.remove(id);
+      if (blockEditSnapshot == null) {
+         return null;
+      } else {
+         BlockEditJob blockEditJob = new BlockEditJobManager.UndoJob(this.world, source, id, blockEditSnapshot);
+         this.submit(blockEditJob);
+         return blockEditJob;
+      }
+   }
+
+   public Collection<BlockEditJob> getJobs() {
+      return Collections.unmodifiableCollection(this.jobs.values());
+   }
+
+   static class UndoJob extends BlockEditJob {
+      private final int undoneId;
+      private final BlockEditSnapshot undoneSnapshot;
+
+      private UndoJob(ServerWorld world, ServerCommandSource source, int undoneId, BlockEditSnapshot undoneSnapshot) {
+         super(world, source, Collections.singletonList(undoneSnapshot.getChunks()), false);
+         this.undoneId = undoneId;
+         this.undoneSnapshot = undoneSnapshot;
+      }
+
+      protected void processChunk(int pass, int chunkX, int chunkZ) {
+         this.changedBlocks += this.undoneSnapshot.restore(this.world, ChunkPos.toLong(chunkX, chunkZ));
+      }
+
+      protected void onFinished() {
+         this.source.sendFeedback(new LiteralText("Undid edit job " + this.undoneId + ", restoring " + this.changedBlocks + " blocks"), true);
+      }
+
+      public Text getDescription() {
+         return new LiteralText("Undo of edit job " + this.undoneId);
+      }
+   }
+}
@@ -0,0 +1,156 @@
+package net.minecraft.server.world;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMaps;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import java.util.List;
+import net.minecraft.block.Block;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.Clearable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Keeps the block states and block entity data a {@link BlockEditJob} replaced,
+ * per chunk section, so that the edit can be undone.
+ *
+ * <p>The blocks of each section are restored in the order they were recorded,
+ * and only written in bulk where {@link BulkBlockWriter#setInOrder} allows it.
+ *
+ * <p>Each section keeps the {@linkplain ChunkSectionPos#packLocal positions}
+ * and {@linkplain Block#getRawIdFromState raw state ids} of its recorded
+ * blocks in plain arrays, and a bit per block telling whether it was already
+ * recorded, so that a recorded block takes six bytes. Only the first state
+ * recorded for a position is kept, so positions that are edited several
+ * times by the same job are restored to what they were before the job.
+ */
+public class BlockEditSnapshot {
+   private final Long2ObjectMap<BlockEditSnapshot.Section> sections = new Long2ObjectLinkedOpenHashMap();
+   private int size;
+
+   public void record(ServerWorld world, BlockPos pos) {
+      BlockEditSnapshot.Section section = (BlockEditSnapshot.Section)this.sections.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos.asLong()), (l) -> {
+         return new BlockEditSnapshot.Section();
+      });
+      short s = ChunkSectionPos.packLocal(pos);
+      if (section.add(s, Block.getRawIdFromState(world.getBlockState(pos)))) {
+         BlockEntity blockEntity = world.getBlockEntity(pos);
+         if (blockEntity != null) {
+            section.blockEntities.put(s, blockEntity.writeNbt(new NbtCompound()));
+         }
+
+         ++this.size;
+      }
+   }
+
+   public LongList getChunks() {
+      LongSet longSet = new LongLinkedOpenHashSet();
+      LongIterator longIterator = this.sections.keySet().iterator();
+
+      while(longIterator.hasNext()) {
+         long l = longIterator.nextLong();
+         longSet.add(ChunkPos.toLong(ChunkSectionPos.unpackX(l), ChunkSectionPos.unpackZ(l)));
+      }
+
+      return new LongArrayList(longSet);
+   }
+
+   /**
+    * Returns the number of recorded positions.
+    */
+   public int size() {
+      return this.size;
+   }
+
+   /**
+    * Restores the recorded positions of a chunk, and returns how many of them
+    * changed.
+    */
+   public int restore(ServerWorld world, long chunkPos) {
+      int i = ChunkPos.getPackedX(chunkPos);
+      int j = ChunkPos.getPackedZ(chunkPos);
+      BulkBlockWriter bulkBlockWriter = new BulkBlockWriter(world);
+      List<BlockPos> list = Lists.newArrayList();
+
+      int k;
+      for(k = 0; k < 16; ++k) {
+         BlockEditSnapshot.Section section = (BlockEditSnapshot.Section)this.sections.get(ChunkSectionPos.asLong(i, k, j));
+         if (section != null) {
+            ChunkSectionPos chunkSectionPos = ChunkSectionPos.from(i, k, j);
+
+            for(int l = 0; l < section.positions.size(); ++l) {
+               BlockPos blockPos = chunkSectionPos.unpackBlockPos(section.positions.getShort(l));
+               Clearable.clear(world.getBlockEntity(blockPos));
+               bulkBlockWriter.setInOrder(blockPos, Block.getStateFromRawId(section.states.getInt(l)), 2, list);
+            }
+         }
+      }
+
+      list.addAll(bulkBlockWriter.apply(2));
+
+      for(k = 0; k < 16; ++k) {
+         BlockEditSnapshot.Section section2 = (BlockEditSnapshot.Section)this.sections.get(ChunkSectionPos.asLong(i, k, j));
+         if (section2 != null) {
+            ChunkSectionPos chunkSectionPos2 = ChunkSectionPos.from(i, k, j);
+            ObjectIterator objectIterator = Short2ObjectMaps.fastIterable(section2.blockEntities).iterator();
+
+            while(objectIterator.hasNext()) {
+               Short2ObjectMap.Entry<NbtCompound> entry = (Short2ObjectMap.Entry)objectIterator.next();
+               BlockPos blockPos2 = chunkSectionPos2.unpackBlockPos(entry.getShortKey());
+               BlockEntity blockEntity = world.getBlockEntity(blockPos2);
+               if (blockEntity != null) {
+                  blockEntity.fromTag(world.getBlockState(blockPos2), ((NbtCompound)entry.getValue()).copy());
+                  blockEntity.markDirty();
+               }
+            }
+         }
+      }
+
+      for(int m = 0; m < list.size(); ++m) {
+         BlockPos blockPos3 = (BlockPos)list.get(m);
+         world.updateNeighbors(blockPos3, world.getBlockState(blockPos3).getBlock());
+      }
+
+      return list.size();
+   }
+
+   static class Section {
+      private final long[] recorded = new long[64];
+      private final ShortList positions = new ShortArrayList();
+      private final IntList states = new IntArrayList();
+      private final Short2ObjectMap<NbtCompound> blockEntities = new Short2ObjectOpenHashMap();
+
+      /**
+       * Records the state of a position, unless one was recorded already.
+       *
+       * @return whether the state was recorded
+       */
+      private boolean add(short pos, int state) {
+         int i = pos & 4095;
+         long l = 1L << i;
+         if ((this.recorded[i >> 6] & l) != 0L) {
+            return false;
+         } else {
+            this.recorded[i >> 6] |= l;
+            this.positions.add(pos);
+            this.states.add(state);
+            return true;
+         }
+      }
+   }
+}
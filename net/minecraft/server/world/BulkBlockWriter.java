@@ -0,0 +1,187 @@
+package net.minecraft.server.world;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import java.util.List;
+import net.minecraft.block.AirBlock;
+import net.minecraft.block.BarrierBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Sets the block states of many positions of a server world at once, one
+ * chunk section at a time, for mass edits such as {@code /fill}.
+ *
+ * <p>The blocks of a section are {@linkplain WorldChunk#setBlockStates
+ * written at once}, and the section is then marked for block updates to
+ * players and checked for light in one go. The flags are those of {@link
+ * World#setBlockState(BlockPos, BlockState, int)}; without the {@code 1}
+ * flag neighbors are not updated, and without {@code 16} shape updates are
+ * not done either, after the whole section was written.
+ *
+ * <p>As blocks are only notified of being added or replaced once their whole
+ * section was written, and placement states are worked out before anything
+ * is written, only states that {@linkplain #canWriteInBulk can be written in
+ * bulk} should be set, over states that can be too. Other blocks have to be
+ * set one at a time, after {@linkplain #apply applying} what was queued.
+ */
+public class BulkBlockWriter {
+   private final ServerWorld world;
+   private final Long2ObjectMap<Short2ObjectMap<BlockState>> sections = new Long2ObjectLinkedOpenHashMap();
+   private long writtenBlocks;
+   private long writeTimeNanos;
+
+   public BulkBlockWriter(ServerWorld world) {
+      this.world = world;
+   }
+
+   /**
+    * Returns whether a state can be written in bulk, that is whether its block
+    * neither depends on its neighbors when placed nor does anything when it is
+    * added or replaced.
+    */
+   public static boolean canWriteInBulk(BlockState state) {
+      Class<?> class_ = state.getBlock().getClass();
+      return class_ == Block.class || class_ == AirBlock.class || class_ == BarrierBlock.class;
+   }
+
+   /**
+    * Sets a block state in the order of the calls, queueing it if it can be
+    * written in bulk over the current state, and otherwise applying what was
+    * queued and then setting it on its own. All calls until the next {@link
+    * #apply} have to use the same flags.
+    *
+    * @param changedPositions receives the positions that changed
+    */
+   public void setInOrder(BlockPos pos, BlockState state, int flags, List<BlockPos> changedPositions) {
+      if (canWriteInBulk(state) && canWriteInBulk(this.world.getBlockState(pos))) {
+         this.set(pos, state);
+      } else {
+         if (!this.sections.isEmpty()) {
+            changedPositions.addAll(this.apply(flags));
+         }
+
+         if (this.world.setBlockState(pos, state, flags)) {
+            changedPositions.add(pos.toImmutable());
+         }
+      }
+
+   }
+
+   /**
+    * Queues a block state to set. Setting the same position again replaces
+    * the queued state.
+    */
+   public void set(BlockPos pos, BlockState state) {
+      if (!World.isOutOfBuildLimitVertically(pos)) {
+         ((Short2ObjectMap)this.sections.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos.asLong()), (l) -> {
+            return new Short2ObjectLinkedOpenHashMap();
+         })).put(ChunkSectionPos.packLocal(pos), state);
+      }
+   }
+
+   public boolean isEmpty() {
+      return this.sections.isEmpty();
+   }
+
+   /**
+    * Sets all queued block states, and returns the positions that changed.
+    */
+   public List<BlockPos> apply(int flags) {
+      List<BlockPos> list = Lists.newArrayList();
+      if (!this.sections.isEmpty() && !this.world.isDebugWorld()) {
+         long l = Util.getMeasuringTimeNano();
+         ObjectIterator objectIterator = Long2ObjectMaps.fastIterable(this.sections).iterator();
+
+         while(objectIterator.hasNext()) {
+            Long2ObjectMap.Entry<Short2ObjectMap<BlockState>> entry = (Long2ObjectMap.Entry)objectIterator.next();
+            this.apply(ChunkSectionPos.from(entry.getLongKey()), (Short2ObjectMap)entry.getValue(), flags, list);
+         }
+
+         this.writtenBlocks += (long)list.size();
+         this.writeTimeNanos += Util.getMeasuringTimeNano() - l;
+      }
+
+      this.sections.clear();
+      return list;
+   }
+
+   private void apply(ChunkSectionPos sectionPos, Short2ObjectMap<BlockState> states, int flags, List<BlockPos> changedPositions) {
+      int i = states.size();
+      short[] ss = states.keySet().toShortArray();
+      BlockState[] blockStates = (BlockState[])states.values().toArray(new BlockState[i]);
+      BlockState[] blockStates2 = new BlockState[i];
+      WorldChunk worldChunk = this.world.getChunk(sectionPos.getSectionX(), sectionPos.getSectionZ());
+      if (worldChunk.setBlockStates(sectionPos.getSectionY(), ss, blockStates, i, blockStates2, (flags & 64) != 0) != 0) {
+         this.world.getPathNodeTypeCache().onSectionChanged(sectionPos.getSectionX(), sectionPos.getSectionY(), sectionPos.getSectionZ());
+         this.world.getExposureCache().onBlockChanged();
+         ShortSet shortSet = new ShortOpenHashSet();
+         ShortSet shortSet2 = new ShortOpenHashSet();
+
+         for(int j = 0; j < i; ++j) {
+            BlockState blockState = blockStates2[j];
+            if (blockState != null) {
+               BlockPos blockPos = sectionPos.unpackBlockPos(ss[j]);
+               BlockState blockState2 = this.world.getBlockState(blockPos);
+               if ((flags & 128) == 0 && blockState2 != blockState && (blockState2.getOpacity(this.world, blockPos) != blockState.getOpacity(this.world, blockPos) || blockState2.getLuminance() != blockState.getLuminance() || blockState2.hasSidedTransparency() || blockState.hasSidedTransparency())) {
+                  shortSet.add(ss[j]);
+               }
+
+               if (blockState2 == blockStates[j]) {
+                  if ((flags & 2) != 0 && worldChunk.getLevelType() != null && worldChunk.getLevelType().isAfter(ChunkHolder.LevelType.TICKING)) {
+                     shortSet2.add(ss[j]);
+                     this.world.updateNavigations(blockPos, blockState, blockState2);
+                  }
+
+                  if ((flags & 1) != 0) {
+                     this.world.updateNeighbors(blockPos, blockState.getBlock());
+                     if (blockState2.hasComparatorOutput()) {
+                        this.world.updateComparators(blockPos, blockState2.getBlock());
+                     }
+                  }
+
+                  if ((flags & 16) == 0) {
+                     int k = flags & -34;
+                     blockState.prepare(this.world, blockPos, k, 511);
+                     blockState2.updateNeighbors(this.world, blockPos, k, 511);
+                     blockState2.prepare(this.world, blockPos, k, 511);
+                  }
+
+                  this.world.onBlockChanged(blockPos, blockState, blockState2);
+               }
+
+               changedPositions.add(blockPos);
+            }
+         }
+
+         if (!shortSet.isEmpty()) {
+            this.world.getChunkManager().getLightingProvider().checkBlocks(sectionPos, shortSet);
+         }
+
+         if (!shortSet2.isEmpty()) {
+            this.world.getChunkManager().markForUpdate(sectionPos, shortSet2);
+         }
+
+      }
+   }
+
+   /**
+    * Returns the number of changed blocks per second of time spent applying
+    * them, over all batches applied by this writer.
+    */
+   public double getBlocksPerSecond() {
+      return this.writeTimeNanos == 0L ? 0.0D : (double)this.writtenBlocks * 1.0E9D / (double)this.writeTimeNanos;
+   }
+}
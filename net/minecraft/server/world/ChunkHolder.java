@@ -2,6 +2,7 @@ package net.minecraft.server.world;
 
 import com.mojang.datafixers.util.Either;
 import it.unimi.dsi.fastutil.shorts.ShortArraySet;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
 import it.unimi.dsi.fastutil.shorts.ShortSet;
 import java.util.List;
 import java.util.Optional;
@@ -163,6 +164,31 @@ public class ChunkHolder {
       }
    }
 
+   /**
+    * Marks many positions of a section for block updates at once, with
+    * positions {@linkplain ChunkSectionPos#packLocal packed} within the
+    * section.
+    */
+   public void markForBlockUpdates(int sectionY, ShortSet positions) {
+      WorldChunk worldChunk = this.getWorldChunk();
+      if (worldChunk != null && !positions.isEmpty()) {
+         ShortSet shortSet = this.blockUpdatesBySection[sectionY];
+         if (shortSet == null) {
+            this.pendingBlockUpdates = true;
+            shortSet = new ShortOpenHashSet(positions);
+            this.blockUpdatesBySection[sectionY] = shortSet;
+         } else {
+            if (!(shortSet instanceof ShortOpenHashSet)) {
+               shortSet = new ShortOpenHashSet(shortSet);
+               this.blockUpdatesBySection[sectionY] = shortSet;
+            }
+
+            shortSet.addAll(positions);
+         }
+
+      }
+   }
+
    /**
     * @param y chunk section y coordinate
     */
@@ -33,6 +33,10 @@ public class ChunkTicketType<T> {
     * Used to load the chunks at the destination of teleportation.
     */
    public static final ChunkTicketType<Integer> POST_TELEPORT = create("post_teleport", Integer::compareTo, 5);
+   /**
+    * Used by {@linkplain BlockEditJob block edit jobs} to load the chunks they edit.
+    */
+   public static final ChunkTicketType<ChunkPos> BLOCK_EDIT = create("block_edit", Comparator.comparingLong(ChunkPos::toLong));
    /**
     * Represents a type of ticket that has an unknown cause for loading chunks.
     */
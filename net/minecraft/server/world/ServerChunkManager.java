@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
@@ -339,7 +340,7 @@ public class ServerChunkManager extends ChunkManager {
          boolean bl3 = worldProperties.getTime() % 400L == 0L;
          this.world.getProfiler().push("naturalSpawnCount");
          int j = this.ticketManager.getSpawningChunkCount();
-         SpawnHelper.Info info = SpawnHelper.setupSpawn(j, this.world.iterateEntities(), this::ifChunkLoaded);
+         SpawnHelper.Info info = SpawnHelper.setupSpawn(j, this.world.iterateEntities(), this::ifChunkLoaded, this.world.getGameRules().getBoolean(GameRules.PER_PLAYER_MOB_CAP) ? this.world.getPlayers() : null);
          this.spawnEntry = info;
          this.world.getProfiler().pop();
          List<ChunkHolder> list = Lists.newArrayList(this.threadedAnvilChunkStorage.entryIterator());
@@ -412,6 +413,14 @@ public class ServerChunkManager extends ChunkManager {
 
    }
 
+   public void markForUpdate(ChunkSectionPos pos, ShortSet positions) {
+      ChunkHolder chunkHolder = this.getChunkHolder(ChunkPos.toLong(pos.getSectionX(), pos.getSectionZ()));
+      if (chunkHolder != null) {
+         chunkHolder.markForBlockUpdates(pos.getSectionY(), positions);
+      }
+
+   }
+
    public void onLightUpdate(LightType type, ChunkSectionPos pos) {
       this.mainThreadExecutor.execute(() -> {
          ChunkHolder chunkHolder = this.getChunkHolder(pos.toChunkPos().toLong());
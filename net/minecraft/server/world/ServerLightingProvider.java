@@ -1,16 +1,22 @@
 package net.minecraft.server.world;
 
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import it.unimi.dsi.fastutil.objects.ObjectListIterator;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntSupplier;
 import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.thread.MessageListener;
 import net.minecraft.util.thread.TaskExecutor;
 import net.minecraft.world.LightType;
@@ -23,14 +29,35 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Runs the light updates of a server world on the lighting executor.
+ *
+ * <p>Queued tasks run in batches, and the light propagates once per batch.
+ * A batch holds at least {@link #setTaskBatchSize the task batch size} tasks,
+ * and grows with the number of queued tasks and of chunks waiting to be lit,
+ * up to {@value #MAX_TASK_BATCH_SIZE} tasks. Light then keeps up with chunk
+ * generation, while single block changes still get lit right away.
+ *
+ * <p>When a block is checked several times before the light propagates, only
+ * the last check runs, as it sees the latest state of the block.
+ */
 public class ServerLightingProvider extends LightingProvider implements AutoCloseable {
    private static final Logger LOGGER = LogManager.getLogger();
+   private static final int MAX_TASK_BATCH_SIZE = 1000;
+   private static final int TASKS_PER_LIGHTING_CHUNK = 4;
    private final TaskExecutor<Runnable> processor;
    private final ObjectList<Pair<ServerLightingProvider.Stage, Runnable>> pendingTasks = new ObjectArrayList();
    private final ThreadedAnvilChunkStorage chunkStorage;
    private final MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor;
    private volatile int taskBatchSize = 5;
    private final AtomicBoolean ticking = new AtomicBoolean();
+   private final Long2IntMap queuedBlockChecks = new Long2IntOpenHashMap();
+   private final AtomicInteger pendingTaskCount = new AtomicInteger();
+   private final AtomicInteger lightingChunkCount = new AtomicInteger();
+   private final AtomicInteger litChunkCount = new AtomicInteger();
+   private final AtomicLong totalLightLatencyMs = new AtomicLong();
+   private volatile int lastBatchSize;
+   private volatile int coalescedBlockChecks;
 
    public ServerLightingProvider(ChunkProvider chunkProvider, ThreadedAnvilChunkStorage chunkStorage, boolean hasBlockLight, TaskExecutor<Runnable> processor, MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor) {
       super(chunkProvider, true, hasBlockLight);
@@ -52,10 +79,38 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
 
    public void checkBlock(BlockPos pos) {
       BlockPos blockPos = pos.toImmutable();
-      this.enqueue(pos.getX() >> 4, pos.getZ() >> 4, ServerLightingProvider.Stage.POST_UPDATE, Util.debugRunnable(() -> {
-         super.checkBlock(blockPos);
+      long l = blockPos.asLong();
+      long m = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+      this.executor.send(ChunkTaskPrioritySystem.createMessage(() -> {
+         this.queuedBlockChecks.put(l, this.queuedBlockChecks.get(l) + 1);
+         this.addTask(ServerLightingProvider.Stage.POST_UPDATE, Util.debugRunnable(() -> {
+            int i = this.queuedBlockChecks.remove(l);
+            if (i > 1) {
+               this.queuedBlockChecks.put(l, i - 1);
+               ++this.coalescedBlockChecks;
+            } else {
+               super.checkBlock(blockPos);
+            }
+
+         }, () -> {
+            return "checkBlock " + blockPos;
+         }));
+      }, m, this.chunkStorage.getCompletedLevelSupplier(m)));
+   }
+
+   /**
+    * Checks many positions of a section, {@linkplain ChunkSectionPos#packLocal
+    * packed} within the section, in a single task.
+    */
+   public void checkBlocks(ChunkSectionPos pos, ShortSet positions) {
+      short[] ss = positions.toShortArray();
+      this.enqueue(pos.getSectionX(), pos.getSectionZ(), ServerLightingProvider.Stage.POST_UPDATE, Util.debugRunnable(() -> {
+         for(int i = 0; i < ss.length; ++i) {
+            super.checkBlock(pos.unpackBlockPos(ss[i]));
+         }
+
       }, () -> {
-         return "checkBlock " + blockPos;
+         return "checkBlocks " + pos + " " + ss.length;
       }));
    }
 
@@ -115,14 +170,24 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
 
    private void enqueue(int x, int z, IntSupplier completedLevelSupplier, ServerLightingProvider.Stage stage, Runnable task) {
       this.executor.send(ChunkTaskPrioritySystem.createMessage(() -> {
-         this.pendingTasks.add(Pair.of(stage, task));
-         if (this.pendingTasks.size() >= this.taskBatchSize) {
-            this.runTasks();
-         }
-
+         this.addTask(stage, task);
       }, ChunkPos.toLong(x, z), completedLevelSupplier));
    }
 
+   private void addTask(ServerLightingProvider.Stage stage, Runnable task) {
+      this.pendingTasks.add(Pair.of(stage, task));
+      this.pendingTaskCount.set(this.pendingTasks.size());
+      if (this.pendingTasks.size() >= this.getBatchSize()) {
+         this.runTasks();
+      }
+
+   }
+
+   private int getBatchSize() {
+      int i = Math.max(this.pendingTasks.size() / 2, this.lightingChunkCount.get() * TASKS_PER_LIGHTING_CHUNK);
+      return MathHelper.clamp(i, this.taskBatchSize, Math.max(this.taskBatchSize, MAX_TASK_BATCH_SIZE));
+   }
+
    public void setRetainData(ChunkPos pos, boolean retainData) {
       this.enqueue(pos.x, pos.z, () -> {
          return 0;
@@ -135,7 +200,9 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
 
    public CompletableFuture<Chunk> light(Chunk chunk, boolean excludeBlocks) {
       ChunkPos chunkPos = chunk.getPos();
+      long l = Util.getMeasuringTimeMs();
       chunk.setLightOn(false);
+      this.lightingChunkCount.incrementAndGet();
       this.enqueue(chunkPos.x, chunkPos.z, ServerLightingProvider.Stage.PRE_UPDATE, Util.debugRunnable(() -> {
          ChunkSection[] chunkSections = chunk.getSectionArray();
 
@@ -160,9 +227,13 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
       return CompletableFuture.supplyAsync(() -> {
          chunk.setLightOn(true);
          super.setRetainData(chunkPos, false);
+         this.litChunkCount.incrementAndGet();
+         this.totalLightLatencyMs.addAndGet(Util.getMeasuringTimeMs() - l);
          return chunk;
       }, (runnable) -> {
          this.enqueue(chunkPos.x, chunkPos.z, ServerLightingProvider.Stage.POST_UPDATE, runnable);
+      }).whenComplete((chunkx, throwable) -> {
+         this.lightingChunkCount.decrementAndGet();
       });
    }
 
@@ -177,7 +248,8 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
    }
 
    private void runTasks() {
-      int i = Math.min(this.pendingTasks.size(), this.taskBatchSize);
+      int i = Math.min(this.pendingTasks.size(), this.getBatchSize());
+      this.lastBatchSize = i;
       ObjectListIterator<Pair<ServerLightingProvider.Stage, Runnable>> objectListIterator = this.pendingTasks.iterator();
 
       int j;
@@ -201,12 +273,38 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
          objectListIterator.remove();
       }
 
+      this.pendingTaskCount.set(this.pendingTasks.size());
    }
 
    public void setTaskBatchSize(int taskBatchSize) {
       this.taskBatchSize = taskBatchSize;
    }
 
+   public int getPendingTaskCount() {
+      return this.pendingTaskCount.get();
+   }
+
+   public int getLightingChunkCount() {
+      return this.lightingChunkCount.get();
+   }
+
+   public int getLastBatchSize() {
+      return this.lastBatchSize;
+   }
+
+   public int getCoalescedBlockChecks() {
+      return this.coalescedBlockChecks;
+   }
+
+   /**
+    * Returns the average time between a chunk being queued for lighting and
+    * it being lit, in milliseconds.
+    */
+   public double getAverageLightLatencyMs() {
+      int i = this.litChunkCount.get();
+      return i == 0 ? 0.0D : (double)this.totalLightLatencyMs.get() / (double)i;
+   }
+
    static enum Stage {
       PRE_UPDATE,
       POST_UPDATE;
@@ -40,6 +40,7 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.CrowdCollisionSolver;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityInteraction;
 import net.minecraft.entity.EntityType;
@@ -48,6 +49,8 @@ import net.minecraft.entity.LightningEntity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.Npc;
 import net.minecraft.entity.SpawnGroup;
+import net.minecraft.entity.ai.brain.sensor.SensorEntityCache;
+import net.minecraft.entity.ai.pathing.AsyncPathfinder;
 import net.minecraft.entity.ai.pathing.EntityNavigation;
 import net.minecraft.entity.boss.dragon.EnderDragonEntity;
 import net.minecraft.entity.boss.dragon.EnderDragonFight;
@@ -119,6 +122,7 @@ import net.minecraft.world.LocalDifficulty;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.PortalForcer;
 import net.minecraft.world.ScheduledTick;
+import net.minecraft.world.SpawnCache;
 import net.minecraft.world.SpawnHelper;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.World;
@@ -146,6 +150,12 @@ import org.jetbrains.annotations.Nullable;
 public class ServerWorld extends World implements StructureWorldAccess {
    public static final BlockPos END_SPAWN_POS = new BlockPos(100, 50, 0);
    private static final Logger LOGGER = LogManager.getLogger();
+   /**
+    * The random tick speed from which random ticks are sampled only among the
+    * positions that can be random ticked; below it, positions are drawn the
+    * same way as they always were and skipped if they cannot be random ticked.
+    */
+   private static final int MIN_SAMPLED_RANDOM_TICK_SPEED = 16;
    private final Int2ObjectMap<Entity> entitiesById = new Int2ObjectLinkedOpenHashMap();
    private final Map<UUID, Entity> entitiesByUuid = Maps.newHashMap();
    private final Queue<Entity> entitiesToLoad = Queues.newArrayDeque();
@@ -161,6 +171,11 @@ public class ServerWorld extends World implements StructureWorldAccess {
    private final ServerTickScheduler<Block> blockTickScheduler;
    private final ServerTickScheduler<Fluid> fluidTickScheduler;
    private final Set<EntityNavigation> entityNavigations;
+   private final AsyncPathfinder asyncPathfinder;
+   private final SensorEntityCache sensorEntityCache;
+   private final SpawnCache spawnCache;
+   private final CrowdCollisionSolver crowdCollisionSolver;
+   private final BlockEditJobManager blockEditJobManager;
    protected final RaidManager raidManager;
    private final ObjectLinkedOpenHashSet<BlockEvent> syncedBlockEventQueue;
    private boolean inBlockTick;
@@ -179,6 +194,11 @@ public class ServerWorld extends World implements StructureWorldAccess {
          return fluid == null || fluid == Fluids.EMPTY;
       }, Registry.FLUID::getId, this::tickFluid);
       this.entityNavigations = Sets.newHashSet();
+      this.asyncPathfinder = new AsyncPathfinder(this);
+      this.sensorEntityCache = new SensorEntityCache(this);
+      this.spawnCache = new SpawnCache(this);
+      this.crowdCollisionSolver = new CrowdCollisionSolver(this);
+      this.blockEditJobManager = new BlockEditJobManager(this);
       this.syncedBlockEventQueue = new ObjectLinkedOpenHashSet();
       this.shouldTickTime = shouldTickTime;
       this.server = server;
@@ -333,7 +353,9 @@ public class ServerWorld extends World implements StructureWorldAccess {
       profiler.swap("tickPending");
       if (!this.isDebugWorld()) {
          this.blockTickScheduler.tick();
+         this.getFluidFlowCache().begin();
          this.fluidTickScheduler.tick();
+         this.getFluidFlowCache().end(profiler);
       }
 
       profiler.swap("raid");
@@ -341,6 +363,11 @@ public class ServerWorld extends World implements StructureWorldAccess {
       profiler.swap("blockEvents");
       this.processSyncedBlockEvents();
       this.inBlockTick = false;
+      profiler.swap("blockEditJobs");
+      this.blockEditJobManager.tick();
+      profiler.swap("pathfinding");
+      this.asyncPathfinder.tick();
+      this.getPathNodeTypeCache().tick(profiler);
       profiler.swap("entities");
       boolean bl4 = !this.players.isEmpty() || !this.getForcedChunks().isEmpty();
       if (bl4) {
@@ -360,6 +387,11 @@ public class ServerWorld extends World implements StructureWorldAccess {
             Entity entity;
             while(true) {
                if (!objectIterator.hasNext()) {
+                  if (this.getGameRules().getBoolean(GameRules.CROWD_COLLISIONS)) {
+                     this.crowdCollisionSolver.addAll(this.players);
+                  }
+
+                  this.crowdCollisionSolver.solve();
                   this.inEntityTick = false;
 
                   Entity entity3;
@@ -505,24 +537,70 @@ public class ServerWorld extends World implements StructureWorldAccess {
             ChunkSection chunkSection = var17[var21];
             if (chunkSection != WorldChunk.EMPTY_SECTION && chunkSection.hasRandomTicks()) {
                int k = chunkSection.getYOffset();
-
-               for(int l = 0; l < randomTickSpeed; ++l) {
-                  BlockPos blockPos4 = this.getRandomPosInChunk(i, k, j, 15);
-                  profiler.push("randomTick");
-                  BlockState blockState = chunkSection.getBlockState(blockPos4.getX() - i, blockPos4.getY() - k, blockPos4.getZ() - j);
-                  if (blockState.hasRandomTicks()) {
-                     blockState.randomTick(this, blockPos4, this.random);
+               if (randomTickSpeed < MIN_SAMPLED_RANDOM_TICK_SPEED) {
+                  for(int l = 0; l < randomTickSpeed; ++l) {
+                     BlockPos blockPos4 = this.getRandomPosInChunk(i, k, j, 15);
+                     if (chunkSection.isRandomTickPosition(ChunkSection.getRandomTickIndex(blockPos4.getX() - i, blockPos4.getY() - k, blockPos4.getZ() - j))) {
+                        this.randomTick(chunkSection, blockPos4, i, k, j);
+                     }
                   }
+               } else {
+                  this.randomTickSampled(chunkSection, randomTickSpeed, i, k, j);
+               }
+            }
+         }
+      }
 
-                  FluidState fluidState = blockState.getFluidState();
-                  if (fluidState.hasRandomTicks()) {
-                     fluidState.onRandomTick(this, blockPos4, this.random);
-                  }
+      profiler.pop();
+   }
 
-                  profiler.pop();
-               }
+   /**
+    * Random ticks a section as if drawing {@code randomTickSpeed} random
+    * positions in it, without drawing the positions that cannot be random
+    * ticked. The number of draws until the next position that can be random
+    * ticked is sampled from a geometric distribution, and that position is then
+    * picked uniformly among them, which gives every position the same chance
+    * to be random ticked as drawing them all.
+    */
+   private void randomTickSampled(ChunkSection section, int randomTickSpeed, int x, int y, int z) {
+      int i = 0;
+
+      while(true) {
+         int j = section.getRandomTickPositionCount();
+         if (j == 0) {
+            return;
+         }
+
+         if (j < 4096) {
+            double d = Math.floor(Math.log(this.random.nextDouble()) / Math.log1p((double)(-j) / 4096.0D));
+            if (d >= (double)(randomTickSpeed - i)) {
+               return;
             }
+
+            i += (int)d;
          }
+
+         if (i >= randomTickSpeed) {
+            return;
+         }
+
+         ++i;
+         int k = section.getRandomTickPosition(this.random.nextInt(j));
+         this.randomTick(section, new BlockPos(x + (k & 15), y + (k >> 8), z + (k >> 4 & 15)), x, y, z);
+      }
+   }
+
+   private void randomTick(ChunkSection section, BlockPos pos, int x, int y, int z) {
+      Profiler profiler = this.getProfiler();
+      profiler.push("randomTick");
+      BlockState blockState = section.getBlockState(pos.getX() - x, pos.getY() - y, pos.getZ() - z);
+      if (blockState.hasRandomTicks()) {
+         blockState.randomTick(this, pos, this.random);
+      }
+
+      FluidState fluidState = blockState.getFluidState();
+      if (fluidState.hasRandomTicks()) {
+         fluidState.onRandomTick(this, pos, this.random);
       }
 
       profiler.pop();
@@ -910,6 +988,9 @@ public class ServerWorld extends World implements StructureWorldAccess {
    }
 
    public void unloadEntities(WorldChunk chunk) {
+      this.getPathNodeTypeCache().onChunkUnloaded(chunk.getPos().x, chunk.getPos().z);
+      this.spawnCache.onChunkUnloaded(chunk.getPos().x, chunk.getPos().z);
+      this.sensorEntityCache.onChunkChanged(chunk.getPos().x, chunk.getPos().z);
       this.unloadedBlockEntities.addAll(chunk.getBlockEntities().values());
       TypeFilterableList[] var2 = chunk.getEntitySectionArray();
       int var3 = var2.length;
@@ -1041,6 +1122,10 @@ public class ServerWorld extends World implements StructureWorldAccess {
 
    public void updateListeners(BlockPos pos, BlockState oldState, BlockState newState, int flags) {
       this.getChunkManager().markForUpdate(pos);
+      this.updateNavigations(pos, oldState, newState);
+   }
+
+   public void updateNavigations(BlockPos pos, BlockState oldState, BlockState newState) {
       VoxelShape voxelShape = oldState.getCollisionShape(this, pos);
       VoxelShape voxelShape2 = newState.getCollisionShape(this, pos);
       if (VoxelShapes.matchesAnywhere(voxelShape, voxelShape2, BooleanBiFunction.NOT_SAME)) {
@@ -1267,6 +1352,7 @@ public class ServerWorld extends World implements StructureWorldAccess {
    }
 
    public void onBlockChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock) {
+      this.spawnCache.onBlockChanged(pos);
       Optional<PointOfInterestType> optional = PointOfInterestType.from(oldBlock);
       Optional<PointOfInterestType> optional2 = PointOfInterestType.from(newBlock);
       if (!Objects.equals(optional, optional2)) {
@@ -1310,6 +1396,26 @@ public class ServerWorld extends World implements StructureWorldAccess {
       return this.getPointOfInterestStorage().getDistanceFromNearestOccupied(pos);
    }
 
+   public AsyncPathfinder getAsyncPathfinder() {
+      return this.asyncPathfinder;
+   }
+
+   public SensorEntityCache getSensorEntityCache() {
+      return this.sensorEntityCache;
+   }
+
+   public SpawnCache getSpawnCache() {
+      return this.spawnCache;
+   }
+
+   public CrowdCollisionSolver getCrowdCollisionSolver() {
+      return this.crowdCollisionSolver;
+   }
+
+   public BlockEditJobManager getBlockEditJobManager() {
+      return this.blockEditJobManager;
+   }
+
    public RaidManager getRaidManager() {
       return this.raidManager;
    }
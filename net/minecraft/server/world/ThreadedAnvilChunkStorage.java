@@ -621,6 +621,9 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
                if (list != null) {
                   list.forEach(worldChunk2::remove);
                }
+
+               this.world.getSensorEntityCache().onChunkChanged(chunkPos.x, chunkPos.z);
+               this.world.getPathNodeTypeCache().onChunkLoaded(chunkPos.x, chunkPos.z);
             }
 
             return worldChunk2;
@@ -1,17 +1,12 @@
 package net.minecraft.state;
 
-import com.google.common.collect.ArrayTable;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 import com.google.common.collect.UnmodifiableIterator;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Map.Entry;
 import java.util.function.Function;
@@ -36,7 +31,9 @@ public abstract class State<O, S> {
    };
    protected final O owner;
    private final ImmutableMap<Property<?>, Comparable<?>> entries;
-   private Table<Property<?>, Comparable<?>, S> withTable;
+   private StateTable table;
+   private S[] tableStates;
+   private int tableIndex;
    protected final MapCodec<S> codec;
 
    protected State(O owner, ImmutableMap<Property<?>, Comparable<?>> entries, MapCodec<S> codec) {
@@ -82,11 +79,11 @@ public abstract class State<O, S> {
    }
 
    public <T extends Comparable<T>> boolean contains(Property<T> property) {
-      return this.entries.containsKey(property);
+      return this.table != null ? this.table.indexOf(property) >= 0 : this.entries.containsKey(property);
    }
 
    public <T extends Comparable<T>> T get(Property<T> property) {
-      Comparable<?> comparable = (Comparable)this.entries.get(property);
+      Comparable<?> comparable = this.getValue(property);
       if (comparable == null) {
          throw new IllegalArgumentException("Cannot get property " + property + " as it does not exist in " + this.owner);
       } else {
@@ -95,56 +92,58 @@ public abstract class State<O, S> {
    }
 
    public <T extends Comparable<T>> Optional<T> getOrEmpty(Property<T> property) {
-      Comparable<?> comparable = (Comparable)this.entries.get(property);
+      Comparable<?> comparable = this.getValue(property);
       return comparable == null ? Optional.empty() : Optional.of(property.getType().cast(comparable));
    }
 
+   @Nullable
+   private Comparable<?> getValue(Property<?> property) {
+      if (this.table == null) {
+         return (Comparable)this.entries.get(property);
+      } else {
+         int i = this.table.indexOf(property);
+         return i < 0 ? null : this.table.getValue(this.tableIndex, i);
+      }
+   }
+
    public <T extends Comparable<T>, V extends T> S with(Property<T> property, V value) {
-      Comparable<?> comparable = (Comparable)this.entries.get(property);
-      if (comparable == null) {
+      int i = this.table.indexOf(property);
+      if (i < 0) {
          throw new IllegalArgumentException("Cannot set property " + property + " as it does not exist in " + this.owner);
-      } else if (comparable == value) {
-         return this;
       } else {
-         S object = this.withTable.get(property, value);
-         if (object == null) {
+         int j = this.table.getValueIndex(i, value);
+         if (j < 0) {
             throw new IllegalArgumentException("Cannot set property " + property + " to " + value + " on " + this.owner + ", it is not an allowed value");
          } else {
-            return object;
+            return this.tableStates[this.table.getTransition(this.tableIndex, i, j)];
          }
       }
    }
 
-   public void createWithTable(Map<Map<Property<?>, Comparable<?>>, S> states) {
-      if (this.withTable != null) {
+   /**
+    * Links this state to the table of its owner, where it is the state at
+    * the given index of the given states.
+    */
+   void createWithTable(StateTable table, S[] states, int index) {
+      if (this.table != null) {
          throw new IllegalStateException();
       } else {
-         Table<Property<?>, Comparable<?>, S> table = HashBasedTable.create();
-         UnmodifiableIterator var3 = this.entries.entrySet().iterator();
+         UnmodifiableIterator var4 = this.entries.entrySet().iterator();
 
-         while(var3.hasNext()) {
-            Entry<Property<?>, Comparable<?>> entry = (Entry)var3.next();
-            Property<?> property = (Property)entry.getKey();
-            Iterator var6 = property.getValues().iterator();
-
-            while(var6.hasNext()) {
-               Comparable<?> comparable = (Comparable)var6.next();
-               if (comparable != entry.getValue()) {
-                  table.put(property, comparable, states.get(this.toMapWith(property, comparable)));
-               }
+         while(var4.hasNext()) {
+            Entry<Property<?>, Comparable<?>> entry = (Entry)var4.next();
+            int i = table.indexOf((Property)entry.getKey());
+            if (i < 0 || !table.getValue(index, i).equals(entry.getValue())) {
+               throw new IllegalStateException("State " + this + " does not match its place in the state table");
             }
          }
 
-         this.withTable = (Table)(table.isEmpty() ? table : ArrayTable.create(table));
+         this.table = table;
+         this.tableStates = states;
+         this.tableIndex = index;
       }
    }
 
-   private Map<Property<?>, Comparable<?>> toMapWith(Property<?> property, Comparable<?> value) {
-      Map<Property<?>, Comparable<?>> map = Maps.newHashMap(this.entries);
-      map.put(property, value);
-      return map;
-   }
-
    public ImmutableMap<Property<?>, Comparable<?>> getEntries() {
       return this.entries;
    }
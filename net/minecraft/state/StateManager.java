@@ -45,7 +45,6 @@ public class StateManager<O, S extends State<O, S>> {
          entry = (Entry)var7.next();
       }
 
-      Map<Map<Property<?>, Comparable<?>>, S> map = Maps.newLinkedHashMap();
       List<S> list = Lists.newArrayList();
       Stream<List<Pair<Property<?>, Comparable<?>>>> stream = Stream.of(Collections.emptyList());
 
@@ -63,14 +62,13 @@ public class StateManager<O, S extends State<O, S>> {
       stream.forEach((list2) -> {
          ImmutableMap<Property<?>, Comparable<?>> immutableMap = (ImmutableMap)list2.stream().collect(ImmutableMap.toImmutableMap(Pair::getFirst, Pair::getSecond));
          S state = (State)factory.create(object, immutableMap, mapCodec);
-         map.put(immutableMap, state);
          list.add(state);
       });
-      Iterator var13 = list.iterator();
+      StateTable stateTable = StateTable.get(this.properties.values());
+      S[] states = (State[])list.toArray(new State[0]);
 
-      while(var13.hasNext()) {
-         S state = (State)var13.next();
-         state.createWithTable(map);
+      for(int i = 0; i < states.length; ++i) {
+         states[i].createWithTable(stateTable, states, i);
       }
 
       this.states = ImmutableList.copyOf((Collection)list);
@@ -0,0 +1,156 @@
+package net.minecraft.state;
+
+import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.Map;
+import net.minecraft.state.property.Property;
+
+/**
+ * The values and transitions of all states of an owner, in flat arrays, so
+ * that {@link State#get} and {@link State#with} are array loads.
+ *
+ * <p>States are numbered in the order a {@link StateManager} creates them,
+ * where the last property changes fastest. As a table only depends on the
+ * properties, owners with the same properties share the same table.
+ */
+final class StateTable {
+   private static final Map<StateTable.Key, StateTable> TABLES = Maps.newHashMap();
+   private final Property<?>[] properties;
+   private final int[] offsets;
+   private final int rowLength;
+   private final int[] transitions;
+   private final Comparable<?>[] values;
+
+   private StateTable(Property<?>[] properties) {
+      this.properties = properties;
+      this.offsets = new int[properties.length];
+      int[] is = new int[properties.length];
+      int[] js = new int[properties.length];
+      Comparable<?>[][] comparables = new Comparable[properties.length][];
+      int i = 0;
+      int j = 1;
+
+      for(int k = properties.length - 1; k >= 0; --k) {
+         comparables[k] = (Comparable[])properties[k].getValues().toArray(new Comparable[0]);
+         is[k] = comparables[k].length;
+         js[k] = j;
+         j *= is[k];
+      }
+
+      for(int l = 0; l < properties.length; ++l) {
+         this.offsets[l] = i;
+         i += is[l];
+      }
+
+      this.rowLength = i;
+      this.transitions = new int[j * i];
+      this.values = new Comparable[j * properties.length];
+
+      for(int m = 0; m < j; ++m) {
+         for(int n = 0; n < properties.length; ++n) {
+            int o = m / js[n] % is[n];
+            this.values[m * properties.length + n] = comparables[n][o];
+
+            for(int p = 0; p < is[n]; ++p) {
+               this.transitions[m * i + this.offsets[n] + p] = m + (p - o) * js[n];
+            }
+         }
+      }
+
+   }
+
+   /**
+    * Returns the table for the given properties, in the order their states
+    * are created, reusing the table of an earlier owner with the same
+    * properties.
+    */
+   static StateTable get(Collection<Property<?>> properties) {
+      Property<?>[] propertys = (Property[])properties.toArray(new Property[0]);
+      synchronized(TABLES) {
+         return (StateTable)TABLES.computeIfAbsent(new StateTable.Key(propertys), (key) -> {
+            return new StateTable(propertys);
+         });
+      }
+   }
+
+   /**
+    * Returns the index of the property in this table, or {@code -1} if the
+    * states do not have it.
+    */
+   int indexOf(Property<?> property) {
+      for(int i = 0; i < this.properties.length; ++i) {
+         if (this.properties[i] == property) {
+            return i;
+         }
+      }
+
+      for(int j = 0; j < this.properties.length; ++j) {
+         if (this.properties[j].equals(property)) {
+            return j;
+         }
+      }
+
+      return -1;
+   }
+
+   int getValueIndex(int property, Object value) {
+      return this.properties[property].getValueIndex(value);
+   }
+
+   Comparable<?> getValue(int state, int property) {
+      return this.values[state * this.properties.length + property];
+   }
+
+   /**
+    * Returns the number of the state with the value at the given index for
+    * the property, and the same values as the given state otherwise.
+    */
+   int getTransition(int state, int property, int valueIndex) {
+      return this.transitions[state * this.rowLength + this.offsets[property] + valueIndex];
+   }
+
+   /**
+    * Compares properties by identity, as equal properties may still list
+    * their values in a different order.
+    */
+   static final class Key {
+      private final Property<?>[] properties;
+      private final int hashCode;
+
+      private Key(Property<?>[] properties) {
+         this.properties = properties;
+         int i = 1;
+
+         for(int j = 0; j < properties.length; ++j) {
+            i = 31 * i + System.identityHashCode(properties[j]);
+         }
+
+         this.hashCode = i;
+      }
+
+      public boolean equals(Object object) {
+         if (this == object) {
+            return true;
+         } else if (!(object instanceof StateTable.Key)) {
+            return false;
+         } else {
+            Property<?>[] propertys = ((StateTable.Key)object).properties;
+            if (propertys.length != this.properties.length) {
+               return false;
+            } else {
+               for(int i = 0; i < propertys.length; ++i) {
+                  if (propertys[i] != this.properties[i]) {
+                     return false;
+                  }
+               }
+
+               return true;
+            }
+         }
+      }
+
+      public int hashCode() {
+         return this.hashCode;
+      }
+   }
+}
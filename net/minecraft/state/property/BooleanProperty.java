@@ -35,6 +35,14 @@ public class BooleanProperty extends Property<Boolean> {
       return !"true".equals(name) && !"false".equals(name) ? Optional.empty() : Optional.of(Boolean.valueOf(name));
    }
 
+   public int getValueIndex(Object value) {
+      if (value instanceof Boolean) {
+         return (Boolean)value ? 0 : 1;
+      } else {
+         return -1;
+      }
+   }
+
    public String name(Boolean boolean_) {
       return boolean_.toString();
    }
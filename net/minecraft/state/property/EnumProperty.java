@@ -4,6 +4,7 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.UnmodifiableIterator;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -34,10 +35,19 @@ import net.minecraft.util.StringIdentifiable;
 public class EnumProperty<T extends Enum<T> & StringIdentifiable> extends Property<T> {
    private final ImmutableSet<T> values;
    private final Map<String, T> byName = Maps.newHashMap();
+   private final int[] valueIndices;
 
    protected EnumProperty(String name, Class<T> type, Collection<T> values) {
       super(name, type);
       this.values = ImmutableSet.copyOf(values);
+      this.valueIndices = new int[type.getEnumConstants().length];
+      Arrays.fill(this.valueIndices, -1);
+      int i = 0;
+
+      for(UnmodifiableIterator var5 = this.values.iterator(); var5.hasNext(); ++i) {
+         this.valueIndices[((Enum)var5.next()).ordinal()] = i;
+      }
+
       Iterator var4 = values.iterator();
 
       while(var4.hasNext()) {
@@ -60,6 +70,10 @@ public class EnumProperty<T extends Enum<T> & StringIdentifiable> extends Proper
       return Optional.ofNullable(this.byName.get(name));
    }
 
+   public int getValueIndex(Object value) {
+      return this.getType().isInstance(value) ? this.valueIndices[((Enum)value).ordinal()] : -1;
+   }
+
    public String name(T enum_) {
       return ((StringIdentifiable)enum_).asString();
    }
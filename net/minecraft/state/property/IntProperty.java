@@ -2,6 +2,8 @@ package net.minecraft.state.property;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
@@ -14,6 +16,7 @@ import java.util.Set;
  */
 public class IntProperty extends Property<Integer> {
    private final ImmutableSet<Integer> values;
+   private final int[] valueIndices;
 
    protected IntProperty(String name, int min, int max) {
       super(name, Integer.class);
@@ -29,6 +32,13 @@ public class IntProperty extends Property<Integer> {
          }
 
          this.values = ImmutableSet.copyOf((Collection)set);
+         this.valueIndices = new int[max + 1];
+         Arrays.fill(this.valueIndices, -1);
+         int j = 0;
+
+         for(UnmodifiableIterator var6 = this.values.iterator(); var6.hasNext(); ++j) {
+            this.valueIndices[(Integer)var6.next()] = j;
+         }
       }
    }
 
@@ -77,6 +87,15 @@ public class IntProperty extends Property<Integer> {
       }
    }
 
+   public int getValueIndex(Object value) {
+      if (value instanceof Integer) {
+         int i = (Integer)value;
+         return i >= 0 && i < this.valueIndices.length ? this.valueIndices[i] : -1;
+      } else {
+         return -1;
+      }
+   }
+
    public String name(Integer integer) {
       return integer.toString();
    }
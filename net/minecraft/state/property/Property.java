@@ -4,6 +4,7 @@ import com.google.common.base.MoreObjects;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.stream.Stream;
 import net.minecraft.state.State;
@@ -77,6 +78,22 @@ public abstract class Property<T extends Comparable<T>> {
 
    public abstract Optional<T> parse(String name);
 
+   /**
+    * Returns the position of the given value in {@link #getValues()}, or
+    * {@code -1} if it is not a value of this property.
+    */
+   public int getValueIndex(Object value) {
+      int i = 0;
+
+      for(Iterator var3 = this.getValues().iterator(); var3.hasNext(); ++i) {
+         if (var3.next().equals(value)) {
+            return i;
+         }
+      }
+
+      return -1;
+   }
+
    public String toString() {
       return MoreObjects.toStringHelper((Object)this).add("name", this.name).add("clazz", this.type).add("values", this.getValues()).toString();
    }
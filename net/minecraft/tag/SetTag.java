@@ -7,17 +7,49 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import net.minecraft.util.registry.RawIdHolder;
+import org.jetbrains.annotations.Nullable;
 
 public class SetTag<T> implements Tag<T> {
    private final ImmutableList<T> valueList;
    private final Set<T> valueSet;
    @VisibleForTesting
    protected final Class<?> type;
+   /**
+    * The raw ids of the values as a bitset, if all values are {@linkplain
+    * RawIdHolder registered}, or {@code null} otherwise.
+    */
+   @Nullable
+   private final long[] rawIdBits;
 
    protected SetTag(Set<T> values, Class<?> type) {
       this.type = type;
       this.valueSet = values;
       this.valueList = ImmutableList.copyOf((Collection)values);
+      this.rawIdBits = createRawIdBits(this.valueList);
+   }
+
+   @Nullable
+   private static long[] createRawIdBits(List<?> values) {
+      int i = -1;
+
+      for(int j = 0; j < values.size(); ++j) {
+         Object object = values.get(j);
+         if (!(object instanceof RawIdHolder) || ((RawIdHolder)object).getCachedRawId() < 0) {
+            return null;
+         }
+
+         i = Math.max(i, ((RawIdHolder)object).getCachedRawId());
+      }
+
+      long[] ls = new long[(i >> 6) + 1];
+
+      for(int k = 0; k < values.size(); ++k) {
+         int l = ((RawIdHolder)values.get(k)).getCachedRawId();
+         ls[l >> 6] |= 1L << l;
+      }
+
+      return ls;
    }
 
    public static <T> SetTag<T> empty() {
@@ -29,7 +61,22 @@ public class SetTag<T> implements Tag<T> {
    }
 
    public boolean contains(T entry) {
-      return this.type.isInstance(entry) && this.valueSet.contains(entry);
+      if (!this.type.isInstance(entry)) {
+         return false;
+      } else if (this.rawIdBits != null && entry instanceof RawIdHolder) {
+         int i = ((RawIdHolder)entry).getCachedRawId();
+         return i >= 0 && i >> 6 < this.rawIdBits.length && (this.rawIdBits[i >> 6] & 1L << i) != 0L;
+      } else {
+         return this.valueSet.contains(entry);
+      }
+   }
+
+   /**
+    * Returns the size in bytes of the bitset this tag tests its values with,
+    * or {@code -1} if it tests them with a set.
+    */
+   public int getRawIdBitsSize() {
+      return this.rawIdBits == null ? -1 : this.rawIdBits.length * 8;
    }
 
    public List<T> values() {
@@ -23,6 +23,7 @@ import net.minecraft.resource.Resource;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.JsonHelper;
+import net.minecraft.util.Util;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -126,6 +127,7 @@ public class TagGroupLoader<T> {
    }
 
    public TagGroup<T> buildGroup(Map<Identifier, Tag.Builder> tags) {
+      long l = Util.getMeasuringTimeNano();
       Map<Identifier, Tag<T>> map = Maps.newHashMap();
       Function<Identifier, Tag<T>> function = map::get;
       Function function2 = (identifier) -> {
@@ -154,6 +156,23 @@ public class TagGroupLoader<T> {
       tags.forEach((identifier, builder) -> {
          LOGGER.error((String)"Couldn't load {} tag {} as it is missing following references: {}", (Object)this.entryType, identifier, builder.streamUnresolvedEntries(function, function2).map(Objects::toString).collect(Collectors.joining(",")));
       });
+      this.logBuildCost(map, Util.getMeasuringTimeNano() - l);
       return TagGroup.create(map);
    }
+
+   private void logBuildCost(Map<Identifier, Tag<T>> tags, long nanos) {
+      int i = 0;
+      int j = 0;
+      Iterator var6 = tags.values().iterator();
+
+      while(var6.hasNext()) {
+         Tag<T> tag = (Tag)var6.next();
+         if (tag instanceof SetTag && ((SetTag)tag).getRawIdBitsSize() >= 0) {
+            ++i;
+            j += ((SetTag)tag).getRawIdBitsSize();
+         }
+      }
+
+      LOGGER.info((String)"Built {} {} tags in {} ms, {} of them as raw id bitsets taking {} bytes", (Object)tags.size(), this.entryType, nanos / 1000000L, i, j);
+   }
 }
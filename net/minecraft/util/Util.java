@@ -67,6 +67,7 @@ public class Util {
    private static final AtomicInteger NEXT_WORKER_ID = new AtomicInteger(1);
    private static final ExecutorService BOOTSTRAP_EXECUTOR = createWorker("Bootstrap");
    private static final ExecutorService MAIN_WORKER_EXECUTOR = createWorker("Main");
+   private static final ExecutorService PATHFINDING_EXECUTOR = createWorker("Pathfinding");
    private static final ExecutorService IO_WORKER_EXECUTOR = createIoWorker();
    public static LongSupplier nanoTimeSupplier = System::nanoTime;
    public static final UUID NIL_UUID = new UUID(0L, 0L);
@@ -134,9 +135,14 @@ public class Util {
       return IO_WORKER_EXECUTOR;
    }
 
+   public static Executor getPathfindingExecutor() {
+      return PATHFINDING_EXECUTOR;
+   }
+
    public static void shutdownExecutors() {
       attemptShutdown(MAIN_WORKER_EXECUTOR);
       attemptShutdown(IO_WORKER_EXECUTOR);
+      attemptShutdown(PATHFINDING_EXECUTOR);
    }
 
    private static void attemptShutdown(ExecutorService service) {
@@ -28,6 +28,7 @@ public class TypeFilterableList<T> extends AbstractCollection<T> {
    private final Map<Class<?>, List<T>> elementsByType = Maps.newHashMap();
    private final Class<T> elementType;
    private final List<T> allElements = Lists.newArrayList();
+   private int modificationCount;
 
    public TypeFilterableList(Class<T> elementType) {
       this.elementType = elementType;
@@ -45,6 +46,10 @@ public class TypeFilterableList<T> extends AbstractCollection<T> {
          }
       }
 
+      if (bl) {
+         ++this.modificationCount;
+      }
+
       return bl;
    }
 
@@ -60,6 +65,10 @@ public class TypeFilterableList<T> extends AbstractCollection<T> {
          }
       }
 
+      if (bl) {
+         ++this.modificationCount;
+      }
+
       return bl;
    }
 
@@ -107,6 +116,15 @@ public class TypeFilterableList<T> extends AbstractCollection<T> {
       return ImmutableList.copyOf((Collection)this.allElements);
    }
 
+   /**
+    * Returns the number of times elements were added to or removed from this
+    * collection, which lets callers tell whether copies of its elements are
+    * still current.
+    */
+   public int getModificationCount() {
+      return this.modificationCount;
+   }
+
    public int size() {
       return this.allElements.size();
    }
@@ -38,6 +38,9 @@ public class DummyProfiler implements ReadableProfiler {
    public void visit(Supplier<String> markerGetter) {
    }
 
+   public void visit(String marker, int count) {
+   }
+
    public ProfileResult getResult() {
       return EmptyProfileResult.INSTANCE;
    }
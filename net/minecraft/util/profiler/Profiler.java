@@ -43,6 +43,17 @@ public interface Profiler {
     */
    void visit(Supplier<String> markerGetter);
 
+   /**
+    * Increment the visit count for a marker by the given amount.
+    * 
+    * <p>This is useful to report the size of a collection, such as the number
+    * of sleeping block entities, without visiting each element.
+    * 
+    * @param marker a unique marker
+    * @param count the amount to add to the visit count
+    */
+   void visit(String marker, int count);
+
    static Profiler union(final Profiler profiler, final Profiler profiler2) {
       if (profiler == DummyProfiler.INSTANCE) {
          return profiler2;
@@ -93,6 +104,11 @@ public interface Profiler {
                profiler.visit(markerGetter);
                profiler2.visit(markerGetter);
             }
+
+            public void visit(String marker, int count) {
+               profiler.visit(marker, count);
+               profiler2.visit(marker, count);
+            }
          };
       }
    }
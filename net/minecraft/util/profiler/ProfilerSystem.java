@@ -144,6 +144,10 @@ public class ProfilerSystem implements ReadableProfiler {
       this.getCurrentInfo().counts.addTo(markerGetter.get(), 1L);
    }
 
+   public void visit(String marker, int count) {
+      this.getCurrentInfo().counts.addTo(marker, (long)count);
+   }
+
    public ProfileResult getResult() {
       return new ProfileResultImpl(this.locationInfos, this.startTime, this.startTick, this.timeGetter.getAsLong(), this.endTickGetter.getAsInt());
    }
@@ -0,0 +1,19 @@
+package net.minecraft.util.registry;
+
+/**
+ * An object that keeps the raw id it was given by the {@link SimpleRegistry}
+ * it is registered in, so that the id can be read without a registry lookup,
+ * for example to test the object against a {@linkplain
+ * net.minecraft.tag.SetTag tag}.
+ *
+ * <p>Such objects should only be registered in one registry.
+ */
+public interface RawIdHolder {
+   /**
+    * Returns the raw id of this object in its registry, or {@code -1} if it
+    * is not registered.
+    */
+   int getCachedRawId();
+
+   void setCachedRawId(int rawId);
+}
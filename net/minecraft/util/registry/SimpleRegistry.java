@@ -79,6 +79,10 @@ public class SimpleRegistry<T> extends MutableRegistry<T> {
       this.rawIdToEntry.size(Math.max(this.rawIdToEntry.size(), rawId + 1));
       this.rawIdToEntry.set(rawId, entry);
       this.entryToRawId.put(entry, rawId);
+      if (entry instanceof RawIdHolder) {
+         ((RawIdHolder)entry).setCachedRawId(rawId);
+      }
+
       this.randomEntries = null;
       if (checkDuplicateKeys && this.keyToEntry.containsKey(key)) {
          LOGGER.debug((String)"Adding duplicate key '{}' to registry", (Object)key);
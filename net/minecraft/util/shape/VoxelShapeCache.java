@@ -0,0 +1,86 @@
+package net.minecraft.util.shape;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.util.function.BooleanBiFunction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the results of recent operations on pairs of voxel shapes, such
+ * as {@linkplain VoxelShapes#combine combining} or {@linkplain
+ * VoxelShapes#matchesAnywhere comparing} them, which face culling, side
+ * sturdiness checks and collisions repeat with the same shapes over and over.
+ *
+ * <p>Results are kept in a fixed number of slots, picked from the identities
+ * of both shapes and of the function, and a new result replaces whatever was
+ * in its slot. Slots hold immutable entries and are read and written without
+ * locking, so the cache can be used from any thread.
+ */
+public final class VoxelShapeCache {
+   private static final int SIZE = 4096;
+   private final VoxelShapeCache.Entry[] entries = new VoxelShapeCache.Entry[SIZE];
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   private static int getIndex(VoxelShape first, VoxelShape second, BooleanBiFunction function) {
+      int i = (System.identityHashCode(first) * 31 + System.identityHashCode(second)) * 31 + System.identityHashCode(function);
+      return HashCommon.mix(i) & SIZE - 1;
+   }
+
+   @Nullable
+   VoxelShapeCache.Entry get(VoxelShape first, VoxelShape second, BooleanBiFunction function) {
+      VoxelShapeCache.Entry entry = this.entries[getIndex(first, second, function)];
+      if (entry != null && entry.first == first && entry.second == second && entry.function == function) {
+         this.hits.increment();
+         return entry;
+      } else {
+         this.misses.increment();
+         return null;
+      }
+   }
+
+   VoxelShape putShape(VoxelShape first, VoxelShape second, BooleanBiFunction function, VoxelShape result) {
+      this.entries[getIndex(first, second, function)] = new VoxelShapeCache.Entry(first, second, function, result, false);
+      return result;
+   }
+
+   boolean putMatches(VoxelShape first, VoxelShape second, BooleanBiFunction function, boolean result) {
+      this.entries[getIndex(first, second, function)] = new VoxelShapeCache.Entry(first, second, function, (VoxelShape)null, result);
+      return result;
+   }
+
+   public long getHits() {
+      return this.hits.sum();
+   }
+
+   public long getMisses() {
+      return this.misses.sum();
+   }
+
+   /**
+    * Returns the share of lookups that found a result, between {@code 0} and
+    * {@code 1}.
+    */
+   public double getHitRate() {
+      long l = this.getHits();
+      long m = l + this.getMisses();
+      return m == 0L ? 0.0D : (double)l / (double)m;
+   }
+
+   static final class Entry {
+      private final VoxelShape first;
+      private final VoxelShape second;
+      private final BooleanBiFunction function;
+      @Nullable
+      final VoxelShape shape;
+      final boolean matches;
+
+      private Entry(VoxelShape first, VoxelShape second, BooleanBiFunction function, @Nullable VoxelShape shape, boolean matches) {
+         this.first = first;
+         this.second = second;
+         this.function = function;
+         this.shape = shape;
+         this.matches = matches;
+      }
+   }
+}
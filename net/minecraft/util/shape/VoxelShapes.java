@@ -31,6 +31,9 @@ public final class VoxelShapes {
    });
    public static final VoxelShape UNBOUNDED = cuboid(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
    private static final VoxelShape EMPTY = new ArrayVoxelShape(new BitSetVoxelSet(0, 0, 0), new DoubleArrayList(new double[]{0.0D}), new DoubleArrayList(new double[]{0.0D}), new DoubleArrayList(new double[]{0.0D}));
+   private static final VoxelShapeCache COMBINE_CACHE = new VoxelShapeCache();
+   private static final VoxelShapeCache COMBINE_AND_SIMPLIFY_CACHE = new VoxelShapeCache();
+   private static final VoxelShapeCache MATCHES_ANYWHERE_CACHE = new VoxelShapeCache();
 
    public static VoxelShape empty() {
       return EMPTY;
@@ -109,7 +112,8 @@ public final class VoxelShapes {
    }
 
    public static VoxelShape combineAndSimplify(VoxelShape first, VoxelShape second, BooleanBiFunction function) {
-      return combine(first, second, function).simplify();
+      VoxelShapeCache.Entry entry = COMBINE_AND_SIMPLIFY_CACHE.get(first, second, function);
+      return entry != null ? entry.shape : COMBINE_AND_SIMPLIFY_CACHE.putShape(first, second, function, combine(first, second, function).simplify());
    }
 
    public static VoxelShape combine(VoxelShape one, VoxelShape two, BooleanBiFunction function) {
@@ -125,11 +129,16 @@ public final class VoxelShapes {
          } else if (two.isEmpty()) {
             return bl ? one : empty();
          } else {
-            PairList pairList = createListPair(1, one.getPointPositions(Direction.Axis.X), two.getPointPositions(Direction.Axis.X), bl, bl2);
-            PairList pairList2 = createListPair(pairList.getPairs().size() - 1, one.getPointPositions(Direction.Axis.Y), two.getPointPositions(Direction.Axis.Y), bl, bl2);
-            PairList pairList3 = createListPair((pairList.getPairs().size() - 1) * (pairList2.getPairs().size() - 1), one.getPointPositions(Direction.Axis.Z), two.getPointPositions(Direction.Axis.Z), bl, bl2);
-            BitSetVoxelSet bitSetVoxelSet = BitSetVoxelSet.combine(one.voxels, two.voxels, pairList, pairList2, pairList3, function);
-            return (VoxelShape)(pairList instanceof FractionalPairList && pairList2 instanceof FractionalPairList && pairList3 instanceof FractionalPairList ? new SimpleVoxelShape(bitSetVoxelSet) : new ArrayVoxelShape(bitSetVoxelSet, pairList.getPairs(), pairList2.getPairs(), pairList3.getPairs()));
+            VoxelShapeCache.Entry entry = COMBINE_CACHE.get(one, two, function);
+            if (entry != null) {
+               return entry.shape;
+            } else {
+               PairList pairList = createListPair(1, one.getPointPositions(Direction.Axis.X), two.getPointPositions(Direction.Axis.X), bl, bl2);
+               PairList pairList2 = createListPair(pairList.getPairs().size() - 1, one.getPointPositions(Direction.Axis.Y), two.getPointPositions(Direction.Axis.Y), bl, bl2);
+               PairList pairList3 = createListPair((pairList.getPairs().size() - 1) * (pairList2.getPairs().size() - 1), one.getPointPositions(Direction.Axis.Z), two.getPointPositions(Direction.Axis.Z), bl, bl2);
+               BitSetVoxelSet bitSetVoxelSet = BitSetVoxelSet.combine(one.voxels, two.voxels, pairList, pairList2, pairList3, function);
+               return COMBINE_CACHE.putShape(one, two, function, (VoxelShape)(pairList instanceof FractionalPairList && pairList2 instanceof FractionalPairList && pairList3 instanceof FractionalPairList ? new SimpleVoxelShape(bitSetVoxelSet) : new ArrayVoxelShape(bitSetVoxelSet, pairList.getPairs(), pairList2.getPairs(), pairList3.getPairs())));
+            }
          }
       }
    }
@@ -167,6 +176,17 @@ public final class VoxelShapes {
       }
    }
 
+   /**
+    * Like {@link #matchesAnywhere(VoxelShape, VoxelShape, BooleanBiFunction)},
+    * but remembers the result. Only worth it for shapes that are kept around
+    * and compared again, such as the faces of block states when culling faces
+    * or checking sturdiness, as shapes built for a single check never hit.
+    */
+   public static boolean matchesAnywhereCached(VoxelShape shape1, VoxelShape shape2, BooleanBiFunction predicate) {
+      VoxelShapeCache.Entry entry = MATCHES_ANYWHERE_CACHE.get(shape1, shape2, predicate);
+      return entry != null ? entry.matches : MATCHES_ANYWHERE_CACHE.putMatches(shape1, shape2, predicate, matchesAnywhere(shape1, shape2, predicate));
+   }
+
    private static boolean matchesAnywhere(PairList mergedX, PairList mergedY, PairList mergedZ, VoxelSet shape1, VoxelSet shape2, BooleanBiFunction predicate) {
       return !mergedX.forEachPair((x1, x2, index1) -> {
          return mergedY.forEachPair((y1, y2, index2) -> {
@@ -337,6 +357,27 @@ public final class VoxelShapes {
       }
    }
 
+   /**
+    * Returns the cache of {@link #combine} results.
+    */
+   public static VoxelShapeCache getCombineCache() {
+      return COMBINE_CACHE;
+   }
+
+   /**
+    * Returns the cache of {@link #combineAndSimplify} results.
+    */
+   public static VoxelShapeCache getCombineAndSimplifyCache() {
+      return COMBINE_AND_SIMPLIFY_CACHE;
+   }
+
+   /**
+    * Returns the cache of {@link #matchesAnywhereCached} results.
+    */
+   public static VoxelShapeCache getMatchesAnywhereCache() {
+      return MATCHES_ANYWHERE_CACHE;
+   }
+
    @VisibleForTesting
    protected static PairList createListPair(int size, DoubleList first, DoubleList second, boolean includeFirst, boolean includeSecond) {
       int i = first.size() - 1;
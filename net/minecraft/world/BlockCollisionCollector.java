@@ -0,0 +1,229 @@
+package net.minecraft.world;
+
+import java.util.Arrays;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.border.WorldBorder;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the collision shapes around a box into reusable arrays, as an
+ * alternative to streaming them from a {@link BlockCollisionSpliterator}.
+ *
+ * <p>The same blocks are visited in the same order and the same shapes are
+ * kept, except that full cubes are kept as the position of the cube rather
+ * than as an offset shape, and {@link #calculateMaxOffset} computes the same
+ * distances for them as {@link VoxelShape#calculateMaxDistance} would. Other
+ * shapes are only offset once their bounds touch the box.
+ */
+public class BlockCollisionCollector {
+   private final BlockPos.Mutable pos = new BlockPos.Mutable();
+   private int[] cubes;
+   private VoxelShape[] shapes;
+   private int size;
+
+   public void clear() {
+      if (this.shapes != null) {
+         Arrays.fill(this.shapes, 0, this.size, (Object)null);
+      }
+
+      this.size = 0;
+   }
+
+   /**
+    * Returns the shape of the world border if the entity is touching it from
+    * the outside, which then collides with any box tested for the entity.
+    */
+   @Nullable
+   public static VoxelShape getWorldBorderCollision(CollisionView world, Entity entity) {
+      WorldBorder worldBorder = world.getWorldBorder();
+      Box box = entity.getBoundingBox();
+      if (!BlockCollisionSpliterator.isInWorldBorder(worldBorder, box)) {
+         VoxelShape voxelShape = worldBorder.asVoxelShape();
+         if (!VoxelShapes.matchesAnywhere(voxelShape, VoxelShapes.cuboid(box.contract(1.0E-7D)), BooleanBiFunction.AND) && VoxelShapes.matchesAnywhere(voxelShape, VoxelShapes.cuboid(box.expand(1.0E-7D)), BooleanBiFunction.AND)) {
+            return voxelShape;
+         }
+      }
+
+      return null;
+   }
+
+   public boolean isEmpty() {
+      return this.size == 0;
+   }
+
+   /**
+    * Adds a shape that is already in world coordinates, such as the shape of
+    * an entity or of the world border.
+    */
+   public void add(VoxelShape shape) {
+      this.addEntry(shape, 0, 0, 0);
+   }
+
+   private void addEntry(@Nullable VoxelShape shape, int x, int y, int z) {
+      if (this.shapes == null) {
+         this.shapes = new VoxelShape[16];
+         this.cubes = new int[48];
+      } else if (this.size == this.shapes.length) {
+         this.shapes = (VoxelShape[])Arrays.copyOf(this.shapes, this.size * 2);
+         this.cubes = Arrays.copyOf(this.cubes, this.size * 6);
+      }
+
+      this.shapes[this.size] = shape;
+      this.cubes[this.size * 3] = x;
+      this.cubes[this.size * 3 + 1] = y;
+      this.cubes[this.size * 3 + 2] = z;
+      ++this.size;
+   }
+
+   /**
+    * Adds the collision shapes of the blocks touching the box, and of the
+    * world border if the entity is outside of it, like {@link
+    * CollisionView#getBlockCollisions(Entity, Box)} streams them.
+    *
+    * @return whether any shape was found
+    *
+    * @param firstOnly whether to stop at the first shape found without adding it
+    */
+   public boolean collect(CollisionView world, @Nullable Entity entity, Box box, ShapeContext context, boolean firstOnly) {
+      if (entity != null) {
+         VoxelShape voxelShape = getWorldBorderCollision(world, entity);
+         if (voxelShape != null) {
+            if (firstOnly) {
+               return true;
+            }
+
+            this.add(voxelShape);
+         }
+      }
+
+      int i = MathHelper.floor(box.minX - 1.0E-7D) - 1;
+      int j = MathHelper.floor(box.maxX + 1.0E-7D) + 1;
+      int k = MathHelper.floor(box.minY - 1.0E-7D) - 1;
+      int l = MathHelper.floor(box.maxY + 1.0E-7D) + 1;
+      int m = MathHelper.floor(box.minZ - 1.0E-7D) - 1;
+      int n = MathHelper.floor(box.maxZ + 1.0E-7D) + 1;
+      int o = this.size;
+      VoxelShape voxelShape2 = null;
+      BlockView blockView = null;
+      int p = Integer.MAX_VALUE;
+      int q = Integer.MAX_VALUE;
+
+      for(int r = m; r <= n; ++r) {
+         for(int s = k; s <= l; ++s) {
+            for(int t = i; t <= j; ++t) {
+               int u = (t == i || t == j ? 1 : 0) + (s == k || s == l ? 1 : 0) + (r == m || r == n ? 1 : 0);
+               if (u != 3) {
+                  if (t >> 4 != p || r >> 4 != q) {
+                     p = t >> 4;
+                     q = r >> 4;
+                     blockView = world.getChunkAsView(p, q);
+                  }
+
+                  if (blockView != null) {
+                     this.pos.set(t, s, r);
+                     BlockState blockState = blockView.getBlockState(this.pos);
+                     if ((u != 1 || blockState.exceedsCube()) && (u != 2 || blockState.isOf(Blocks.MOVING_PISTON))) {
+                        VoxelShape voxelShape3 = blockState.getCollisionShape(world, this.pos, context);
+                        if (voxelShape3 == VoxelShapes.fullCube()) {
+                           if (box.intersects((double)t, (double)s, (double)r, (double)t + 1.0D, (double)s + 1.0D, (double)r + 1.0D)) {
+                              if (firstOnly) {
+                                 return true;
+                              }
+
+                              this.addEntry((VoxelShape)null, t, s, r);
+                           }
+                        } else if (!voxelShape3.isEmpty() && box.intersects((double)t + voxelShape3.getMin(Direction.Axis.X), (double)s + voxelShape3.getMin(Direction.Axis.Y), (double)r + voxelShape3.getMin(Direction.Axis.Z), (double)t + voxelShape3.getMax(Direction.Axis.X), (double)s + voxelShape3.getMax(Direction.Axis.Y), (double)r + voxelShape3.getMax(Direction.Axis.Z))) {
+                           VoxelShape voxelShape4 = voxelShape3.offset((double)t, (double)s, (double)r);
+                           if (voxelShape2 == null) {
+                              voxelShape2 = VoxelShapes.cuboid(box);
+                           }
+
+                           if (VoxelShapes.matchesAnywhere(voxelShape4, voxelShape2, BooleanBiFunction.AND)) {
+                              if (firstOnly) {
+                                 return true;
+                              }
+
+                              this.add(voxelShape4);
+                           }
+                        }
+                     }
+                  }
+               }
+            }
+         }
+      }
+
+      return this.size > o;
+   }
+
+   /**
+    * Returns how far the box can move along the axis, up to the given
+    * distance, before touching any of the collected shapes, like {@link
+    * VoxelShapes#calculateMaxOffset} over the same shapes.
+    */
+   public double calculateMaxOffset(Direction.Axis axis, Box box, double maxDist) {
+      for(int i = 0; i < this.size; ++i) {
+         if (Math.abs(maxDist) < 1.0E-7D) {
+            return 0.0D;
+         }
+
+         VoxelShape voxelShape = this.shapes[i];
+         if (voxelShape != null) {
+            maxDist = voxelShape.calculateMaxDistance(axis, box, maxDist);
+         } else {
+            maxDist = calculateCubeMaxDistance(axis, box, this.cubes[i * 3], this.cubes[i * 3 + 1], this.cubes[i * 3 + 2], maxDist);
+         }
+      }
+
+      return maxDist;
+   }
+
+   private static double calculateCubeMaxDistance(Direction.Axis axis, Box box, int x, int y, int z, double maxDist) {
+      if (Math.abs(maxDist) < 1.0E-7D) {
+         return 0.0D;
+      } else if (!overlaps(axis, Direction.Axis.X, box, x) || !overlaps(axis, Direction.Axis.Y, box, y) || !overlaps(axis, Direction.Axis.Z, box, z)) {
+         return maxDist;
+      } else {
+         double d = (double)axis.choose(x, y, z);
+         double e;
+         if (maxDist > 0.0D) {
+            e = box.getMax(axis);
+            if (e - 1.0E-7D < d) {
+               double f = d - e;
+               if (f >= -1.0E-7D) {
+                  maxDist = Math.min(maxDist, f);
+               }
+            }
+         } else if (maxDist < 0.0D) {
+            e = box.getMin(axis);
+            if (e + 1.0E-7D >= d + 1.0D) {
+               double g = d + 1.0D - e;
+               if (g <= 1.0E-7D) {
+                  maxDist = Math.max(maxDist, g);
+               }
+            }
+         }
+
+         return maxDist;
+      }
+   }
+
+   /**
+    * Returns whether the box overlaps the cube at the given coordinate along
+    * an axis other than the one moved along, with the same tolerance as
+    * voxel shapes.
+    */
+   private static boolean overlaps(Direction.Axis movementAxis, Direction.Axis axis, Box box, int coord) {
+      return axis == movementAxis || box.getMin(axis) + 1.0E-7D < (double)coord + 1.0D && box.getMax(axis) - 1.0E-7D >= (double)coord;
+   }
+}
@@ -276,11 +276,11 @@ public class ChunkSerializer {
             }
 
             if (chunkNibbleArray != null && !chunkNibbleArray.isUninitialized()) {
-               nbtCompound7.putByteArray("BlockLight", chunkNibbleArray.asByteArray());
+               nbtCompound7.putByteArray("BlockLight", chunkNibbleArray.asReadOnlyByteArray());
             }
 
             if (chunkNibbleArray2 != null && !chunkNibbleArray2.isUninitialized()) {
-               nbtCompound7.putByteArray("SkyLight", chunkNibbleArray2.asByteArray());
+               nbtCompound7.putByteArray("SkyLight", chunkNibbleArray2.asReadOnlyByteArray());
             }
 
             nbtList.add(nbtCompound7);
@@ -54,7 +54,7 @@ public interface CollisionView extends BlockView {
    }
 
    default boolean isSpaceEmpty(@Nullable Entity entity, Box box, Predicate<Entity> predicate) {
-      return this.getCollisions(entity, box, predicate).allMatch(VoxelShape::isEmpty);
+      return !(new BlockCollisionCollector()).collect(this, entity, box, entity == null ? ShapeContext.absent() : ShapeContext.of(entity), true) && this.getEntityCollisions(entity, box, predicate).allMatch(VoxelShape::isEmpty);
    }
 
    Stream<VoxelShape> getEntityCollisions(@Nullable Entity entity, Box box, Predicate<Entity> predicate);
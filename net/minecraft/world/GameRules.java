@@ -110,6 +110,9 @@ public class GameRules {
    public static final GameRules.Key<GameRules.BooleanRule> DO_TRADER_SPAWNING;
    public static final GameRules.Key<GameRules.BooleanRule> FORGIVE_DEAD_PLAYERS;
    public static final GameRules.Key<GameRules.BooleanRule> UNIVERSAL_ANGER;
+   public static final GameRules.Key<GameRules.BooleanRule> STACK_TNT_AND_FALLING_BLOCKS;
+   public static final GameRules.Key<GameRules.BooleanRule> PER_PLAYER_MOB_CAP;
+   public static final GameRules.Key<GameRules.BooleanRule> CROWD_COLLISIONS;
    private final Map<GameRules.Key<?>, GameRules.Rule<?>> rules;
 
    private static <T extends GameRules.Rule<T>> GameRules.Key<T> register(String name, GameRules.Category category, GameRules.Type<T> type) {
@@ -249,6 +252,9 @@ public class GameRules {
       DO_TRADER_SPAWNING = register("doTraderSpawning", GameRules.Category.SPAWNING, GameRules.BooleanRule.create(true));
       FORGIVE_DEAD_PLAYERS = register("forgiveDeadPlayers", GameRules.Category.MOBS, GameRules.BooleanRule.create(true));
       UNIVERSAL_ANGER = register("universalAnger", GameRules.Category.MOBS, GameRules.BooleanRule.create(false));
+      STACK_TNT_AND_FALLING_BLOCKS = register("stackTntAndFallingBlocks", GameRules.Category.UPDATES, GameRules.BooleanRule.create(false));
+      PER_PLAYER_MOB_CAP = register("perPlayerMobCap", GameRules.Category.SPAWNING, GameRules.BooleanRule.create(false));
+      CROWD_COLLISIONS = register("crowdCollisions", GameRules.Category.MOBS, GameRules.BooleanRule.create(false));
    }
 
    public static class BooleanRule extends GameRules.Rule<GameRules.BooleanRule> {
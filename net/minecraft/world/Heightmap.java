@@ -106,6 +106,28 @@ public class Heightmap {
       }
    }
 
+   /**
+    * Updates the height of a column after any number of its blocks changed,
+    * none of them above {@code maxY}, like {@link #trackUpdate} would after
+    * each of them.
+    */
+   public void trackUpdates(int x, int z, int maxY) {
+      int i = this.get(x, z);
+      if (maxY > i - 2) {
+         BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+         for(int j = Math.max(i - 1, maxY); j >= 0; --j) {
+            mutable.set(x, j, z);
+            if (this.blockPredicate.test(this.chunk.getBlockState(mutable))) {
+               this.set(x, z, j + 1);
+               return;
+            }
+         }
+
+         this.set(x, z, 0);
+      }
+   }
+
    public int get(int x, int z) {
       return this.get(toIndex(x, z));
    }
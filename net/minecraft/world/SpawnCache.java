@@ -0,0 +1,355 @@
+package net.minecraft.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.entity.SpawnRestriction;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.SpawnSettings;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caches what {@link SpawnHelper} looks up about the chunks it tries to
+ * spawn mobs in.
+ *
+ * <p>What never changes while a chunk is loaded is kept per chunk section:
+ * the biome of the section, if all of its blocks are in the same biome, and
+ * the spawn entries of each spawn group there, if no structure reaches into
+ * the chunk. The {@linkplain Heightmap.Type#WORLD_SURFACE surface height} of
+ * each column and the results of the {@linkplain
+ * SpawnHelper#canSpawn(SpawnRestriction.Location, WorldView, BlockPos,
+ * EntityType) location checks} of each position are dropped when a block of
+ * the column, or of the section or a section next to it vertically,
+ * changes. Checks that depend on light, entities or randomness are never
+ * cached. At most {@value #MAX_POSITIONS_PER_CHUNK} positions of a chunk
+ * keep location checks; the checks of the whole chunk are dropped before
+ * more are added.
+ *
+ * <p>Also counts spawn attempts, spawned mobs and cache hits and misses by
+ * spawn group.
+ */
+public class SpawnCache {
+   private static final int MAX_POSITIONS_PER_CHUNK = 512;
+   private static final SpawnGroup[] GROUPS = SpawnGroup.values();
+   private static final String[] ATTEMPT_MARKERS = createMarkers("spawnAttempt.");
+   private static final String[] SUCCESS_MARKERS = createMarkers("spawnSuccess.");
+   private static final String[] HIT_MARKERS = createMarkers("spawnCacheHit.");
+   private static final String[] MISS_MARKERS = createMarkers("spawnCacheMiss.");
+   private final ServerWorld world;
+   private final Long2ObjectMap<SpawnCache.Column> columns = new Long2ObjectOpenHashMap();
+   private final long[] attempts;
+   private final long[] successes;
+   private final long[] hits;
+   private final long[] misses;
+   private final int[] tickHits;
+   private final int[] tickMisses;
+
+   public SpawnCache(ServerWorld world) {
+      this.world = world;
+      this.attempts = new long[GROUPS.length];
+      this.successes = new long[GROUPS.length];
+      this.hits = new long[GROUPS.length];
+      this.misses = new long[GROUPS.length];
+      this.tickHits = new int[GROUPS.length];
+      this.tickMisses = new int[GROUPS.length];
+   }
+
+   private static String[] createMarkers(String prefix) {
+      String[] strings = new String[GROUPS.length];
+
+      for(int i = 0; i < GROUPS.length; ++i) {
+         strings[i] = prefix + GROUPS[i].getName();
+      }
+
+      return strings;
+   }
+
+   private SpawnCache.Column getColumn(int chunkX, int chunkZ) {
+      long l = ChunkPos.toLong(chunkX, chunkZ);
+      SpawnCache.Column column = (SpawnCache.Column)this.columns.get(l);
+      if (column == null) {
+         column = new SpawnCache.Column(this.world.getChunk(chunkX, chunkZ));
+         this.columns.put(l, column);
+      }
+
+      return column;
+   }
+
+   @Nullable
+   private SpawnCache.Section getSection(BlockPos pos) {
+      if (World.isOutOfBuildLimitVertically(pos)) {
+         return null;
+      } else {
+         int i = pos.getX() >> 4;
+         int j = pos.getZ() >> 4;
+         SpawnCache.Column column = this.getColumn(i, j);
+         int k = pos.getY() >> 4;
+         SpawnCache.Section section = column.sections[k];
+         if (section == null) {
+            section = new SpawnCache.Section(column, this.findUniformBiome(i, k, j));
+            column.sections[k] = section;
+         }
+
+         return section;
+      }
+   }
+
+   /**
+    * Returns the biome all blocks of the section are in, or {@code null} if
+    * they are not all in the same biome. The biome of a block is picked from
+    * the noise biomes next to it, so all noise biomes within one of the
+    * section are looked at.
+    */
+   @Nullable
+   private Biome findUniformBiome(int sectionX, int sectionY, int sectionZ) {
+      Biome biome = null;
+
+      for(int i = (sectionX << 2) - 1; i <= (sectionX << 2) + 4; ++i) {
+         for(int j = (sectionY << 2) - 1; j <= (sectionY << 2) + 4; ++j) {
+            for(int k = (sectionZ << 2) - 1; k <= (sectionZ << 2) + 4; ++k) {
+               Biome biome2 = this.world.getBiomeForNoiseGen(i, j, k);
+               if (biome == null) {
+                  biome = biome2;
+               } else if (biome2 != biome) {
+                  return null;
+               }
+            }
+         }
+      }
+
+      return biome;
+   }
+
+   private void count(SpawnGroup group, boolean hit) {
+      if (hit) {
+         ++this.tickHits[group.ordinal()];
+      } else {
+         ++this.tickMisses[group.ordinal()];
+      }
+
+   }
+
+   public Biome getBiome(SpawnGroup group, BlockPos pos) {
+      SpawnCache.Section section = this.getSection(pos);
+      Biome biome = section != null ? section.biome : null;
+      this.count(group, biome != null);
+      return biome != null ? biome : this.world.getBiome(pos);
+   }
+
+   /**
+    * Returns the cached spawn entries of the spawn group at the position, or
+    * {@code null} if they have to be looked up.
+    */
+   @Nullable
+   public List<SpawnSettings.SpawnEntry> getSpawnEntries(SpawnGroup group, BlockPos pos) {
+      SpawnCache.Section section = this.getSection(pos);
+      List<SpawnSettings.SpawnEntry> list = section != null ? section.spawnEntries[group.ordinal()] : null;
+      this.count(group, list != null);
+      return list;
+   }
+
+   /**
+    * Keeps the spawn entries looked up at the position for the whole section,
+    * if they cannot differ within it.
+    */
+   public void putSpawnEntries(SpawnGroup group, BlockPos pos, List<SpawnSettings.SpawnEntry> spawnEntries) {
+      SpawnCache.Section section = this.getSection(pos);
+      if (section != null && section.biome != null && !section.column.hasStructures) {
+         section.spawnEntries[group.ordinal()] = spawnEntries;
+      }
+
+   }
+
+   /**
+    * Returns the cached result of the location check of the entity type at
+    * the position, or {@code null} if it has not been checked yet.
+    */
+   @Nullable
+   public Boolean getLocationCheck(SpawnGroup group, BlockPos pos, EntityType<?> entityType) {
+      SpawnCache.Section section = this.getSection(pos);
+      Int2ObjectMap<Reference2BooleanMap<EntityType<?>>> int2ObjectMap = section != null ? section.locationChecks : null;
+      Reference2BooleanMap<EntityType<?>> reference2BooleanMap = int2ObjectMap != null ? (Reference2BooleanMap)int2ObjectMap.get(getIndex(pos)) : null;
+      if (reference2BooleanMap != null && reference2BooleanMap.containsKey(entityType)) {
+         this.count(group, true);
+         return reference2BooleanMap.getBoolean(entityType);
+      } else {
+         this.count(group, false);
+         return null;
+      }
+   }
+
+   public void putLocationCheck(BlockPos pos, EntityType<?> entityType, boolean result) {
+      SpawnCache.Section section = this.getSection(pos);
+      if (section != null) {
+         int i = getIndex(pos);
+         Reference2BooleanMap<EntityType<?>> reference2BooleanMap = section.locationChecks != null ? (Reference2BooleanMap)section.locationChecks.get(i) : null;
+         if (reference2BooleanMap == null) {
+            if (section.column.locationCheckCount >= MAX_POSITIONS_PER_CHUNK) {
+               section.column.clearLocationChecks();
+            }
+
+            if (section.locationChecks == null) {
+               section.locationChecks = new Int2ObjectOpenHashMap();
+            }
+
+            reference2BooleanMap = new Reference2BooleanOpenHashMap();
+            section.locationChecks.put(i, reference2BooleanMap);
+            ++section.column.locationCheckCount;
+         }
+
+         reference2BooleanMap.put(entityType, result);
+      }
+   }
+
+   /**
+    * Returns the height of the {@link Heightmap.Type#WORLD_SURFACE} heightmap
+    * of the chunk at the given column.
+    */
+   public int getSurfaceHeight(SpawnGroup group, WorldChunk chunk, int x, int z) {
+      SpawnCache.Column column = this.getColumn(chunk.getPos().x, chunk.getPos().z);
+      int i = (z & 15) << 4 | x & 15;
+      int j = column.surfaceHeights[i];
+      if (j == Integer.MIN_VALUE) {
+         this.count(group, false);
+         j = chunk.sampleHeightmap(Heightmap.Type.WORLD_SURFACE, x, z);
+         column.surfaceHeights[i] = j;
+      } else {
+         this.count(group, true);
+      }
+
+      return j;
+   }
+
+   private static int getIndex(BlockPos pos) {
+      return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | pos.getX() & 15;
+   }
+
+   public void onBlockChanged(BlockPos pos) {
+      if (!this.columns.isEmpty()) {
+         SpawnCache.Column column = (SpawnCache.Column)this.columns.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+         if (column != null) {
+            column.surfaceHeights[(pos.getZ() & 15) << 4 | pos.getX() & 15] = Integer.MIN_VALUE;
+            int i = Math.max(pos.getY() - 1 >> 4, 0);
+            int j = Math.min(pos.getY() + 1 >> 4, 15);
+
+            for(int k = i; k <= j; ++k) {
+               SpawnCache.Section section = column.sections[k];
+               if (section != null) {
+                  section.clearLocationChecks();
+               }
+            }
+         }
+
+      }
+   }
+
+   public void onChunkUnloaded(int chunkX, int chunkZ) {
+      this.columns.remove(ChunkPos.toLong(chunkX, chunkZ));
+   }
+
+   public void addStats(SpawnGroup group, int attempts, int successes) {
+      int i = group.ordinal();
+      this.attempts[i] += (long)attempts;
+      this.successes[i] += (long)successes;
+      this.hits[i] += (long)this.tickHits[i];
+      this.misses[i] += (long)this.tickMisses[i];
+      Profiler profiler = this.world.getProfiler();
+      profiler.visit(ATTEMPT_MARKERS[i], attempts);
+      profiler.visit(SUCCESS_MARKERS[i], successes);
+      profiler.visit(HIT_MARKERS[i], this.tickHits[i]);
+      profiler.visit(MISS_MARKERS[i], this.tickMisses[i]);
+      this.tickHits[i] = 0;
+      this.tickMisses[i] = 0;
+   }
+
+   public long getAttempts(SpawnGroup group) {
+      return this.attempts[group.ordinal()];
+   }
+
+   public long getSuccesses(SpawnGroup group) {
+      return this.successes[group.ordinal()];
+   }
+
+   public double getHitRate(SpawnGroup group) {
+      long l = this.hits[group.ordinal()];
+      long m = l + this.misses[group.ordinal()];
+      return m == 0L ? 0.0D : (double)l / (double)m;
+   }
+
+   static class Column {
+      private final boolean hasStructures;
+      private final int[] surfaceHeights = new int[256];
+      private final SpawnCache.Section[] sections = new SpawnCache.Section[16];
+      private int locationCheckCount;
+
+      private Column(WorldChunk chunk) {
+         this.hasStructures = hasStructures(chunk);
+         Arrays.fill(this.surfaceHeights, Integer.MIN_VALUE);
+      }
+
+      /**
+       * Returns whether any structure reaches into the chunk, in which case
+       * the spawn entries may differ from block to block.
+       */
+      private static boolean hasStructures(WorldChunk chunk) {
+         Iterator var1 = chunk.getStructureReferences().values().iterator();
+
+         LongSet longSet;
+         do {
+            if (!var1.hasNext()) {
+               return false;
+            }
+
+            longSet = (LongSet)var1.next();
+         } while(longSet.isEmpty());
+
+         return true;
+      }
+
+      private void clearLocationChecks() {
+         for(int i = 0; i < this.sections.length; ++i) {
+            if (this.sections[i] != null) {
+               this.sections[i].clearLocationChecks();
+            }
+         }
+
+      }
+   }
+
+   static class Section {
+      private final SpawnCache.Column column;
+      @Nullable
+      private final Biome biome;
+      private final List<SpawnSettings.SpawnEntry>[] spawnEntries;
+      @Nullable
+      private Int2ObjectMap<Reference2BooleanMap<EntityType<?>>> locationChecks;
+
+      private Section(SpawnCache.Column column, @Nullable Biome biome) {
+         this.column = column;
+         this.biome = biome;
+         this.spawnEntries = new List[SpawnCache.GROUPS.length];
+      }
+
+      private void clearLocationChecks() {
+         if (this.locationChecks != null) {
+            this.column.locationCheckCount -= this.locationChecks.size();
+            this.locationChecks = null;
+         }
+
+      }
+   }
+}
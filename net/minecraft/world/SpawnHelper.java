@@ -57,19 +57,28 @@ public final class SpawnHelper {
    });
 
    public static SpawnHelper.Info setupSpawn(int spawningChunkCount, Iterable<Entity> entities, SpawnHelper.ChunkSource chunkSource) {
+      return setupSpawn(spawningChunkCount, entities, chunkSource, (List)null);
+   }
+
+   /**
+    * @param players the players whose local mob caps limit spawning, or {@code
+    * null} to limit spawning by the mob cap shared by all spawning chunks
+    */
+   public static SpawnHelper.Info setupSpawn(int spawningChunkCount, Iterable<Entity> entities, SpawnHelper.ChunkSource chunkSource, @Nullable List<? extends PlayerEntity> players) {
       GravityField gravityField = new GravityField();
       Object2IntOpenHashMap<SpawnGroup> object2IntOpenHashMap = new Object2IntOpenHashMap();
-      Iterator var5 = entities.iterator();
+      SpawnHelper.Info info = new SpawnHelper.Info(spawningChunkCount, object2IntOpenHashMap, gravityField, players);
+      Iterator var6 = entities.iterator();
 
       while(true) {
          Entity entity;
          MobEntity mobEntity;
          do {
-            if (!var5.hasNext()) {
-               return new SpawnHelper.Info(spawningChunkCount, object2IntOpenHashMap, gravityField);
+            if (!var6.hasNext()) {
+               return info;
             }
 
-            entity = (Entity)var5.next();
+            entity = (Entity)var6.next();
             if (!(entity instanceof MobEntity)) {
                break;
             }
@@ -88,6 +97,7 @@ public final class SpawnHelper {
                }
 
                object2IntOpenHashMap.addTo(spawnGroup, 1);
+               info.addToPlayerCounts(blockPos, spawnGroup);
             });
          }
       }
@@ -104,7 +114,7 @@ public final class SpawnHelper {
 
       for(int var8 = 0; var8 < var7; ++var8) {
          SpawnGroup spawnGroup = var6[var8];
-         if ((spawnAnimals || !spawnGroup.isPeaceful()) && (spawnMonsters || spawnGroup.isPeaceful()) && (rareSpawn || !spawnGroup.isRare()) && info.isBelowCap(spawnGroup)) {
+         if ((spawnAnimals || !spawnGroup.isPeaceful()) && (spawnMonsters || spawnGroup.isPeaceful()) && (rareSpawn || !spawnGroup.isRare()) && info.isBelowCap(spawnGroup, chunk.getPos())) {
             spawnEntitiesInChunk(spawnGroup, world, chunk, (entityType, blockPos, chunkx) -> {
                return info.test(entityType, blockPos, chunkx);
             }, (mobEntity, chunkx) -> {
@@ -117,7 +127,7 @@ public final class SpawnHelper {
    }
 
    public static void spawnEntitiesInChunk(SpawnGroup group, ServerWorld world, WorldChunk chunk, SpawnHelper.Checker checker, SpawnHelper.Runner runner) {
-      BlockPos blockPos = getSpawnPos(world, chunk);
+      BlockPos blockPos = getSpawnPos(world, chunk, group);
       if (blockPos.getY() >= 1) {
          spawnEntitiesInChunk(group, world, chunk, blockPos, checker, runner);
       }
@@ -129,8 +139,10 @@ public final class SpawnHelper {
       int i = pos.getY();
       BlockState blockState = chunk.getBlockState(pos);
       if (!blockState.isSolidBlock(chunk, pos)) {
+         SpawnCache spawnCache = world.getSpawnCache();
          BlockPos.Mutable mutable = new BlockPos.Mutable();
          int j = 0;
+         int r = 0;
 
          for(int k = 0; k < 3; ++k) {
             int l = pos.getX();
@@ -142,6 +154,7 @@ public final class SpawnHelper {
             int p = 0;
 
             for(int q = 0; q < o; ++q) {
+               ++r;
                l += world.random.nextInt(6) - world.random.nextInt(6);
                m += world.random.nextInt(6) - world.random.nextInt(6);
                mutable.set(l, i, m);
@@ -163,6 +176,7 @@ public final class SpawnHelper {
                      if (canSpawn(world, group, structureAccessor, chunkGenerator, spawnEntry, mutable, f) && checker.test(spawnEntry.type, mutable, chunk)) {
                         MobEntity mobEntity = createMob(world, spawnEntry.type);
                         if (mobEntity == null) {
+                           spawnCache.addStats(group, r, j);
                            return;
                         }
 
@@ -174,6 +188,7 @@ public final class SpawnHelper {
                            world.spawnEntityAndPassengers(mobEntity);
                            runner.run(mobEntity, chunk);
                            if (j >= mobEntity.getLimitPerChunk()) {
+                              spawnCache.addStats(group, r, j);
                               return;
                            }
 
@@ -187,6 +202,7 @@ public final class SpawnHelper {
             }
          }
 
+         spawnCache.addStats(group, r, j);
       }
    }
 
@@ -207,9 +223,9 @@ public final class SpawnHelper {
          return false;
       } else if (!entityType.isSpawnableFarFromPlayer() && squaredDistance > (double)(entityType.getSpawnGroup().getImmediateDespawnRange() * entityType.getSpawnGroup().getImmediateDespawnRange())) {
          return false;
-      } else if (entityType.isSummonable() && containsSpawnEntry(world, structureAccessor, chunkGenerator, group, spawnEntry, pos)) {
+      } else if (entityType.isSummonable() && getSpawnEntries(world, structureAccessor, chunkGenerator, group, pos).contains(spawnEntry)) {
          SpawnRestriction.Location location = SpawnRestriction.getLocation(entityType);
-         if (!canSpawn(location, world, pos, entityType)) {
+         if (!canSpawn(location, world, group, pos, entityType)) {
             return false;
          } else if (!SpawnRestriction.canSpawn(entityType, world, SpawnReason.NATURAL, pos, world.random)) {
             return false;
@@ -247,28 +263,35 @@ public final class SpawnHelper {
 
    @Nullable
    private static SpawnSettings.SpawnEntry pickRandomSpawnEntry(ServerWorld serverWorld, StructureAccessor structureAccessor, ChunkGenerator chunkGenerator, SpawnGroup spawnGroup, Random random, BlockPos blockPos) {
-      Biome biome = serverWorld.getBiome(blockPos);
+      Biome biome = serverWorld.getSpawnCache().getBiome(spawnGroup, blockPos);
       if (spawnGroup == SpawnGroup.WATER_AMBIENT && biome.getCategory() == Biome.Category.RIVER && random.nextFloat() < 0.98F) {
          return null;
       } else {
-         List<SpawnSettings.SpawnEntry> list = method_29950(serverWorld, structureAccessor, chunkGenerator, spawnGroup, blockPos, biome);
+         List<SpawnSettings.SpawnEntry> list = getSpawnEntries(serverWorld, structureAccessor, chunkGenerator, spawnGroup, blockPos);
          return list.isEmpty() ? null : (SpawnSettings.SpawnEntry)WeightedPicker.getRandom(random, list);
       }
    }
 
-   private static boolean containsSpawnEntry(ServerWorld world, StructureAccessor structureAccessor, ChunkGenerator chunkGenerator, SpawnGroup spawnGroup, SpawnSettings.SpawnEntry spawnEntry, BlockPos pos) {
-      return method_29950(world, structureAccessor, chunkGenerator, spawnGroup, pos, (Biome)null).contains(spawnEntry);
+   private static List<SpawnSettings.SpawnEntry> getSpawnEntries(ServerWorld world, StructureAccessor structureAccessor, ChunkGenerator chunkGenerator, SpawnGroup spawnGroup, BlockPos pos) {
+      SpawnCache spawnCache = world.getSpawnCache();
+      List<SpawnSettings.SpawnEntry> list = spawnCache.getSpawnEntries(spawnGroup, pos);
+      if (list == null) {
+         list = method_29950(world, structureAccessor, chunkGenerator, spawnGroup, pos, spawnCache.getBiome(spawnGroup, pos));
+         spawnCache.putSpawnEntries(spawnGroup, pos, list);
+      }
+
+      return list;
    }
 
    private static List<SpawnSettings.SpawnEntry> method_29950(ServerWorld serverWorld, StructureAccessor structureAccessor, ChunkGenerator chunkGenerator, SpawnGroup spawnGroup, BlockPos blockPos, @Nullable Biome biome) {
       return spawnGroup == SpawnGroup.MONSTER && serverWorld.getBlockState(blockPos.down()).getBlock() == Blocks.NETHER_BRICKS && structureAccessor.getStructureAt(blockPos, false, StructureFeature.FORTRESS).hasChildren() ? StructureFeature.FORTRESS.getMonsterSpawns() : chunkGenerator.getEntitySpawnList(biome != null ? biome : serverWorld.getBiome(blockPos), structureAccessor, spawnGroup, blockPos);
    }
 
-   private static BlockPos getSpawnPos(World world, WorldChunk chunk) {
+   private static BlockPos getSpawnPos(ServerWorld world, WorldChunk chunk, SpawnGroup group) {
       ChunkPos chunkPos = chunk.getPos();
       int i = chunkPos.getStartX() + world.random.nextInt(16);
       int j = chunkPos.getStartZ() + world.random.nextInt(16);
-      int k = chunk.sampleHeightmap(Heightmap.Type.WORLD_SURFACE, i, j) + 1;
+      int k = world.getSpawnCache().getSurfaceHeight(group, chunk, i, j) + 1;
       int l = world.random.nextInt(k + 1);
       return new BlockPos(i, l, j);
    }
@@ -314,6 +337,21 @@ public final class SpawnHelper {
       }
    }
 
+   private static boolean canSpawn(SpawnRestriction.Location location, ServerWorld world, SpawnGroup group, BlockPos pos, EntityType<?> entityType) {
+      if (location != SpawnRestriction.Location.NO_RESTRICTIONS && !world.getWorldBorder().contains(pos)) {
+         return false;
+      } else {
+         SpawnCache spawnCache = world.getSpawnCache();
+         Boolean boolean_ = spawnCache.getLocationCheck(group, pos, entityType);
+         if (boolean_ == null) {
+            boolean_ = canSpawn(location, world, pos, entityType);
+            spawnCache.putLocationCheck(pos, entityType, boolean_);
+         }
+
+         return boolean_;
+      }
+   }
+
    public static void populateEntities(ServerWorldAccess serverWorldAccess, Biome biome, int chunkX, int chunkZ, Random random) {
       SpawnSettings spawnSettings = biome.getSpawnSettings();
       List<SpawnSettings.SpawnEntry> list = spawnSettings.getSpawnEntry(SpawnGroup.CREATURE);
@@ -418,16 +456,22 @@ public final class SpawnHelper {
       private final GravityField densityField;
       private final Object2IntMap<SpawnGroup> groupToCountView;
       @Nullable
+      private final List<? extends PlayerEntity> players;
+      @Nullable
+      private final int[][] playerGroupToCount;
+      @Nullable
       private BlockPos cachedPos;
       @Nullable
       private EntityType<?> cachedEntityType;
       private double cachedDensityMass;
 
-      private Info(int spawningChunkCount, Object2IntOpenHashMap<SpawnGroup> groupToCount, GravityField densityField) {
+      private Info(int spawningChunkCount, Object2IntOpenHashMap<SpawnGroup> groupToCount, GravityField densityField, @Nullable List<? extends PlayerEntity> players) {
          this.spawningChunkCount = spawningChunkCount;
          this.groupToCount = groupToCount;
          this.densityField = densityField;
          this.groupToCountView = Object2IntMaps.unmodifiable(groupToCount);
+         this.players = players;
+         this.playerGroupToCount = players == null ? null : new int[players.size()][SpawnGroup.values().length];
       }
 
       /**
@@ -468,6 +512,36 @@ public final class SpawnHelper {
 
          this.densityField.addPoint(blockPos, f);
          this.groupToCount.addTo(entityType.getSpawnGroup(), 1);
+         this.addToPlayerCounts(blockPos, entityType.getSpawnGroup());
+      }
+
+      /**
+       * Counts a mob of the group at the given position against the local mob
+       * cap of every player near its chunk.
+       */
+      private void addToPlayerCounts(BlockPos pos, SpawnGroup group) {
+         if (this.players != null) {
+            int i = pos.getX() >> 4;
+            int j = pos.getZ() >> 4;
+
+            for(int k = 0; k < this.players.size(); ++k) {
+               if (isNearPlayer(i, j, (PlayerEntity)this.players.get(k))) {
+                  ++this.playerGroupToCount[k][group.ordinal()];
+               }
+            }
+
+         }
+      }
+
+      /**
+       * Returns whether a player near the chunk is within the same distance
+       * {@link net.minecraft.server.world.ThreadedAnvilChunkStorage} requires
+       * for the chunk to spawn mobs.
+       */
+      private static boolean isNearPlayer(int chunkX, int chunkZ, PlayerEntity player) {
+         double d = (double)(chunkX * 16 + 8) - player.getX();
+         double e = (double)(chunkZ * 16 + 8) - player.getZ();
+         return !player.isSpectator() && d * d + e * e < 16384.0D;
       }
 
       @Environment(EnvType.CLIENT)
@@ -479,9 +553,24 @@ public final class SpawnHelper {
          return this.groupToCountView;
       }
 
-      private boolean isBelowCap(SpawnGroup group) {
-         int i = group.getCapacity() * this.spawningChunkCount / SpawnHelper.CHUNK_AREA;
-         return this.groupToCount.getInt(group) < i;
+      /**
+       * Returns whether mobs of the group may spawn in the chunk. With local mob
+       * caps, that is if any player near the chunk has fewer mobs of the group
+       * around than the capacity of the group.
+       */
+      private boolean isBelowCap(SpawnGroup group, ChunkPos chunkPos) {
+         if (this.players == null) {
+            int i = group.getCapacity() * this.spawningChunkCount / SpawnHelper.CHUNK_AREA;
+            return this.groupToCount.getInt(group) < i;
+         } else {
+            for(int j = 0; j < this.players.size(); ++j) {
+               if (this.playerGroupToCount[j][group.ordinal()] < group.getCapacity() && isNearPlayer(chunkPos.x, chunkPos.z, (PlayerEntity)this.players.get(j))) {
+                  return true;
+               }
+            }
+
+            return false;
+         }
       }
    }
 }
@@ -1,12 +1,17 @@
 package net.minecraft.world;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.mojang.serialization.Codec;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -20,8 +25,10 @@ import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ai.pathing.PathNodeTypeCache;
 import net.minecraft.entity.damage.DamageSource;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.fluid.FluidFlowCache;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.item.ItemStack;
@@ -59,6 +66,7 @@ import net.minecraft.world.chunk.light.LightingProvider;
 import net.minecraft.world.dimension.DimensionType;
 import net.minecraft.world.explosion.Explosion;
 import net.minecraft.world.explosion.ExplosionBehavior;
+import net.minecraft.world.explosion.ExposureCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
@@ -74,6 +82,16 @@ public abstract class World implements WorldAccess, AutoCloseable {
    public final List<BlockEntity> tickingBlockEntities = Lists.newArrayList();
    protected final List<BlockEntity> pendingBlockEntities = Lists.newArrayList();
    protected final List<BlockEntity> unloadedBlockEntities = Lists.newArrayList();
+   /**
+    * Ticking block entities that are asleep and were taken out of {@link
+    * #tickingBlockEntities}. They are put back when woken up, at the place
+    * their {@linkplain BlockEntity#getTickOrder tick order} gives them, so
+    * that block entities tick in the order they would without sleeping.
+    */
+   private final Set<BlockEntity> sleepingBlockEntities = Sets.newHashSet();
+   private final List<BlockEntity> wokenBlockEntities = Lists.newArrayList();
+   private long nextBlockEntityTickOrder;
+   private final Queue<World.BlockEntityWakeUp> blockEntityWakeUps = new PriorityQueue(Comparator.comparingLong(World.BlockEntityWakeUp::getTime));
    private final Thread thread;
    private final boolean debugWorld;
    private int ambientDarkness;
@@ -87,6 +105,10 @@ public abstract class World implements WorldAccess, AutoCloseable {
    private final DimensionType dimension;
    protected final MutableWorldProperties properties;
    private final Supplier<Profiler> profiler;
+   private final PathNodeTypeCache pathNodeTypeCache = new PathNodeTypeCache();
+   private final ExposureCache exposureCache = new ExposureCache(this);
+   private final BlockCollisionCollector blockCollisionCollector = new BlockCollisionCollector();
+   private final FluidFlowCache fluidFlowCache = new FluidFlowCache();
    public final boolean isClient;
    protected boolean iteratingTickingBlockEntities;
    private final WorldBorder border;
@@ -184,6 +206,9 @@ public abstract class World implements WorldAccess, AutoCloseable {
          if (blockState == null) {
             return false;
          } else {
+            this.pathNodeTypeCache.onBlockChanged(pos);
+            this.exposureCache.onBlockChanged();
+            this.fluidFlowCache.onBlockChanged(pos);
             BlockState blockState2 = this.getBlockState(pos);
             if ((flags & 128) == 0 && blockState2 != blockState && (blockState2.getOpacity(this, pos) != blockState.getOpacity(this, pos) || blockState2.getLuminance() != blockState.getLuminance() || blockState2.hasSidedTransparency() || blockState.hasSidedTransparency())) {
                this.getProfiler().push("queueCheckLight");
@@ -313,6 +338,13 @@ public abstract class World implements WorldAccess, AutoCloseable {
             CrashReportSection.addBlockInfo(crashReportSection, pos, blockState);
             throw new CrashException(crashReport);
          }
+
+         if (!this.sleepingBlockEntities.isEmpty() && blockState.getBlock().hasBlockEntity()) {
+            BlockEntity blockEntity = this.getBlockEntity(pos);
+            if (blockEntity != null) {
+               blockEntity.wakeUp();
+            }
+         }
       }
    }
 
@@ -399,6 +431,7 @@ public abstract class World implements WorldAccess, AutoCloseable {
 
       boolean bl = this.blockEntities.add(blockEntity);
       if (bl && blockEntity instanceof Tickable) {
+         blockEntity.setTickOrder(this.nextBlockEntityTickOrder++);
          this.tickingBlockEntities.add(blockEntity);
       }
 
@@ -431,14 +464,24 @@ public abstract class World implements WorldAccess, AutoCloseable {
       if (!this.unloadedBlockEntities.isEmpty()) {
          this.tickingBlockEntities.removeAll(this.unloadedBlockEntities);
          this.blockEntities.removeAll(this.unloadedBlockEntities);
+         this.sleepingBlockEntities.removeAll(this.unloadedBlockEntities);
+         this.wokenBlockEntities.removeAll(this.unloadedBlockEntities);
          this.unloadedBlockEntities.clear();
       }
 
+      long l = this.getTime();
+
+      while(!this.blockEntityWakeUps.isEmpty() && ((World.BlockEntityWakeUp)this.blockEntityWakeUps.peek()).getTime() <= l) {
+         ((World.BlockEntityWakeUp)this.blockEntityWakeUps.poll()).getBlockEntity().wakeUp();
+      }
+
+      this.insertWokenBlockEntities();
       this.iteratingTickingBlockEntities = true;
-      Iterator iterator = this.tickingBlockEntities.iterator();
+      int i = this.tickingBlockEntities.size();
+      int j = 0;
 
-      while(iterator.hasNext()) {
-         BlockEntity blockEntity = (BlockEntity)iterator.next();
+      for(int k = 0; k < i; ++k) {
+         BlockEntity blockEntity = (BlockEntity)this.tickingBlockEntities.get(k);
          if (!blockEntity.isRemoved() && blockEntity.hasWorld()) {
             BlockPos blockPos = blockEntity.getPos();
             if (this.getChunkManager().shouldTickBlock(blockPos) && this.getWorldBorder().contains(blockPos)) {
@@ -453,8 +496,8 @@ public abstract class World implements WorldAccess, AutoCloseable {
                   }
 
                   profiler.pop();
-               } catch (Throwable var8) {
-                  CrashReport crashReport = CrashReport.create(var8, "Ticking block entity");
+               } catch (Throwable var12) {
+                  CrashReport crashReport = CrashReport.create(var12, "Ticking block entity");
                   CrashReportSection crashReportSection = crashReport.addElement("Block entity being ticked");
                   blockEntity.populateCrashReport(crashReportSection);
                   throw new CrashException(crashReport);
@@ -463,15 +506,23 @@ public abstract class World implements WorldAccess, AutoCloseable {
          }
 
          if (blockEntity.isRemoved()) {
-            iterator.remove();
             this.blockEntities.remove(blockEntity);
             if (this.isChunkLoaded(blockEntity.getPos())) {
                this.getWorldChunk(blockEntity.getPos()).removeBlockEntity(blockEntity.getPos());
             }
+         } else if (blockEntity.isSleeping()) {
+            this.sleepingBlockEntities.add(blockEntity);
+         } else {
+            this.tickingBlockEntities.set(j++, blockEntity);
          }
       }
 
+      this.tickingBlockEntities.subList(j, i).clear();
       this.iteratingTickingBlockEntities = false;
+      this.insertWokenBlockEntities();
+
+      profiler.visit("awake", this.tickingBlockEntities.size());
+      profiler.visit("sleeping", this.sleepingBlockEntities.size());
       profiler.swap("pendingBlockEntities");
       if (!this.pendingBlockEntities.isEmpty()) {
          for(int i = 0; i < this.pendingBlockEntities.size(); ++i) {
@@ -496,6 +547,58 @@ public abstract class World implements WorldAccess, AutoCloseable {
       profiler.pop();
    }
 
+   /**
+    * Puts a sleeping block entity back into the ticking list. Block entities
+    * woken up while the ticking list is iterated start ticking again on the
+    * next tick.
+    */
+   public void onBlockEntityWokenUp(BlockEntity blockEntity) {
+      if (this.sleepingBlockEntities.remove(blockEntity)) {
+         this.wokenBlockEntities.add(blockEntity);
+      }
+
+   }
+
+   /**
+    * Merges the woken block entities back into the ticking list by tick
+    * order, which the ticking list is always sorted by.
+    */
+   private void insertWokenBlockEntities() {
+      int i = this.wokenBlockEntities.size();
+      if (i != 0) {
+         this.wokenBlockEntities.sort(Comparator.comparingLong(BlockEntity::getTickOrder));
+         int j = this.tickingBlockEntities.size() - 1;
+         int k = i - 1;
+
+         for(int l = 0; l < i; ++l) {
+            this.tickingBlockEntities.add((BlockEntity)null);
+         }
+
+         int m = this.tickingBlockEntities.size() - 1;
+
+         while(k >= 0) {
+            BlockEntity blockEntity = (BlockEntity)this.wokenBlockEntities.get(k);
+            if (j >= 0 && ((BlockEntity)this.tickingBlockEntities.get(j)).getTickOrder() > blockEntity.getTickOrder()) {
+               this.tickingBlockEntities.set(m--, this.tickingBlockEntities.get(j--));
+            } else {
+               this.tickingBlockEntities.set(m--, blockEntity);
+               --k;
+            }
+         }
+
+         this.wokenBlockEntities.clear();
+      }
+   }
+
+   /**
+    * Wakes up the given block entity after {@code delay} ticks unless it is
+    * woken up earlier. The block entity is expected to tolerate spurious
+    * wake-ups.
+    */
+   public void scheduleBlockEntityWakeUp(BlockEntity blockEntity, int delay) {
+      this.blockEntityWakeUps.add(new World.BlockEntityWakeUp(blockEntity, this.getTime() + (long)Math.max(delay, 1)));
+   }
+
    public void tickEntity(Consumer<Entity> tickConsumer, Entity entity) {
       try {
          tickConsumer.accept(entity);
@@ -597,6 +700,8 @@ public abstract class World implements WorldAccess, AutoCloseable {
             this.pendingBlockEntities.remove(blockEntity);
             this.blockEntities.remove(blockEntity);
             this.tickingBlockEntities.remove(blockEntity);
+            this.sleepingBlockEntities.remove(blockEntity);
+            this.wokenBlockEntities.remove(blockEntity);
          }
 
          this.getWorldChunk(pos).removeBlockEntity(pos);
@@ -1039,6 +1144,26 @@ public abstract class World implements WorldAccess, AutoCloseable {
       return (Profiler)this.profiler.get();
    }
 
+   public PathNodeTypeCache getPathNodeTypeCache() {
+      return this.pathNodeTypeCache;
+   }
+
+   public ExposureCache getExposureCache() {
+      return this.exposureCache;
+   }
+
+   public FluidFlowCache getFluidFlowCache() {
+      return this.fluidFlowCache;
+   }
+
+   /**
+    * Returns the collector of block collisions reused by calls on the thread
+    * of this world, or a new one on other threads.
+    */
+   public BlockCollisionCollector getBlockCollisionCollector() {
+      return Thread.currentThread() == this.thread ? this.blockCollisionCollector : new BlockCollisionCollector();
+   }
+
    public Supplier<Profiler> getProfilerSupplier() {
       return this.profiler;
    }
@@ -1064,4 +1189,22 @@ public abstract class World implements WorldAccess, AutoCloseable {
       END = RegistryKey.of(Registry.WORLD_KEY, new Identifier("the_end"));
       DIRECTIONS = Direction.values();
    }
+
+   static class BlockEntityWakeUp {
+      private final BlockEntity blockEntity;
+      private final long time;
+
+      private BlockEntityWakeUp(BlockEntity blockEntity, long time) {
+         this.blockEntity = blockEntity;
+         this.time = time;
+      }
+
+      public BlockEntity getBlockEntity() {
+         return this.blockEntity;
+      }
+
+      public long getTime() {
+         return this.time;
+      }
+   }
 }
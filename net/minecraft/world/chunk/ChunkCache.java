@@ -6,6 +6,9 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
+import net.minecraft.entity.ai.pathing.PathNodeType;
+import net.minecraft.entity.ai.pathing.PathNodeTypeCache;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.util.math.BlockPos;
@@ -24,6 +27,8 @@ public class ChunkCache implements BlockView, CollisionView {
    protected final Chunk[][] chunks;
    protected boolean empty;
    protected final World world;
+   private int nodeTypeCacheHits;
+   private int nodeTypeCacheMisses;
 
    public ChunkCache(World world, BlockPos minPos, BlockPos maxPos) {
       this.world = world;
@@ -93,6 +98,61 @@ public class ChunkCache implements BlockView, CollisionView {
       }
    }
 
+   /**
+    * Returns the array caching the land node types of the given section, or
+    * {@code null} if node types in it must not be cached.
+    */
+   @Nullable
+   protected byte[] getNodeTypeSection(int sectionX, int sectionY, int sectionZ) {
+      int i = sectionX - this.minX;
+      int j = sectionZ - this.minZ;
+      return sectionY >= 0 && sectionY < 16 && i >= 0 && i < this.chunks.length && j >= 0 && j < this.chunks[i].length && this.chunks[i][j] != null ? this.world.getPathNodeTypeCache().getSection(sectionX, sectionY, sectionZ) : null;
+   }
+
+   /**
+    * Returns whether the chunks of all blocks the land node type at the
+    * position depends on are part of this cache, so that the node type may be
+    * cached for the whole world.
+    */
+   private boolean hasChunksAround(BlockPos pos) {
+      for(int i = pos.getX() - 1 >> 4; i <= pos.getX() + 1 >> 4; ++i) {
+         for(int j = pos.getZ() - 1 >> 4; j <= pos.getZ() + 1 >> 4; ++j) {
+            int k = i - this.minX;
+            int l = j - this.minZ;
+            if (k < 0 || k >= this.chunks.length || l < 0 || l >= this.chunks[k].length || this.chunks[k][l] == null) {
+               return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   public PathNodeType getLandNodeType(BlockPos.Mutable pos) {
+      byte[] bs = this.hasChunksAround(pos) ? this.getNodeTypeSection(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4) : null;
+      if (bs == null) {
+         return LandPathNodeMaker.getLandNodeType(this, pos);
+      } else {
+         int i = PathNodeTypeCache.getIndex(pos);
+         byte b = bs[i];
+         if (b != 0) {
+            ++this.nodeTypeCacheHits;
+            return PathNodeTypeCache.fromId(b);
+         } else {
+            ++this.nodeTypeCacheMisses;
+            PathNodeType pathNodeType = LandPathNodeMaker.getLandNodeType(this, pos);
+            bs[i] = PathNodeTypeCache.toId(pathNodeType);
+            return pathNodeType;
+         }
+      }
+   }
+
+   public void flushNodeTypeCacheStats() {
+      this.world.getPathNodeTypeCache().addStats(this.nodeTypeCacheHits, this.nodeTypeCacheMisses);
+      this.nodeTypeCacheHits = 0;
+      this.nodeTypeCacheMisses = 0;
+   }
+
    public Stream<VoxelShape> getEntityCollisions(@Nullable Entity entity, Box box, Predicate<Entity> predicate) {
       return Stream.empty();
    }
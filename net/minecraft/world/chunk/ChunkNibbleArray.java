@@ -1,11 +1,24 @@
 package net.minecraft.world.chunk;
 
+import java.util.Arrays;
 import net.minecraft.util.Util;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Stores a value from 0 to 15 for each block of a chunk section, two values
+ * per byte.
+ *
+ * <p>Arrays are copied on write: {@linkplain #copy copies} share their bytes
+ * until either of them changes a value. Arrays whose values are all 0 or all
+ * 15, such as the light of empty sections or of sections under open sky,
+ * share a single array of bytes for each of the two values.
+ */
 public class ChunkNibbleArray {
+   private static final byte[] ZERO_BYTES = new byte[2048];
+   private static final byte[] FULL_BYTES = createFilledBytes(15);
    @Nullable
    protected byte[] bytes;
+   private boolean shared;
 
    public ChunkNibbleArray() {
    }
@@ -14,9 +27,21 @@ public class ChunkNibbleArray {
       this.bytes = bs;
       if (bs.length != 2048) {
          throw (IllegalArgumentException)Util.throwOrPause(new IllegalArgumentException("ChunkNibbleArrays should be 2048 bytes not: " + bs.length));
+      } else {
+         byte[] bs2 = getSharedBytes(bs);
+         if (bs2 != null) {
+            this.bytes = bs2;
+            this.shared = true;
+         }
+
       }
    }
 
+   private ChunkNibbleArray(byte[] bs, boolean shared) {
+      this.bytes = bs;
+      this.shared = shared;
+   }
+
    protected ChunkNibbleArray(int i) {
       this.bytes = new byte[i];
    }
@@ -45,6 +70,13 @@ public class ChunkNibbleArray {
    private void set(int index, int value) {
       if (this.bytes == null) {
          this.bytes = new byte[2048];
+      } else if (this.shared) {
+         if (this.get(index) == (value & 15)) {
+            return;
+         }
+
+         this.bytes = (byte[])this.bytes.clone();
+         this.shared = false;
       }
 
       int i = this.divideByTwo(index);
@@ -64,16 +96,57 @@ public class ChunkNibbleArray {
       return n >> 1;
    }
 
+   /**
+    * Sets all values of this array.
+    */
+   public void fill(int value) {
+      if (value == 0 || value == 15) {
+         this.bytes = value == 0 ? ZERO_BYTES : FULL_BYTES;
+         this.shared = true;
+      } else {
+         this.bytes = createFilledBytes(value);
+         this.shared = false;
+      }
+
+   }
+
+   /**
+    * Returns the bytes of this array, which may then be modified.
+    */
    public byte[] asByteArray() {
       if (this.bytes == null) {
          this.bytes = new byte[2048];
+      } else if (this.shared) {
+         this.bytes = (byte[])this.bytes.clone();
+         this.shared = false;
       }
 
       return this.bytes;
    }
 
+   /**
+    * Returns the bytes of this array without copying them. The returned
+    * bytes may be shared with other arrays and must not be modified.
+    */
+   public byte[] asReadOnlyByteArray() {
+      return this.bytes == null ? ZERO_BYTES : this.bytes;
+   }
+
    public ChunkNibbleArray copy() {
-      return this.bytes == null ? new ChunkNibbleArray() : new ChunkNibbleArray((byte[])this.bytes.clone());
+      if (this.bytes == null) {
+         return new ChunkNibbleArray();
+      } else {
+         this.shared = true;
+         return new ChunkNibbleArray(this.bytes, true);
+      }
+   }
+
+   /**
+    * Returns the number of bytes this array allocated for itself, not
+    * counting the arrays of bytes shared by all uniform arrays.
+    */
+   public int getAllocatedBytes() {
+      return this.bytes != null && this.bytes != ZERO_BYTES && this.bytes != FULL_BYTES ? this.bytes.length : 0;
    }
 
    public String toString() {
@@ -96,4 +169,26 @@ public class ChunkNibbleArray {
    public boolean isUninitialized() {
       return this.bytes == null;
    }
+
+   private static byte[] createFilledBytes(int value) {
+      byte[] bs = new byte[2048];
+      Arrays.fill(bs, (byte)((value & 15) << 4 | value & 15));
+      return bs;
+   }
+
+   @Nullable
+   private static byte[] getSharedBytes(byte[] bs) {
+      byte b = bs[0];
+      if (b != 0 && b != -1) {
+         return null;
+      } else {
+         for(int i = 1; i < bs.length; ++i) {
+            if (bs[i] != b) {
+               return null;
+            }
+         }
+
+         return b == 0 ? ZERO_BYTES : FULL_BYTES;
+      }
+   }
 }
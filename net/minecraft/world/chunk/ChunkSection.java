@@ -18,6 +18,14 @@ public class ChunkSection {
    private short randomTickableBlockCount;
    private short nonEmptyFluidCount;
    private final PalettedContainer<BlockState> container;
+   /**
+    * A bit set of the positions holding a block or fluid with random ticks,
+    * indexed by {@link #getRandomTickIndex}, or {@code null} if it has not been
+    * built since the counts were last calculated.
+    */
+   @Nullable
+   private long[] randomTickPositions;
+   private int randomTickPositionCount;
 
    public ChunkSection(int yOffset) {
       this(yOffset, (short)0, (short)0, (short)0);
@@ -83,9 +91,27 @@ public class ChunkSection {
          ++this.nonEmptyFluidCount;
       }
 
+      if (this.randomTickPositions != null) {
+         boolean bl = hasRandomTicks(blockState2);
+         if (bl != hasRandomTicks(state)) {
+            int i = getRandomTickIndex(x, y, z);
+            this.randomTickPositions[i >> 6] ^= 1L << i;
+            this.randomTickPositionCount += bl ? -1 : 1;
+         }
+      }
+
       return blockState2;
    }
 
+   /**
+    * Sets a block state from a context known to be the only one writing into
+    * this section, without {@linkplain #lock() locking} it unless {@link
+    * PalettedContainer#CHECK_ALL_WRITES} is set.
+    */
+   public BlockState setBlockStateUnchecked(int x, int y, int z, BlockState state) {
+      return this.setBlockState(x, y, z, state, PalettedContainer.CHECK_ALL_WRITES);
+   }
+
    public boolean isEmpty() {
       return this.nonEmptyBlockCount == 0;
    }
@@ -110,7 +136,76 @@ public class ChunkSection {
       return this.yOffset;
    }
 
+   private static boolean hasRandomTicks(BlockState state) {
+      return state.hasRandomTicks() || state.getFluidState().hasRandomTicks();
+   }
+
+   public static int getRandomTickIndex(int x, int y, int z) {
+      return y << 8 | z << 4 | x;
+   }
+
+   private void buildRandomTickPositions() {
+      this.randomTickPositions = new long[64];
+      this.randomTickPositionCount = 0;
+      if (this.hasRandomTicks()) {
+         for(int i = 0; i < 4096; ++i) {
+            if (hasRandomTicks(this.getBlockState(i & 15, i >> 8, i >> 4 & 15))) {
+               this.randomTickPositions[i >> 6] |= 1L << i;
+               ++this.randomTickPositionCount;
+            }
+         }
+
+      }
+   }
+
+   /**
+    * Returns the number of positions holding a block or fluid with random
+    * ticks.
+    */
+   public int getRandomTickPositionCount() {
+      if (this.randomTickPositions == null) {
+         this.buildRandomTickPositions();
+      }
+
+      return this.randomTickPositionCount;
+   }
+
+   public boolean isRandomTickPosition(int index) {
+      if (this.randomTickPositions == null) {
+         this.buildRandomTickPositions();
+      }
+
+      return (this.randomTickPositions[index >> 6] & 1L << index) != 0L;
+   }
+
+   /**
+    * Returns the index of the {@code n}-th position holding a block or fluid
+    * with random ticks, counting from zero in index order.
+    */
+   public int getRandomTickPosition(int n) {
+      if (this.randomTickPositions == null) {
+         this.buildRandomTickPositions();
+      }
+
+      for(int i = 0; i < this.randomTickPositions.length; ++i) {
+         long l = this.randomTickPositions[i];
+         int j = Long.bitCount(l);
+         if (n < j) {
+            while(n-- > 0) {
+               l &= l - 1L;
+            }
+
+            return i << 6 | Long.numberOfTrailingZeros(l);
+         }
+
+         n -= j;
+      }
+
+      throw new IndexOutOfBoundsException();
+   }
+
    public void calculateCounts() {
+      this.randomTickPositions = null;
       this.nonEmptyBlockCount = 0;
       this.randomTickableBlockCount = 0;
       this.nonEmptyFluidCount = 0;
@@ -139,6 +234,7 @@ public class ChunkSection {
 
    @Environment(EnvType.CLIENT)
    public void fromPacket(PacketByteBuf buf) {
+      this.randomTickPositions = null;
       this.nonEmptyBlockCount = buf.readShort();
       this.container.fromPacket(buf);
    }
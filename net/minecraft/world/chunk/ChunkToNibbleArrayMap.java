@@ -1,6 +1,7 @@
 package net.minecraft.world.chunk;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import org.jetbrains.annotations.Nullable;
 
 public abstract class ChunkToNibbleArrayMap<M extends ChunkToNibbleArrayMap<M>> {
@@ -71,6 +72,21 @@ public abstract class ChunkToNibbleArrayMap<M extends ChunkToNibbleArrayMap<M>>
 
    }
 
+   public int size() {
+      return this.arrays.size();
+   }
+
+   public long getAllocatedBytes() {
+      long l = 0L;
+
+      ChunkNibbleArray chunkNibbleArray;
+      for(ObjectIterator var3 = this.arrays.values().iterator(); var3.hasNext(); l += (long)chunkNibbleArray.getAllocatedBytes()) {
+         chunkNibbleArray = (ChunkNibbleArray)var3.next();
+      }
+
+      return l;
+   }
+
    public void disableCache() {
       this.cacheEnabled = false;
    }
@@ -7,7 +7,7 @@ public class ColumnChunkNibbleArray extends ChunkNibbleArray {
 
    public ColumnChunkNibbleArray(ChunkNibbleArray chunkNibbleArray, int i) {
       super(128);
-      System.arraycopy(chunkNibbleArray.asByteArray(), i * 128, this.bytes, 0, 128);
+      System.arraycopy(chunkNibbleArray.asReadOnlyByteArray(), i * 128, this.bytes, 0, 128);
    }
 
    protected int getIndex(int x, int y, int z) {
@@ -21,6 +21,13 @@ import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.MathHelper;
 
 public class PalettedContainer<T> implements PaletteResizeListener<T> {
+   /**
+    * Whether writes from contexts known to be the only writer of a container,
+    * such as {@linkplain ChunkSection#setBlockStateUnchecked chunk generation},
+    * still check for writes from other threads. Set with the {@code
+    * paletted.checkAllWrites} system property, for debugging.
+    */
+   public static final boolean CHECK_ALL_WRITES = Boolean.parseBoolean(System.getProperty("paletted.checkAllWrites", "false"));
    private final Palette<T> fallbackPalette;
    private final PaletteResizeListener<T> noOpPaletteResizeHandler = (newSize, added) -> {
       return 0;
@@ -35,7 +42,7 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
    private final ReentrantLock writeLock = new ReentrantLock();
 
    public void lock() {
-      if (this.writeLock.isLocked() && !this.writeLock.isHeldByCurrentThread()) {
+      if (!this.writeLock.tryLock()) {
          String string = (String)Thread.getAllStackTraces().keySet().stream().filter(Objects::nonNull).map((thread) -> {
             return thread.getName() + ": \n\tat " + (String)Arrays.stream(thread.getStackTrace()).map(Object::toString).collect(Collectors.joining("\n\tat "));
          }).collect(Collectors.joining("\n"));
@@ -43,8 +50,6 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
          CrashReportSection crashReportSection = crashReport.addElement("Thread dumps");
          crashReportSection.add("Thread dumps", (Object)string);
          throw new CrashException(crashReport);
-      } else {
-         this.writeLock.lock();
       }
    }
 
@@ -216,6 +221,34 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
       this.unlock();
    }
 
+   /**
+    * Returns an independent copy of this container which keeps the same
+    * palette indices, so the packed data can be copied verbatim.
+    */
+   public PalettedContainer<T> copy() {
+      this.lock();
+      PalettedContainer<T> palettedContainer = new PalettedContainer(this.fallbackPalette, this.idList, this.elementDeserializer, this.elementSerializer, this.defaultValue);
+      palettedContainer.paletteSize = this.paletteSize;
+      if (this.palette == this.fallbackPalette) {
+         palettedContainer.palette = this.fallbackPalette;
+      } else {
+         if (this.palette instanceof ArrayPalette) {
+            palettedContainer.palette = new ArrayPalette(this.idList, this.paletteSize, palettedContainer, this.elementDeserializer);
+         } else {
+            palettedContainer.palette = new BiMapPalette(this.idList, this.paletteSize, palettedContainer, this.elementDeserializer, this.elementSerializer);
+         }
+
+         T object;
+         for(int i = 0; (object = this.palette.getByIndex(i)) != null; ++i) {
+            palettedContainer.palette.getIndex(object);
+         }
+      }
+
+      palettedContainer.data = new PackedIntegerArray(this.paletteSize, 4096, (long[])this.data.getStorage().clone());
+      this.unlock();
+      return palettedContainer;
+   }
+
    public int getPacketSize() {
       return 1 + this.palette.getPacketSize() + PacketByteBuf.getVarIntLength(this.data.getSize()) + this.data.getStorage().length * 8;
    }
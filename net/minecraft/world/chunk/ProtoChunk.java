@@ -157,7 +157,7 @@ public class ProtoChunk implements Chunk {
             }
 
             ChunkSection chunkSection = this.getSection(j >> 4);
-            BlockState blockState = chunkSection.setBlockState(i & 15, j & 15, k & 15, state);
+            BlockState blockState = chunkSection.setBlockStateUnchecked(i & 15, j & 15, k & 15, state);
             if (this.status.isAtLeast(ChunkStatus.FEATURES) && state != blockState && (state.getOpacity(this, pos) != blockState.getOpacity(this, pos) || state.getLuminance() != blockState.getLuminance() || state.hasSidedTransparency() || blockState.hasSidedTransparency())) {
                LightingProvider lightingProvider = this.getLightingProvider();
                lightingProvider.checkBlock(pos);
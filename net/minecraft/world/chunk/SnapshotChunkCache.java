@@ -0,0 +1,145 @@
+package net.minecraft.world.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A chunk cache holding copies of the block states of the chunk sections
+ * around its box, taken when it is created. Unlike a regular {@link
+ * ChunkCache}, it may be read from other threads while the world keeps
+ * changing.
+ *
+ * <p>Only the sections within one block of the box vertically are copied.
+ * Reading a block of any other section throws {@link
+ * SnapshotChunkCache.MissingSectionException}, so that the caller can fall
+ * back to reading the world itself rather than see blocks that were not
+ * copied. Block entities are not part of the snapshot.
+ *
+ * <p>Each copied section is paired with the world's {@linkplain
+ * net.minecraft.entity.ai.pathing.PathNodeTypeCache node type array} of the
+ * section, which the world drops as soon as a block in or next to the
+ * section changes. A copy can therefore be reused by later snapshots for as
+ * long as its array is still the one the world holds.
+ */
+public class SnapshotChunkCache extends ChunkCache {
+   private final SnapshotChunkCache.Section[][][] sections;
+   private final int minSectionY;
+
+   /**
+    * @param sectionCache copies of chunk sections to reuse, keyed by section
+    * position; newly copied sections are added to it
+    */
+   public SnapshotChunkCache(World world, BlockPos minPos, BlockPos maxPos, Long2ObjectMap<SnapshotChunkCache.Section> sectionCache) {
+      super(world, minPos, maxPos);
+      this.minSectionY = MathHelper.clamp(minPos.getY() - 1 >> 4, 0, 15);
+      int i = MathHelper.clamp(maxPos.getY() + 1 >> 4, 0, 15) - this.minSectionY + 1;
+      this.sections = new SnapshotChunkCache.Section[this.chunks.length][][];
+
+      for(int j = 0; j < this.chunks.length; ++j) {
+         this.sections[j] = new SnapshotChunkCache.Section[this.chunks[j].length][];
+
+         for(int k = 0; k < this.chunks[j].length; ++k) {
+            Chunk chunk = this.chunks[j][k];
+            if (chunk != null) {
+               ChunkSection[] chunkSections = chunk.getSectionArray();
+               SnapshotChunkCache.Section[] sections = new SnapshotChunkCache.Section[i];
+
+               for(int l = 0; l < i; ++l) {
+                  int m = this.minX + j;
+                  int n = this.minSectionY + l;
+                  int o = this.minZ + k;
+                  long p = ChunkSectionPos.asLong(m, n, o);
+                  byte[] bs = world.getPathNodeTypeCache().getSection(m, n, o);
+                  SnapshotChunkCache.Section section = (SnapshotChunkCache.Section)sectionCache.get(p);
+                  if (section == null || section.nodeTypes != bs) {
+                     section = new SnapshotChunkCache.Section(chunkSections[n], bs);
+                     sectionCache.put(p, section);
+                  }
+
+                  sections[l] = section;
+               }
+
+               this.sections[j][k] = sections;
+            }
+         }
+      }
+
+   }
+
+   public BlockView getChunkAsView(int chunkX, int chunkZ) {
+      return this;
+   }
+
+   @Nullable
+   protected byte[] getNodeTypeSection(int sectionX, int sectionY, int sectionZ) {
+      SnapshotChunkCache.Section[] sections = this.getSections(sectionX, sectionZ);
+      int i = sectionY - this.minSectionY;
+      return sections != null && i >= 0 && i < sections.length ? sections[i].nodeTypes : null;
+   }
+
+   @Nullable
+   private SnapshotChunkCache.Section[] getSections(int chunkX, int chunkZ) {
+      int i = chunkX - this.minX;
+      int j = chunkZ - this.minZ;
+      return i >= 0 && i < this.sections.length && j >= 0 && j < this.sections[i].length ? this.sections[i][j] : null;
+   }
+
+   @Nullable
+   public BlockEntity getBlockEntity(BlockPos pos) {
+      return null;
+   }
+
+   public BlockState getBlockState(BlockPos pos) {
+      if (World.isOutOfBuildLimitVertically(pos)) {
+         return Blocks.AIR.getDefaultState();
+      } else {
+         SnapshotChunkCache.Section[] sections = this.getSections(pos.getX() >> 4, pos.getZ() >> 4);
+         if (sections == null) {
+            return Blocks.VOID_AIR.getDefaultState();
+         } else {
+            int i = (pos.getY() >> 4) - this.minSectionY;
+            if (i >= 0 && i < sections.length) {
+               PalettedContainer<BlockState> palettedContainer = sections[i].blockStates;
+               return palettedContainer == null ? Blocks.AIR.getDefaultState() : (BlockState)palettedContainer.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+            } else {
+               throw SnapshotChunkCache.MissingSectionException.INSTANCE;
+            }
+         }
+      }
+   }
+
+   public FluidState getFluidState(BlockPos pos) {
+      return this.getBlockState(pos).getFluidState();
+   }
+
+   public static class Section {
+      @Nullable
+      private final PalettedContainer<BlockState> blockStates;
+      private final byte[] nodeTypes;
+
+      private Section(@Nullable ChunkSection chunkSection, byte[] nodeTypes) {
+         this.blockStates = ChunkSection.isEmpty(chunkSection) ? null : chunkSection.getContainer().copy();
+         this.nodeTypes = nodeTypes;
+      }
+   }
+
+   /**
+    * Thrown when a block outside of the copied sections is read.
+    */
+   public static class MissingSectionException extends RuntimeException {
+      private static final SnapshotChunkCache.MissingSectionException INSTANCE = new SnapshotChunkCache.MissingSectionException();
+
+      private MissingSectionException() {
+         super("Read outside of the copied sections", (Throwable)null, false, false);
+      }
+   }
+}
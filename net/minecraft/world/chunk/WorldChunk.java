@@ -6,6 +6,7 @@ import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.shorts.ShortList;
 import it.unimi.dsi.fastutil.shorts.ShortListIterator;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -46,6 +47,7 @@ import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.ChunkTickScheduler;
@@ -318,6 +320,126 @@ public class WorldChunk implements Chunk {
       }
    }
 
+   /**
+    * Sets the block states of many positions within one section, like {@link
+    * #setBlockState} would one after another, except that the section is
+    * locked once for all writes, and the heightmaps and the light status of
+    * the section are updated once after all of them. The blocks are then
+    * notified of their replacement in order.
+    *
+    * @param positions the positions, {@linkplain ChunkSectionPos#packLocal
+    * packed} within the section, each at most once
+    * @param oldStates receives the previous state of each position, or
+    * {@code null} where {@link #setBlockState} would have returned {@code null}
+    * @return the number of positions that changed
+    */
+   public int setBlockStates(int sectionY, short[] positions, BlockState[] states, int count, BlockState[] oldStates, boolean moved) {
+      ChunkSection chunkSection = this.sections[sectionY];
+      if (chunkSection == EMPTY_SECTION) {
+         int i;
+         for(i = 0; i < count && states[i].isAir(); ++i) {
+         }
+
+         if (i == count) {
+            Arrays.fill(oldStates, 0, count, (Object)null);
+            return 0;
+         }
+
+         chunkSection = new ChunkSection(sectionY << 4);
+         this.sections[sectionY] = chunkSection;
+      }
+
+      boolean bl = chunkSection.isEmpty();
+      int[] is = new int[256];
+      Arrays.fill(is, -1);
+      int j = 0;
+      chunkSection.lock();
+
+      try {
+         for(int k = 0; k < count; ++k) {
+            short s = positions[k];
+            int l = ChunkSectionPos.unpackLocalX(s);
+            int m = ChunkSectionPos.unpackLocalY(s);
+            int n = ChunkSectionPos.unpackLocalZ(s);
+            BlockState blockState = chunkSection.setBlockState(l, m, n, states[k], false);
+            if (blockState == states[k]) {
+               oldStates[k] = null;
+            } else {
+               oldStates[k] = blockState;
+               is[n << 4 | l] = Math.max(is[n << 4 | l], sectionY << 4 | m);
+               ++j;
+            }
+         }
+      } finally {
+         chunkSection.unlock();
+      }
+
+      if (j == 0) {
+         return 0;
+      } else {
+         for(int o = 0; o < 256; ++o) {
+            if (is[o] >= 0) {
+               ((Heightmap)this.heightmaps.get(Heightmap.Type.MOTION_BLOCKING)).trackUpdates(o & 15, o >> 4, is[o]);
+               ((Heightmap)this.heightmaps.get(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES)).trackUpdates(o & 15, o >> 4, is[o]);
+               ((Heightmap)this.heightmaps.get(Heightmap.Type.OCEAN_FLOOR)).trackUpdates(o & 15, o >> 4, is[o]);
+               ((Heightmap)this.heightmaps.get(Heightmap.Type.WORLD_SURFACE)).trackUpdates(o & 15, o >> 4, is[o]);
+            }
+         }
+
+         boolean bl2 = chunkSection.isEmpty();
+         if (bl != bl2) {
+            this.world.getChunkManager().getLightingProvider().setSectionStatus(ChunkSectionPos.from(this.pos, sectionY), bl2);
+         }
+
+         ChunkSectionPos chunkSectionPos = ChunkSectionPos.from(this.pos, sectionY);
+
+         for(int p = 0; p < count; ++p) {
+            BlockState blockState2 = oldStates[p];
+            if (blockState2 != null) {
+               BlockState blockState3 = states[p];
+               BlockPos blockPos = chunkSectionPos.unpackBlockPos(positions[p]);
+               Block block = blockState3.getBlock();
+               Block block2 = blockState2.getBlock();
+               if (!this.world.isClient) {
+                  blockState2.onStateReplaced(this.world, blockPos, blockState3, moved);
+               } else if (block2 != block && block2 instanceof BlockEntityProvider) {
+                  this.world.removeBlockEntity(blockPos);
+               }
+
+               if (!chunkSection.getBlockState(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15).isOf(block)) {
+                  oldStates[p] = null;
+                  --j;
+               } else {
+                  BlockEntity blockEntity;
+                  if (block2 instanceof BlockEntityProvider) {
+                     blockEntity = this.getBlockEntity(blockPos, WorldChunk.CreationType.CHECK);
+                     if (blockEntity != null) {
+                        blockEntity.resetBlock();
+                     }
+                  }
+
+                  if (!this.world.isClient) {
+                     blockState3.onBlockAdded(this.world, blockPos, blockState2, moved);
+                  }
+
+                  if (block instanceof BlockEntityProvider) {
+                     blockEntity = this.getBlockEntity(blockPos, WorldChunk.CreationType.CHECK);
+                     if (blockEntity == null) {
+                        blockEntity = ((BlockEntityProvider)block).createBlockEntity(this.world);
+                        this.world.setBlockEntity(blockPos, blockEntity);
+                     } else {
+                        blockEntity.resetBlock();
+                     }
+                  }
+               }
+            }
+         }
+
+         this.shouldSave = true;
+         return j;
+      }
+   }
+
    @Nullable
    public LightingProvider getLightingProvider() {
       return this.world.getChunkManager().getLightingProvider();
@@ -67,7 +67,7 @@ public abstract class ChunkLightProvider<M extends ChunkToNibbleArrayMap<M>, S e
       return blockView;
    }
 
-   private void clearChunkCache() {
+   protected void clearChunkCache() {
       Arrays.fill(this.cachedChunkPositions, ChunkPos.MARKER);
       Arrays.fill(this.cachedChunks, (Object)null);
    }
@@ -159,6 +159,11 @@ public abstract class ChunkLightProvider<M extends ChunkToNibbleArrayMap<M>, S e
       }
 
       this.field_15794 = true;
+      maxSteps = this.applyQueuedUpdates(maxSteps);
+      if (maxSteps == 0 && this.hasQueuedUpdates()) {
+         return maxSteps;
+      }
+
       if (this.hasPendingUpdates()) {
          maxSteps = this.applyPendingUpdates(maxSteps);
          this.clearChunkCache();
@@ -172,6 +177,22 @@ public abstract class ChunkLightProvider<M extends ChunkToNibbleArrayMap<M>, S e
       return maxSteps;
    }
 
+   /**
+    * Applies updates queued outside of the level propagator, after sections
+    * were loaded and unloaded and before the pending updates are applied.
+    */
+   protected int applyQueuedUpdates(int maxSteps) {
+      return maxSteps;
+   }
+
+   /**
+    * Returns whether updates queued outside of the level propagator are left
+    * to be applied by a later light update.
+    */
+   protected boolean hasQueuedUpdates() {
+      return false;
+   }
+
    protected void enqueueSectionData(long sectionPos, @Nullable ChunkNibbleArray lightArray, boolean bl) {
       this.lightStorage.enqueueSectionData(sectionPos, lightArray, bl);
    }
@@ -181,6 +202,18 @@ public abstract class ChunkLightProvider<M extends ChunkToNibbleArrayMap<M>, S e
       return this.lightStorage.getLightSection(pos.asLong());
    }
 
+   public int getLightSectionCount() {
+      return this.lightStorage.uncachedStorage.size();
+   }
+
+   /**
+    * Returns the number of bytes allocated for the light of the sections,
+    * where sections with uniform light take none.
+    */
+   public long getAllocatedLightBytes() {
+      return this.lightStorage.uncachedStorage.getAllocatedBytes();
+   }
+
    public int getLightLevel(BlockPos pos) {
       return this.lightStorage.getLight(pos.asLong());
    }
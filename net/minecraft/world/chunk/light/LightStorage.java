@@ -105,6 +105,18 @@ public abstract class LightStorage<M extends ChunkToNibbleArrayMap<M>> extends S
 
    }
 
+   /**
+    * Returns the light array of a section that light can be written to,
+    * copying it first like {@link #set} does.
+    */
+   protected ChunkNibbleArray getWritableLightSection(long sectionPos) {
+      if (this.dirtySections.add(sectionPos)) {
+         this.storage.replaceWithCopy(sectionPos);
+      }
+
+      return this.getLightSection(sectionPos, true);
+   }
+
    protected int getLevel(long id) {
       if (id == Long.MAX_VALUE) {
          return 2;
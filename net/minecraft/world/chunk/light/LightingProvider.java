@@ -11,16 +11,21 @@ import net.minecraft.world.chunk.ChunkProvider;
 import org.jetbrains.annotations.Nullable;
 
 public class LightingProvider implements LightingView {
+   private static final boolean QUEUED_BLOCK_LIGHT = "queued".equals(System.getProperty("light.engine"));
    @Nullable
    private final ChunkLightProvider<?, ?> blockLightProvider;
    @Nullable
    private final ChunkLightProvider<?, ?> skyLightProvider;
 
    public LightingProvider(ChunkProvider chunkProvider, boolean hasBlockLight, boolean hasSkyLight) {
-      this.blockLightProvider = hasBlockLight ? new ChunkBlockLightProvider(chunkProvider) : null;
+      this.blockLightProvider = hasBlockLight ? createBlockLightProvider(chunkProvider) : null;
       this.skyLightProvider = hasSkyLight ? new ChunkSkyLightProvider(chunkProvider) : null;
    }
 
+   private static ChunkLightProvider<?, ?> createBlockLightProvider(ChunkProvider chunkProvider) {
+      return (ChunkLightProvider)(QUEUED_BLOCK_LIGHT ? new QueuedBlockLightProvider(chunkProvider) : new ChunkBlockLightProvider(chunkProvider));
+   }
+
    public void checkBlock(BlockPos pos) {
       if (this.blockLightProvider != null) {
          this.blockLightProvider.checkBlock(pos);
@@ -126,6 +131,23 @@ public class LightingProvider implements LightingView {
 
    }
 
+   public int getLightSectionCount() {
+      int i = this.blockLightProvider == null ? 0 : this.blockLightProvider.getLightSectionCount();
+      int j = this.skyLightProvider == null ? 0 : this.skyLightProvider.getLightSectionCount();
+      return i + j;
+   }
+
+   /**
+    * Returns the number of bytes allocated for light, compared to {@code 2048}
+    * bytes for each of the {@linkplain #getLightSectionCount() light sections}
+    * without shared arrays.
+    */
+   public long getAllocatedLightBytes() {
+      long l = this.blockLightProvider == null ? 0L : this.blockLightProvider.getAllocatedLightBytes();
+      long m = this.skyLightProvider == null ? 0L : this.skyLightProvider.getAllocatedLightBytes();
+      return l + m;
+   }
+
    public int getLight(BlockPos pos, int ambientDarkness) {
       int i = this.skyLightProvider == null ? 0 : this.skyLightProvider.getLightLevel(pos) - ambientDarkness;
       int j = this.blockLightProvider == null ? 0 : this.blockLightProvider.getLightLevel(pos);
@@ -0,0 +1,522 @@
+package net.minecraft.world.chunk.light;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.shorts.Short2ByteMap;
+import it.unimi.dsi.fastutil.shorts.Short2ByteMaps;
+import it.unimi.dsi.fastutil.shorts.Short2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.ShortIterator;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import java.util.function.LongPredicate;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import net.minecraft.world.chunk.ChunkProvider;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A block light provider that works out changes of block light with two
+ * breadth-first searches, instead of queueing every position in the level
+ * buckets of the {@link LevelPropagator}.
+ *
+ * <p>Checked blocks and added light sources are collected per chunk section
+ * until the next {@linkplain #doLightUpdates light update}. The updates of a
+ * section are then applied within the 3x3x3 sections around it, which hold
+ * every block whose light they can change. First, the light of the checked
+ * blocks and of every block that may have been lit through them is removed,
+ * and then light spreads again from the blocks around the removed ones, from
+ * light sources, and from the blocks next to the checked ones. Both searches
+ * run over plain queues of positions within the sections, each with its
+ * level and a bitmask of the directions it still has to spread to, and read
+ * and write the light arrays of the sections directly.
+ *
+ * <p>Levels are computed with the same {@link #getPropagatedLevel}, and
+ * spread only where the propagator would, so the light ends up the same as
+ * with {@link ChunkBlockLightProvider}. Whenever the propagator has updates
+ * of its own pending, such as after sections were loaded, the collected
+ * updates are handed to it instead. Updates of a section are never split,
+ * so a light update may take a few more steps than it was given.
+ *
+ * <p>Used when the {@code light.engine} system property is {@code queued}.
+ * With the {@code light.engine.verify} system property set, the updates of
+ * every section are also applied by the propagator, and any difference is
+ * logged. The light of the propagator is kept.
+ */
+public final class QueuedBlockLightProvider extends ChunkBlockLightProvider {
+   private static final Logger LOGGER = LogManager.getLogger();
+   private static final boolean VERIFY = Boolean.parseBoolean(System.getProperty("light.engine.verify", "false"));
+   private static final Direction[] DIRECTIONS = Direction.values();
+   private static final int ALL_DIRECTIONS = (1 << DIRECTIONS.length) - 1;
+   private static final int WINDOW_SIZE = 48;
+   private static final int INITIAL_QUEUE_SIZE = 1024;
+   private final Long2ObjectLinkedOpenHashMap<QueuedBlockLightProvider.SectionUpdates> queuedSections = new Long2ObjectLinkedOpenHashMap();
+   private final LongList fallbackChecks = new LongArrayList();
+   private final Long2ObjectMap<QueuedBlockLightProvider.SectionUpdates> fallbackSections = new Long2ObjectLinkedOpenHashMap();
+   private final long[] windowSections = new long[27];
+   private final ChunkNibbleArray[] window = new ChunkNibbleArray[27];
+   private final boolean[] writable = new boolean[27];
+   private int originX;
+   private int originY;
+   private int originZ;
+   private int[] increaseQueue = new int[INITIAL_QUEUE_SIZE];
+   private int increaseEnd;
+   private int[] decreaseQueue = new int[INITIAL_QUEUE_SIZE];
+   private int decreaseEnd;
+   private int steps;
+
+   public QueuedBlockLightProvider(ChunkProvider chunkProvider) {
+      super(chunkProvider);
+   }
+
+   private QueuedBlockLightProvider.SectionUpdates getSectionUpdates(BlockPos pos) {
+      return (QueuedBlockLightProvider.SectionUpdates)this.queuedSections.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos.asLong()), (l) -> {
+         return new QueuedBlockLightProvider.SectionUpdates();
+      });
+   }
+
+   public void checkBlock(BlockPos pos) {
+      this.getSectionUpdates(pos).checks.add(ChunkSectionPos.packLocal(pos));
+   }
+
+   public void addLightSource(BlockPos pos, int level) {
+      ((BlockLightStorage)this.lightStorage).updateAll();
+      int i = MathHelper.clamp(level, 0, 15);
+      if (i > 0) {
+         Short2ByteMap short2ByteMap = this.getSectionUpdates(pos).sources;
+         short s = ChunkSectionPos.packLocal(pos);
+         if (short2ByteMap.get(s) < i) {
+            short2ByteMap.put(s, (byte)i);
+         }
+      }
+
+   }
+
+   public boolean hasUpdates() {
+      return !this.queuedSections.isEmpty() || super.hasUpdates();
+   }
+
+   protected boolean hasQueuedUpdates() {
+      return !this.queuedSections.isEmpty();
+   }
+
+   protected void removePendingUpdate(long id) {
+      QueuedBlockLightProvider.SectionUpdates sectionUpdates = (QueuedBlockLightProvider.SectionUpdates)this.queuedSections.get(ChunkSectionPos.fromBlockPos(id));
+      if (sectionUpdates != null) {
+         sectionUpdates.sources.remove(packLocal(id));
+      }
+
+      super.removePendingUpdate(id);
+   }
+
+   public void removePendingUpdateIf(LongPredicate predicate) {
+      ObjectIterator objectIterator = Long2ObjectMaps.fastIterable(this.queuedSections).iterator();
+
+      while(objectIterator.hasNext()) {
+         Long2ObjectMap.Entry<QueuedBlockLightProvider.SectionUpdates> entry = (Long2ObjectMap.Entry)objectIterator.next();
+         ChunkSectionPos chunkSectionPos = ChunkSectionPos.from(entry.getLongKey());
+         ObjectIterator objectIterator2 = Short2ByteMaps.fastIterable(((QueuedBlockLightProvider.SectionUpdates)entry.getValue()).sources).iterator();
+
+         while(objectIterator2.hasNext()) {
+            Short2ByteMap.Entry entry2 = (Short2ByteMap.Entry)objectIterator2.next();
+            if (predicate.test(chunkSectionPos.unpackBlockPos(entry2.getShortKey()).asLong())) {
+               objectIterator2.remove();
+            }
+         }
+      }
+
+      super.removePendingUpdateIf(predicate);
+   }
+
+   private static short packLocal(long blockPos) {
+      return (short)((BlockPos.unpackLongX(blockPos) & 15) << 8 | (BlockPos.unpackLongZ(blockPos) & 15) << 4 | BlockPos.unpackLongY(blockPos) & 15);
+   }
+
+   protected int applyQueuedUpdates(int maxSteps) {
+      if (this.queuedSections.isEmpty()) {
+         return maxSteps;
+      } else {
+         if (this.hasPendingUpdates()) {
+            while(!this.queuedSections.isEmpty()) {
+               long l = this.queuedSections.firstLongKey();
+               this.applyWithPropagator(ChunkSectionPos.from(l), (QueuedBlockLightProvider.SectionUpdates)this.queuedSections.removeFirst());
+            }
+         } else {
+            ((BlockLightStorage)this.lightStorage).updateAll();
+
+            while(!this.queuedSections.isEmpty() && maxSteps > 0) {
+               long m = this.queuedSections.firstLongKey();
+               QueuedBlockLightProvider.SectionUpdates sectionUpdates = (QueuedBlockLightProvider.SectionUpdates)this.queuedSections.removeFirst();
+               if (((BlockLightStorage)this.lightStorage).hasSection(m)) {
+                  this.steps = 0;
+                  this.apply(m, sectionUpdates);
+                  maxSteps = Math.max(0, maxSteps - this.steps);
+               } else {
+                  this.fallbackSections.put(m, sectionUpdates);
+               }
+            }
+
+            ObjectIterator objectIterator = Long2ObjectMaps.fastIterable(this.fallbackSections).iterator();
+
+            while(objectIterator.hasNext()) {
+               Long2ObjectMap.Entry<QueuedBlockLightProvider.SectionUpdates> entry = (Long2ObjectMap.Entry)objectIterator.next();
+               this.applyWithPropagator(ChunkSectionPos.from(entry.getLongKey()), (QueuedBlockLightProvider.SectionUpdates)entry.getValue());
+            }
+
+            this.fallbackSections.clear();
+            this.clearChunkCache();
+         }
+
+         if (this.increaseQueue.length > INITIAL_QUEUE_SIZE) {
+            this.increaseQueue = new int[INITIAL_QUEUE_SIZE];
+         }
+
+         if (this.decreaseQueue.length > INITIAL_QUEUE_SIZE) {
+            this.decreaseQueue = new int[INITIAL_QUEUE_SIZE];
+         }
+
+         return maxSteps;
+      }
+   }
+
+   /**
+    * Hands the updates of a section to the propagator, like {@link
+    * ChunkBlockLightProvider} would have queued them.
+    */
+   private void applyWithPropagator(ChunkSectionPos sectionPos, QueuedBlockLightProvider.SectionUpdates sectionUpdates) {
+      ShortIterator shortIterator = sectionUpdates.checks.iterator();
+
+      while(shortIterator.hasNext()) {
+         super.checkBlock(sectionPos.unpackBlockPos(shortIterator.nextShort()));
+      }
+
+      ObjectIterator objectIterator = Short2ByteMaps.fastIterable(sectionUpdates.sources).iterator();
+
+      while(objectIterator.hasNext()) {
+         Short2ByteMap.Entry entry = (Short2ByteMap.Entry)objectIterator.next();
+         super.addLightSource(sectionPos.unpackBlockPos(entry.getShortKey()), entry.getByteValue());
+      }
+
+   }
+
+   private void apply(long sectionPos, QueuedBlockLightProvider.SectionUpdates sectionUpdates) {
+      this.loadWindow(sectionPos);
+      ChunkNibbleArray[] chunkNibbleArrays = VERIFY ? this.copyWindow() : null;
+      ShortIterator shortIterator = sectionUpdates.checks.iterator();
+
+      while(shortIterator.hasNext()) {
+         short s = shortIterator.nextShort();
+         this.seedCheck(16 + ChunkSectionPos.unpackLocalX(s), 16 + ChunkSectionPos.unpackLocalY(s), 16 + ChunkSectionPos.unpackLocalZ(s));
+      }
+
+      ObjectIterator objectIterator = Short2ByteMaps.fastIterable(sectionUpdates.sources).iterator();
+
+      while(objectIterator.hasNext()) {
+         Short2ByteMap.Entry entry = (Short2ByteMap.Entry)objectIterator.next();
+         short t = entry.getShortKey();
+         int i = 16 + ChunkSectionPos.unpackLocalX(t);
+         int j = 16 + ChunkSectionPos.unpackLocalY(t);
+         int k = 16 + ChunkSectionPos.unpackLocalZ(t);
+         int l = entry.getByteValue();
+         if (l > this.getLight(i, j, k)) {
+            this.setLight(i, j, k, l);
+            this.enqueueIncrease(getIndex(i, j, k), l, ALL_DIRECTIONS);
+         }
+      }
+
+      this.propagateDecrease();
+      this.propagateIncrease();
+      if (chunkNibbleArrays != null) {
+         this.verify(sectionPos, sectionUpdates, chunkNibbleArrays);
+      }
+
+      for(int m = 0; m < this.window.length; ++m) {
+         this.window[m] = null;
+      }
+
+   }
+
+   private void loadWindow(long sectionPos) {
+      int i = ChunkSectionPos.unpackX(sectionPos) - 1;
+      int j = ChunkSectionPos.unpackY(sectionPos) - 1;
+      int k = ChunkSectionPos.unpackZ(sectionPos) - 1;
+      this.originX = i << 4;
+      this.originY = j << 4;
+      this.originZ = k << 4;
+
+      for(int l = 0; l < 3; ++l) {
+         for(int m = 0; m < 3; ++m) {
+            for(int n = 0; n < 3; ++n) {
+               int o = n + 3 * m + 9 * l;
+               long p = ChunkSectionPos.asLong(i + n, j + l, k + m);
+               this.windowSections[o] = p;
+               this.window[o] = ((BlockLightStorage)this.lightStorage).getLightSection(p, true);
+               this.writable[o] = ((BlockLightStorage)this.lightStorage).dirtySections.contains(p);
+            }
+         }
+      }
+
+   }
+
+   private static int getIndex(int x, int y, int z) {
+      return x + WINDOW_SIZE * (z + WINDOW_SIZE * y);
+   }
+
+   private static int getSectionIndex(int x, int y, int z) {
+      return (x >> 4) + 3 * (z >> 4) + 9 * (y >> 4);
+   }
+
+   private static boolean isInWindow(int x, int y, int z) {
+      return x >= 0 && x < WINDOW_SIZE && y >= 0 && y < WINDOW_SIZE && z >= 0 && z < WINDOW_SIZE;
+   }
+
+   private int getLight(int x, int y, int z) {
+      return this.window[getSectionIndex(x, y, z)].get(x & 15, y & 15, z & 15);
+   }
+
+   /**
+    * Sets the light of a block of the window, copying the light array of its
+    * section on the first change and marking the sections next to the block
+    * as changed, like {@link LightStorage#set} does.
+    */
+   private void setLight(int x, int y, int z, int light) {
+      int i = getSectionIndex(x, y, z);
+      if (!this.writable[i]) {
+         this.window[i] = ((BlockLightStorage)this.lightStorage).getWritableLightSection(this.windowSections[i]);
+         this.writable[i] = true;
+      }
+
+      int j = x & 15;
+      int k = y & 15;
+      int l = z & 15;
+      this.window[i].set(j, k, l, light);
+      long m = this.windowSections[i];
+
+      for(int n = k == 0 ? -1 : 0; n <= (k == 15 ? 1 : 0); ++n) {
+         for(int o = l == 0 ? -1 : 0; o <= (l == 15 ? 1 : 0); ++o) {
+            for(int p = j == 0 ? -1 : 0; p <= (j == 15 ? 1 : 0); ++p) {
+               ((BlockLightStorage)this.lightStorage).notifySections.add(n == 0 && o == 0 && p == 0 ? m : ChunkSectionPos.offset(m, p, n, o));
+            }
+         }
+      }
+
+   }
+
+   private long asBlockPos(int x, int y, int z) {
+      return BlockPos.asLong(this.originX + x, this.originY + y, this.originZ + z);
+   }
+
+   private int getLuminance(int x, int y, int z) {
+      return 15 - MathHelper.clamp(this.getPropagatedLevel(Long.MAX_VALUE, this.asBlockPos(x, y, z), 0), 0, 15);
+   }
+
+   /**
+    * Removes the light of a checked block, lets the light of the blocks next
+    * to it spread into it again, and adds its own light.
+    */
+   private void seedCheck(int x, int y, int z) {
+      int i = getIndex(x, y, z);
+
+      for(int j = 0; j < DIRECTIONS.length; ++j) {
+         Direction direction = DIRECTIONS[j];
+         int k = x + direction.getOffsetX();
+         int l = y + direction.getOffsetY();
+         int m = z + direction.getOffsetZ();
+         if (this.window[getSectionIndex(k, l, m)] != null) {
+            int n = this.getLight(k, l, m);
+            if (n > 1) {
+               this.enqueueIncrease(getIndex(k, l, m), n, 1 << direction.getOpposite().ordinal());
+            }
+         }
+      }
+
+      int o = this.getLight(x, y, z);
+      if (o > 0) {
+         this.setLight(x, y, z, 0);
+         this.enqueueDecrease(i, o, ALL_DIRECTIONS);
+      }
+
+      int p = this.getLuminance(x, y, z);
+      if (p > 0) {
+         this.setLight(x, y, z, p);
+         this.enqueueIncrease(i, p, ALL_DIRECTIONS);
+      }
+
+   }
+
+   /**
+    * Removes the light of every block that may have been lit through a
+    * block whose light was removed, which are the blocks next to it with
+    * less light. Blocks next to it with at least as much light are lit
+    * otherwise and spread their light again afterwards, as do the light
+    * sources among the removed blocks.
+    */
+   private void propagateDecrease() {
+      for(int i = 0; i < this.decreaseEnd; ++i) {
+         ++this.steps;
+         int j = this.decreaseQueue[i];
+         int k = j & 131071;
+         int l = j >>> 17 & 15;
+         int m = j >>> 21;
+         int n = k % WINDOW_SIZE;
+         int o = k / WINDOW_SIZE % WINDOW_SIZE;
+         int p = k / (WINDOW_SIZE * WINDOW_SIZE);
+
+         for(int q = 0; q < DIRECTIONS.length; ++q) {
+            if ((m & 1 << q) != 0) {
+               Direction direction = DIRECTIONS[q];
+               int r = n + direction.getOffsetX();
+               int s = p + direction.getOffsetY();
+               int t = o + direction.getOffsetZ();
+               if (isInWindow(r, s, t) && this.window[getSectionIndex(r, s, t)] != null) {
+                  int u = this.getLight(r, s, t);
+                  if (u != 0) {
+                     int v = getIndex(r, s, t);
+                     if (u >= l) {
+                        this.enqueueIncrease(v, u, ALL_DIRECTIONS);
+                     } else {
+                        int w = this.getLuminance(r, s, t);
+                        if (w >= u) {
+                           this.enqueueIncrease(v, u, ALL_DIRECTIONS);
+                        } else {
+                           this.setLight(r, s, t, 0);
+                           this.enqueueDecrease(v, u, ALL_DIRECTIONS & ~(1 << direction.getOpposite().ordinal()));
+                           if (w > 0) {
+                              this.setLight(r, s, t, w);
+                              this.enqueueIncrease(v, w, ALL_DIRECTIONS);
+                           }
+                        }
+                     }
+                  }
+               }
+            }
+         }
+      }
+
+      this.decreaseEnd = 0;
+   }
+
+   private void propagateIncrease() {
+      for(int i = 0; i < this.increaseEnd; ++i) {
+         ++this.steps;
+         int j = this.increaseQueue[i];
+         int k = j & 131071;
+         int l = j >>> 17 & 15;
+         int m = j >>> 21;
+         int n = k % WINDOW_SIZE;
+         int o = k / WINDOW_SIZE % WINDOW_SIZE;
+         int p = k / (WINDOW_SIZE * WINDOW_SIZE);
+         if (l > 1 && this.getLight(n, p, o) == l) {
+            long q = this.asBlockPos(n, p, o);
+
+            for(int r = 0; r < DIRECTIONS.length; ++r) {
+               if ((m & 1 << r) != 0) {
+                  Direction direction = DIRECTIONS[r];
+                  int s = n + direction.getOffsetX();
+                  int t = p + direction.getOffsetY();
+                  int u = o + direction.getOffsetZ();
+                  if (isInWindow(s, t, u) && this.window[getSectionIndex(s, t, u)] != null) {
+                     int v = this.getLight(s, t, u);
+                     if (v < l - 1) {
+                        int w = 15 - MathHelper.clamp(this.getPropagatedLevel(q, this.asBlockPos(s, t, u), 15 - l), 0, 15);
+                        if (w > v) {
+                           this.setLight(s, t, u, w);
+                           this.enqueueIncrease(getIndex(s, t, u), w, ALL_DIRECTIONS & ~(1 << direction.getOpposite().ordinal()));
+                        }
+                     }
+                  }
+               }
+            }
+         }
+      }
+
+      this.increaseEnd = 0;
+   }
+
+   private void enqueueIncrease(int index, int light, int directions) {
+      if (this.increaseEnd == this.increaseQueue.length) {
+         int[] is = new int[this.increaseEnd * 2];
+         System.arraycopy(this.increaseQueue, 0, is, 0, this.increaseEnd);
+         this.increaseQueue = is;
+      }
+
+      this.increaseQueue[this.increaseEnd++] = index | light << 17 | directions << 21;
+   }
+
+   private void enqueueDecrease(int index, int light, int directions) {
+      if (this.decreaseEnd == this.decreaseQueue.length) {
+         int[] is = new int[this.decreaseEnd * 2];
+         System.arraycopy(this.decreaseQueue, 0, is, 0, this.decreaseEnd);
+         this.decreaseQueue = is;
+      }
+
+      this.decreaseQueue[this.decreaseEnd++] = index | light << 17 | directions << 21;
+   }
+
+   private ChunkNibbleArray[] copyWindow() {
+      ChunkNibbleArray[] chunkNibbleArrays = new ChunkNibbleArray[this.window.length];
+
+      for(int i = 0; i < this.window.length; ++i) {
+         if (this.window[i] != null) {
+            chunkNibbleArrays[i] = this.window[i].copy();
+         }
+      }
+
+      return chunkNibbleArrays;
+   }
+
+   /**
+    * Applies the updates of the section again with the propagator, starting
+    * from the light the window had before, and logs where its light differs
+    * from the light the searches left.
+    */
+   private void verify(long sectionPos, QueuedBlockLightProvider.SectionUpdates sectionUpdates, ChunkNibbleArray[] before) {
+      ChunkNibbleArray[] chunkNibbleArrays = this.copyWindow();
+
+      for(int i = 0; i < this.window.length; ++i) {
+         if (before[i] != null && this.writable[i]) {
+            System.arraycopy(before[i].asReadOnlyByteArray(), 0, this.window[i].asByteArray(), 0, 2048);
+         }
+      }
+
+      this.applyWithPropagator(ChunkSectionPos.from(sectionPos), sectionUpdates);
+      this.applyPendingUpdates(Integer.MAX_VALUE);
+      int j = 0;
+      long l = 0L;
+
+      for(int k = 0; k < this.window.length; ++k) {
+         if (chunkNibbleArrays[k] != null) {
+            ChunkNibbleArray chunkNibbleArray = ((BlockLightStorage)this.lightStorage).getLightSection(this.windowSections[k], true);
+
+            for(int m = 0; m < 16; ++m) {
+               for(int n = 0; n < 16; ++n) {
+                  for(int o = 0; o < 16; ++o) {
+                     if (chunkNibbleArray.get(o, m, n) != chunkNibbleArrays[k].get(o, m, n)) {
+                        if (j++ == 0) {
+                           l = BlockPos.asLong(ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(this.windowSections[k])) + o, ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(this.windowSections[k])) + m, ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(this.windowSections[k])) + n);
+                        }
+                     }
+                  }
+               }
+            }
+         }
+      }
+
+      if (j > 0) {
+         LOGGER.warn("Queued block light around section {} differs from the propagator at {} blocks, first at {}", ChunkSectionPos.from(sectionPos), j, BlockPos.fromLong(l));
+      }
+
+   }
+
+   static class SectionUpdates {
+      private final ShortSet checks = new ShortOpenHashSet();
+      private final Short2ByteMap sources = new Short2ByteOpenHashMap();
+   }
+}
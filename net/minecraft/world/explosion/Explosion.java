@@ -4,6 +4,16 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.longs.Long2FloatMap;
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectListIterator;
 import java.util.Collections;
@@ -13,6 +23,10 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.block.AbstractFireBlock;
@@ -26,9 +40,11 @@ import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.TntEntity;
 import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.entity.mob.CreeperEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.projectile.ProjectileEntity;
 import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
 import net.minecraft.item.ItemStack;
 import net.minecraft.loot.context.LootContext;
 import net.minecraft.loot.context.LootContextParameters;
@@ -36,6 +52,9 @@ import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
+import net.minecraft.util.Util;
+import net.minecraft.util.crash.CrashException;
+import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
@@ -43,10 +62,26 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.RaycastContext;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * An explosion, destroying blocks along rays cast from its center and
+ * damaging the entities around it.
+ *
+ * <p>Rays look up each block position once per explosion and share the
+ * results between rays. With the {@code explosion.parallel} system property
+ * set, rays of explosions whose behavior only depends on block states are
+ * traced on the worker executor as well, provided every chunk they can reach
+ * is loaded. The random values of the rays are drawn up front and their
+ * results are merged in ray order, so the affected blocks are the same
+ * either way.
+ */
 public class Explosion {
    private static final ExplosionBehavior field_25818 = new ExplosionBehavior();
+   private static final boolean PARALLEL = Boolean.parseBoolean(System.getProperty("explosion.parallel", "false"));
+   private static final int RAY_BATCH_SIZE = 64;
+   private static final double[] RAY_DIRECTIONS = createRayDirections();
    private final boolean createFire;
    private final Explosion.DestructionType destructionType;
    private final Random random;
@@ -98,6 +133,28 @@ public class Explosion {
       return (ExplosionBehavior)(entity == null ? field_25818 : new EntityExplosionBehavior(entity));
    }
 
+   private static double[] createRayDirections() {
+      DoubleList doubleList = new DoubleArrayList();
+
+      for(int i = 0; i < 16; ++i) {
+         for(int j = 0; j < 16; ++j) {
+            for(int k = 0; k < 16; ++k) {
+               if (i == 0 || i == 15 || j == 0 || j == 15 || k == 0 || k == 15) {
+                  double d = (double)((float)i / 15.0F * 2.0F - 1.0F);
+                  double e = (double)((float)j / 15.0F * 2.0F - 1.0F);
+                  double f = (double)((float)k / 15.0F * 2.0F - 1.0F);
+                  double g = Math.sqrt(d * d + e * e + f * f);
+                  doubleList.add(d / g);
+                  doubleList.add(e / g);
+                  doubleList.add(f / g);
+               }
+            }
+         }
+      }
+
+      return doubleList.toDoubleArray();
+   }
+
    public static float getExposure(Vec3d source, Entity entity) {
       Box box = entity.getBoundingBox();
       double d = 1.0D / ((box.maxX - box.minX) * 2.0D + 1.0D);
@@ -132,44 +189,33 @@ public class Explosion {
    }
 
    public void collectBlocksAndDamageEntities() {
+      int i = RAY_DIRECTIONS.length / 3;
+      float[] fs = new float[i];
+
+      for(int j = 0; j < i; ++j) {
+         fs[j] = this.world.random.nextFloat();
+      }
+
+      long[][] ls = new long[i][];
+      if (!PARALLEL || !this.traceRaysInParallel(fs, ls)) {
+         Explosion.RayTracer rayTracer = new Explosion.RayTracer((WorldChunk[])null, 0, 0, 0);
+
+         for(int j = 0; j < i; ++j) {
+            ls[j] = rayTracer.trace(j, fs[j]);
+         }
+      }
+
       Set<BlockPos> set = Sets.newHashSet();
-      int i = true;
+      LongSet longSet = new LongOpenHashSet();
 
       int k;
       int l;
-      for(int j = 0; j < 16; ++j) {
-         for(k = 0; k < 16; ++k) {
-            for(l = 0; l < 16; ++l) {
-               if (j == 0 || j == 15 || k == 0 || k == 15 || l == 0 || l == 15) {
-                  double d = (double)((float)j / 15.0F * 2.0F - 1.0F);
-                  double e = (double)((float)k / 15.0F * 2.0F - 1.0F);
-                  double f = (double)((float)l / 15.0F * 2.0F - 1.0F);
-                  double g = Math.sqrt(d * d + e * e + f * f);
-                  d /= g;
-                  e /= g;
-                  f /= g;
-                  float h = this.power * (0.7F + this.world.random.nextFloat() * 0.6F);
-                  double m = this.x;
-                  double n = this.y;
-                  double o = this.z;
-
-                  for(float var21 = 0.3F; h > 0.0F; h -= 0.22500001F) {
-                     BlockPos blockPos = new BlockPos(m, n, o);
-                     BlockState blockState = this.world.getBlockState(blockPos);
-                     FluidState fluidState = this.world.getFluidState(blockPos);
-                     Optional<Float> optional = this.behavior.getBlastResistance(this, this.world, blockPos, blockState, fluidState);
-                     if (optional.isPresent()) {
-                        h -= ((Float)optional.get() + 0.3F) * 0.3F;
-                     }
-
-                     if (h > 0.0F && this.behavior.canDestroyBlock(this, this.world, blockPos, blockState, h)) {
-                        set.add(blockPos);
-                     }
-
-                     m += d * 0.30000001192092896D;
-                     n += e * 0.30000001192092896D;
-                     o += f * 0.30000001192092896D;
-                  }
+      for(k = 0; k < i; ++k) {
+         long[] ms = ls[k];
+         if (ms != null) {
+            for(l = 0; l < ms.length; ++l) {
+               if (longSet.add(ms[l])) {
+                  set.add(BlockPos.fromLong(ms[l]));
                }
             }
          }
@@ -199,7 +245,7 @@ public class Explosion {
                   z /= ac;
                   aa /= ac;
                   ab /= ac;
-                  double ad = (double)getExposure(vec3d, entity);
+                  double ad = (double)this.world.getExposureCache().getExposure(vec3d, entity);
                   double ae = (1.0D - y) * ad;
                   entity.damage(this.getDamageSource(), (float)((int)((ae * ae + ae) / 2.0D * 7.0D * (double)q + 1.0D)));
                   double af = ae;
@@ -221,6 +267,99 @@ public class Explosion {
 
    }
 
+   /**
+    * Traces the rays on the worker executor and the calling thread, or returns
+    * {@code false} without tracing if this explosion cannot be traced off
+    * thread.
+    */
+   private boolean traceRaysInParallel(float[] randoms, long[][] destroyed) {
+      if (!this.world.isClient && this.canTraceOffThread()) {
+         float f = this.power * 1.75F + 1.0F;
+         int i = MathHelper.floor(this.x - (double)f) >> 4;
+         int j = MathHelper.floor(this.z - (double)f) >> 4;
+         int k = (MathHelper.floor(this.x + (double)f) >> 4) - i + 1;
+         int l = (MathHelper.floor(this.z + (double)f) >> 4) - j + 1;
+         WorldChunk[] worldChunks = new WorldChunk[k * l];
+
+         for(int m = 0; m < l; ++m) {
+            for(int n = 0; n < k; ++n) {
+               WorldChunk worldChunk = this.world.getChunkManager().getWorldChunk(i + n, j + m, false);
+               if (worldChunk == null) {
+                  return false;
+               }
+
+               worldChunks[m * k + n] = worldChunk;
+            }
+         }
+
+         int o = (randoms.length + RAY_BATCH_SIZE - 1) / RAY_BATCH_SIZE;
+         AtomicInteger atomicInteger = new AtomicInteger();
+         AtomicInteger atomicInteger2 = new AtomicInteger();
+         AtomicReference<Throwable> atomicReference = new AtomicReference();
+         Runnable runnable = () -> {
+            Explosion.RayTracer rayTracer = new Explosion.RayTracer(worldChunks, i, j, k);
+
+            int p;
+            while((p = atomicInteger.getAndIncrement()) < o) {
+               try {
+                  int q = Math.min((p + 1) * RAY_BATCH_SIZE, randoms.length);
+
+                  for(int r = p * RAY_BATCH_SIZE; r < q; ++r) {
+                     destroyed[r] = rayTracer.trace(r, randoms[r]);
+                  }
+               } catch (Throwable var16) {
+                  atomicReference.compareAndSet(null, var16);
+               } finally {
+                  atomicInteger2.incrementAndGet();
+               }
+            }
+
+         };
+         Executor executor = Util.getMainWorkerExecutor();
+         int s = Math.min(Runtime.getRuntime().availableProcessors() - 1, o - 1);
+
+         for(int t = 0; t < s; ++t) {
+            try {
+               executor.execute(runnable);
+            } catch (RejectedExecutionException var14) {
+               break;
+            }
+         }
+
+         runnable.run();
+
+         while(atomicInteger2.get() < o) {
+            Thread.yield();
+         }
+
+         Throwable throwable = (Throwable)atomicReference.get();
+         if (throwable != null) {
+            throw new CrashException(CrashReport.create(throwable, "Tracing explosion rays"));
+         } else {
+            return true;
+         }
+      } else {
+         return false;
+      }
+   }
+
+   /**
+    * Returns whether the blast resistances and destroyable blocks of this
+    * explosion only depend on block and fluid states, which vanilla behaviors
+    * do unless their entity overrides them.
+    */
+   private boolean canTraceOffThread() {
+      Class<?> class_ = this.behavior.getClass();
+      if (class_ == ExplosionBehavior.class) {
+         return true;
+      } else if (class_ != EntityExplosionBehavior.class || this.entity == null) {
+         return false;
+      } else {
+         Class<?> class2 = this.entity.getClass();
+         return class2 == TntEntity.class || class2 == CreeperEntity.class;
+      }
+   }
+
    /**
     * @param particles whether this explosion should emit explosion or explosion emitter particles around the source of the explosion
     */
@@ -343,6 +482,120 @@ public class Explosion {
       return this.affectedBlocks;
    }
 
+   /**
+    * Traces rays of an explosion, caching the block state and blast resistance
+    * of every position it looks up. Not thread safe; each thread tracing rays
+    * uses its own tracer.
+    */
+   class RayTracer {
+      @Nullable
+      private final WorldChunk[] chunks;
+      private final int minChunkX;
+      private final int minChunkZ;
+      private final int sizeX;
+      private final BlockPos.Mutable pos = new BlockPos.Mutable();
+      private final Long2ObjectMap<BlockState> states = new Long2ObjectOpenHashMap();
+      private final Long2FloatMap resistances = new Long2FloatOpenHashMap();
+      private final LongList destroyed = new LongArrayList();
+      @Nullable
+      private BlockState lastState;
+      private long lastPos;
+      private float lastResistance;
+
+      /**
+       * @param chunks the chunks to read blocks from, indexed by their offset
+       * from the minimum chunk with x varying fastest, or {@code null} to read
+       * blocks from the world
+       */
+      private RayTracer(@Nullable WorldChunk[] chunks, int minChunkX, int minChunkZ, int sizeX) {
+         this.chunks = chunks;
+         this.minChunkX = minChunkX;
+         this.minChunkZ = minChunkZ;
+         this.sizeX = sizeX;
+      }
+
+      /**
+       * Returns the packed positions of the blocks destroyed by the ray, in the
+       * order they were passed, or {@code null} if there are none.
+       */
+      @Nullable
+      private long[] trace(int ray, float random) {
+         double d = Explosion.RAY_DIRECTIONS[ray * 3];
+         double e = Explosion.RAY_DIRECTIONS[ray * 3 + 1];
+         double f = Explosion.RAY_DIRECTIONS[ray * 3 + 2];
+         float g = Explosion.this.power * (0.7F + random * 0.6F);
+         double h = Explosion.this.x;
+         double i = Explosion.this.y;
+         double j = Explosion.this.z;
+         this.lastState = null;
+
+         for(; g > 0.0F; g -= 0.22500001F) {
+            this.pos.set(h, i, j);
+            long l = this.pos.asLong();
+            if (this.lastState == null || l != this.lastPos) {
+               this.lookUp(l);
+            }
+
+            if (!Float.isNaN(this.lastResistance)) {
+               g -= (this.lastResistance + 0.3F) * 0.3F;
+            }
+
+            if (g > 0.0F && Explosion.this.behavior.canDestroyBlock(Explosion.this, Explosion.this.world, this.pos, this.lastState, g)) {
+               this.destroyed.add(l);
+            }
+
+            h += d * 0.30000001192092896D;
+            i += e * 0.30000001192092896D;
+            j += f * 0.30000001192092896D;
+         }
+
+         if (this.destroyed.isEmpty()) {
+            return null;
+         } else {
+            long[] ls = this.destroyed.toLongArray();
+            this.destroyed.clear();
+            return ls;
+         }
+      }
+
+      private void lookUp(long pos) {
+         BlockState blockState = (BlockState)this.states.get(pos);
+         if (blockState == null) {
+            blockState = this.getBlockState(this.pos);
+            FluidState fluidState = this.getFluidState(this.pos);
+            Optional<Float> optional = Explosion.this.behavior.getBlastResistance(Explosion.this, Explosion.this.world, this.pos, blockState, fluidState);
+            this.lastResistance = optional.isPresent() ? (Float)optional.get() : Float.NaN;
+            this.states.put(pos, blockState);
+            this.resistances.put(pos, this.lastResistance);
+         } else {
+            this.lastResistance = this.resistances.get(pos);
+         }
+
+         this.lastState = blockState;
+         this.lastPos = pos;
+      }
+
+      private BlockState getBlockState(BlockPos pos) {
+         if (this.chunks == null) {
+            return Explosion.this.world.getBlockState(pos);
+         } else {
+            return World.isOutOfBuildLimitVertically(pos) ? Blocks.VOID_AIR.getDefaultState() : this.getChunk(pos).getBlockState(pos);
+         }
+      }
+
+      private FluidState getFluidState(BlockPos pos) {
+         if (this.chunks == null) {
+            return Explosion.this.world.getFluidState(pos);
+         } else {
+            return World.isOutOfBuildLimitVertically(pos) ? Fluids.EMPTY.getDefaultState() : this.getChunk(pos).getFluidState(pos);
+         }
+      }
+
+      private WorldChunk getChunk(BlockPos pos) {
+         return this.chunks[((pos.getZ() >> 4) - this.minChunkZ) * this.sizeX + (pos.getX() >> 4) - this.minChunkX];
+      }
+   }
+
    public static enum DestructionType {
       NONE,
       BREAK,
@@ -0,0 +1,68 @@
+package net.minecraft.world.explosion;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+/**
+ * Shares the {@linkplain Explosion#getExposure exposure} of entities between
+ * explosions at the same position within the same tick, such as several TNT
+ * entities exploding in one spot.
+ *
+ * <p>An exposure is reused as long as the entity still has the same bounding
+ * box object, which is replaced whenever the entity moves. All exposures are
+ * dropped when any block of the world changes.
+ */
+public class ExposureCache {
+   private final World world;
+   private final Reference2ObjectMap<Entity, ExposureCache.Entry> exposures = new Reference2ObjectOpenHashMap();
+   private long time = Long.MIN_VALUE;
+   private double x;
+   private double y;
+   private double z;
+
+   public ExposureCache(World world) {
+      this.world = world;
+   }
+
+   public float getExposure(Vec3d source, Entity entity) {
+      long l = this.world.getTime();
+      if (l != this.time || source.x != this.x || source.y != this.y || source.z != this.z) {
+         this.exposures.clear();
+         this.time = l;
+         this.x = source.x;
+         this.y = source.y;
+         this.z = source.z;
+      }
+
+      Box box = entity.getBoundingBox();
+      ExposureCache.Entry entry = (ExposureCache.Entry)this.exposures.get(entity);
+      if (entry != null && entry.box == box) {
+         return entry.exposure;
+      } else {
+         float f = Explosion.getExposure(source, entity);
+         this.exposures.put(entity, new ExposureCache.Entry(box, f));
+         return f;
+      }
+   }
+
+   public void onBlockChanged() {
+      if (!this.exposures.isEmpty()) {
+         this.exposures.clear();
+      }
+
+   }
+
+   static class Entry {
+      private final Box box;
+      private final float exposure;
+
+      private Entry(Box box, float exposure) {
+         this.box = box;
+         this.exposure = exposure;
+      }
+   }
+}
@@ -9,8 +9,10 @@ import com.mojang.serialization.codecs.RecordCodecBuilder;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -66,6 +68,49 @@ public class PointOfInterestSet {
       }).filter(occupationStatus.getPredicate());
    }
 
+   /**
+    * Passes the points of interest {@link #get} would return to the visitor, in
+    * the same order, until it returns {@code false}.
+    *
+    * @return {@code false} if the visitor stopped the iteration
+    */
+   public boolean forEach(Predicate<PointOfInterestType> predicate, PointOfInterestStorage.OccupationStatus occupationStatus, Predicate<PointOfInterest> visitor) {
+      Predicate<? super PointOfInterest> predicate2 = occupationStatus.getPredicate();
+      Iterator var5 = this.pointsOfInterestByType.entrySet().iterator();
+
+      while(true) {
+         Entry entry;
+         do {
+            if (!var5.hasNext()) {
+               return true;
+            }
+
+            entry = (Entry)var5.next();
+         } while(!predicate.test((PointOfInterestType)entry.getKey()));
+
+         Iterator var7 = ((Set)entry.getValue()).iterator();
+
+         while(var7.hasNext()) {
+            PointOfInterest pointOfInterest = (PointOfInterest)var7.next();
+            if (predicate2.test(pointOfInterest) && !visitor.test(pointOfInterest)) {
+               return false;
+            }
+         }
+      }
+   }
+
+   /**
+    * Adds the types of the points of interest in this set to the given set.
+    */
+   public void collectTypes(Set<PointOfInterestType> types) {
+      this.pointsOfInterestByType.forEach((pointOfInterestType, set) -> {
+         if (!set.isEmpty()) {
+            types.add(pointOfInterestType);
+         }
+
+      });
+   }
+
    public void add(BlockPos pos, PointOfInterestType type) {
       if (this.add(new PointOfInterest(pos, type, this.updateListener))) {
          LOGGER.debug("Added POI of type {} @ {}", () -> {
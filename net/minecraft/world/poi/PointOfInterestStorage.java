@@ -1,14 +1,18 @@
 package net.minecraft.world.poi;
 
+import com.google.common.collect.Sets;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.longs.Long2ByteMap;
 import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import java.io.File;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -30,10 +34,16 @@ import net.minecraft.world.WorldView;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.storage.SerializingRegionBasedStorage;
+import org.jetbrains.annotations.Nullable;
 
 public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointOfInterestSet> {
    private final PointOfInterestStorage.PointOfInterestDistanceTracker pointOfInterestDistanceTracker = new PointOfInterestStorage.PointOfInterestDistanceTracker();
    private final LongSet preloadedChunks = new LongOpenHashSet();
+   /**
+    * The types of the points of interest in each chunk, computed once all
+    * sections of the chunk are loaded and dropped whenever one changes.
+    */
+   private final Long2ObjectMap<Set<PointOfInterestType>> typesByChunk = new Long2ObjectOpenHashMap();
 
    public PointOfInterestStorage(File file, DataFixer dataFixer, boolean bl) {
       super(file, PointOfInterestSet::createCodec, PointOfInterestSet::new, dataFixer, DataFixTypes.POI_CHUNK, bl);
@@ -48,7 +58,76 @@ public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointO
    }
 
    public long count(Predicate<PointOfInterestType> typePredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus) {
-      return this.getInCircle(typePredicate, pos, radius, occupationStatus).count();
+      long[] ls = new long[1];
+      this.forEachInCircle(typePredicate, pos, radius, occupationStatus, (pointOfInterest) -> {
+         ++ls[0];
+         return true;
+      });
+      return ls[0];
+   }
+
+   /**
+    * Passes the points of interest {@link #getInCircle} would return to the
+    * visitor, in the same order, until it returns {@code false}. Chunks
+    * without points of interest of a matching type are skipped.
+    */
+   private void forEachInCircle(Predicate<PointOfInterestType> typePredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus, Predicate<PointOfInterest> visitor) {
+      int i = Math.floorDiv(radius, 16) + 1;
+      int j = radius * radius;
+      int k = pos.getX() >> 4;
+      int l = pos.getZ() >> 4;
+      Predicate<PointOfInterest> predicate = (pointOfInterest) -> {
+         BlockPos blockPos2 = pointOfInterest.getPos();
+         return Math.abs(blockPos2.getX() - pos.getX()) > radius || Math.abs(blockPos2.getZ() - pos.getZ()) > radius || blockPos2.getSquaredDistance(pos) > (double)j || visitor.test(pointOfInterest);
+      };
+
+      for(int m = l - i; m <= l + i; ++m) {
+         for(int n = k - i; n <= k + i; ++n) {
+            if (this.mayContain(typePredicate, n, m)) {
+               for(int o = 0; o < 16; ++o) {
+                  Optional<PointOfInterestSet> optional = this.get(ChunkSectionPos.asLong(n, o, m));
+                  if (optional.isPresent() && !((PointOfInterestSet)optional.get()).forEach(typePredicate, occupationStatus, predicate)) {
+                     return;
+                  }
+               }
+            }
+         }
+      }
+
+   }
+
+   private boolean mayContain(Predicate<PointOfInterestType> typePredicate, int chunkX, int chunkZ) {
+      long l = ChunkPos.toLong(chunkX, chunkZ);
+      Set<PointOfInterestType> set = (Set)this.typesByChunk.get(l);
+      if (set == null) {
+         set = Sets.newHashSet();
+
+         for(int i = 0; i < 16; ++i) {
+            Optional<PointOfInterestSet> optional = this.getIfLoaded(ChunkSectionPos.asLong(chunkX, i, chunkZ));
+            if (optional == null) {
+               return true;
+            }
+
+            if (optional.isPresent()) {
+               ((PointOfInterestSet)optional.get()).collectTypes(set);
+            }
+         }
+
+         this.typesByChunk.put(l, set);
+      }
+
+      Iterator var8 = set.iterator();
+
+      PointOfInterestType pointOfInterestType;
+      do {
+         if (!var8.hasNext()) {
+            return false;
+         }
+
+         pointOfInterestType = (PointOfInterestType)var8.next();
+      } while(!typePredicate.test(pointOfInterestType));
+
+      return true;
    }
 
    public boolean hasTypeAt(PointOfInterestType type, BlockPos pos) {
@@ -58,7 +137,9 @@ public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointO
 
    public Stream<PointOfInterest> getInSquare(Predicate<PointOfInterestType> typePredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus) {
       int i = Math.floorDiv(radius, 16) + 1;
-      return ChunkPos.stream(new ChunkPos(pos), i).flatMap((chunkPos) -> {
+      return ChunkPos.stream(new ChunkPos(pos), i).filter((chunkPos) -> {
+         return this.mayContain(typePredicate, chunkPos.x, chunkPos.z);
+      }).flatMap((chunkPos) -> {
          return this.getInChunk(typePredicate, chunkPos, occupationStatus);
       }).filter((pointOfInterest) -> {
          BlockPos blockPos2 = pointOfInterest.getPos();
@@ -92,22 +173,47 @@ public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointO
    }
 
    public Optional<BlockPos> getPosition(Predicate<PointOfInterestType> typePredicate, Predicate<BlockPos> posPredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus) {
-      return this.getPositions(typePredicate, posPredicate, pos, radius, occupationStatus).findFirst();
+      PointOfInterest pointOfInterest = this.getFirst(typePredicate, posPredicate, pos, radius, occupationStatus);
+      return pointOfInterest == null ? Optional.empty() : Optional.of(pointOfInterest.getPos());
    }
 
    public Optional<BlockPos> getNearestPosition(Predicate<PointOfInterestType> typePredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus) {
-      return this.getInCircle(typePredicate, pos, radius, occupationStatus).map(PointOfInterest::getPos).min(Comparator.comparingDouble((blockPos2) -> {
-         return blockPos2.getSquaredDistance(pos);
-      }));
+      BlockPos[] blockPoss = new BlockPos[1];
+      double[] ds = new double[]{Double.MAX_VALUE};
+      this.forEachInCircle(typePredicate, pos, radius, occupationStatus, (pointOfInterest) -> {
+         double d = pointOfInterest.getPos().getSquaredDistance(pos);
+         if (blockPoss[0] == null || d < ds[0]) {
+            blockPoss[0] = pointOfInterest.getPos();
+            ds[0] = d;
+         }
+
+         return true;
+      });
+      return Optional.ofNullable(blockPoss[0]);
    }
 
    public Optional<BlockPos> getPosition(Predicate<PointOfInterestType> typePredicate, Predicate<BlockPos> positionPredicate, BlockPos pos, int radius) {
-      return this.getInCircle(typePredicate, pos, radius, PointOfInterestStorage.OccupationStatus.HAS_SPACE).filter((pointOfInterest) -> {
-         return positionPredicate.test(pointOfInterest.getPos());
-      }).findFirst().map((pointOfInterest) -> {
+      PointOfInterest pointOfInterest = this.getFirst(typePredicate, positionPredicate, pos, radius, PointOfInterestStorage.OccupationStatus.HAS_SPACE);
+      if (pointOfInterest == null) {
+         return Optional.empty();
+      } else {
          pointOfInterest.reserveTicket();
-         return pointOfInterest.getPos();
+         return Optional.of(pointOfInterest.getPos());
+      }
+   }
+
+   @Nullable
+   private PointOfInterest getFirst(Predicate<PointOfInterestType> typePredicate, Predicate<BlockPos> posPredicate, BlockPos pos, int radius, PointOfInterestStorage.OccupationStatus occupationStatus) {
+      PointOfInterest[] pointOfInterests = new PointOfInterest[1];
+      this.forEachInCircle(typePredicate, pos, radius, occupationStatus, (pointOfInterest) -> {
+         if (posPredicate.test(pointOfInterest.getPos())) {
+            pointOfInterests[0] = pointOfInterest;
+            return false;
+         } else {
+            return true;
+         }
       });
+      return pointOfInterests[0];
    }
 
    public Optional<BlockPos> getPosition(Predicate<PointOfInterestType> typePredicate, Predicate<BlockPos> positionPredicate, PointOfInterestStorage.OccupationStatus occupationStatus, BlockPos pos, int radius, Random random) {
@@ -152,10 +258,12 @@ public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointO
 
    protected void onUpdate(long pos) {
       super.onUpdate(pos);
+      this.typesByChunk.remove(ChunkPos.toLong(ChunkSectionPos.unpackX(pos), ChunkSectionPos.unpackZ(pos)));
       this.pointOfInterestDistanceTracker.update(pos, this.pointOfInterestDistanceTracker.getInitialLevel(pos), false);
    }
 
    protected void onLoad(long pos) {
+      this.typesByChunk.remove(ChunkPos.toLong(ChunkSectionPos.unpackX(pos), ChunkSectionPos.unpackZ(pos)));
       this.pointOfInterestDistanceTracker.update(pos, this.pointOfInterestDistanceTracker.getInitialLevel(pos), false);
    }
 